@@ -6,16 +6,21 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.nio.charset.StandardCharsets;
@@ -26,6 +31,8 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.core.publisher.Flux;
+
 /**
  * Controller to handle booking related requests.
  * Acts as a gateway to redirect requests to the booking-service microservice.
@@ -39,6 +46,9 @@ public class BookingController {
     @Autowired
     private RestTemplate restTemplate;
 
+    // Streams cannot go through RestTemplate, which reads the whole body
+    private final WebClient webClient = WebClient.create();
+
     @Value("${microservice.booking-service.url}")
     private String bookingServiceUrl;
     @Value("${microservice.payment-service.url}")
@@ -48,12 +58,14 @@ public class BookingController {
      * 
      * @param facilityId The ID of the facility
      * @param date The date in format YYYY-MM-DD
-     * @return List of available time slots
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return List of available time slots, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/available_slots")
     public ResponseEntity<?> getAvailableTimeSlots(
             @RequestParam Long facilityId,
-            @RequestParam String date) {
+            @RequestParam String date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         logger.info("Received request to fetch available time slots for facility ID: {} on date: {}", 
                 facilityId, date);
@@ -66,6 +78,9 @@ public class BookingController {
             
             // Set up authentication headers
             HttpHeaders headers = createAuthHeaders();
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             // Forward the request to the booking microservice
@@ -78,9 +93,17 @@ public class BookingController {
 
             logger.info("Successfully fetched available time slots from booking-service");
 
+            // Pass the ETag on, so the client can revalidate with If-None-Match next time
+            HttpHeaders responseHeaders = new HttpHeaders();
+            if (response.getHeaders().getETag() != null) {
+                responseHeaders.setETag(response.getHeaders().getETag());
+                responseHeaders.setCacheControl(response.getHeaders().getCacheControl());
+            }
+
             // Return the response from the booking microservice
             return ResponseEntity
                     .status(response.getStatusCode())
+                    .headers(responseHeaders)
                     .body(response.getBody());
 
         } catch (Exception e) {
@@ -91,30 +114,279 @@ public class BookingController {
         }
     }
 
+    /**
+     * Get availability for several facilities over a date range
+     * 
+     * @param facilityIds The IDs of the facilities
+     * @param from First date in format YYYY-MM-DD (inclusive)
+     * @param to Last date in format YYYY-MM-DD (inclusive)
+     * @param format "list" for per-slot objects or "bitmask" for one hex mask per day
+     * @return Availability per facility and day
+     */
+    @GetMapping("/availability_range")
+    public ResponseEntity<?> getAvailabilityRange(
+            @RequestParam List<Long> facilityIds,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "list") String format) {
+
+        logger.info("Received request to fetch availability for facility IDs: {} from {} to {}",
+                facilityIds, from, to);
+
+        try {
+            // Build URL with query parameters
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(bookingServiceUrl + "/get_availability_range")
+                    .queryParam("facilityIds", facilityIds.toArray())
+                    .queryParam("from", from)
+                    .queryParam("to", to)
+                    .queryParam("format", format);
+
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            HttpEntity<String> entity = new HttpEntity<>(headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    builder.toUriString(),
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            logger.info("Successfully fetched availability range from booking-service");
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected availability range request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while fetching availability range: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to fetch availability range: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Find the next free blocks of a given length at a facility
+     * 
+     * @param facilityId The ID of the facility
+     * @param durationMinutes Length of the block in minutes
+     * @param from First date to search in format YYYY-MM-DD (default today)
+     * @param count Number of blocks to return
+     * @return Free blocks in time order
+     */
+    @GetMapping("/next_available")
+    public ResponseEntity<?> findNextAvailable(
+            @RequestParam Long facilityId,
+            @RequestParam Integer durationMinutes,
+            @RequestParam(required = false) String from,
+            @RequestParam(defaultValue = "1") Integer count) {
+
+        logger.info("Received request to find next {} free {}-minute blocks for facility ID: {}",
+                count, durationMinutes, facilityId);
+
+        try {
+            // Build URL with query parameters
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(bookingServiceUrl + "/next_available")
+                    .queryParam("facilityId", facilityId)
+                    .queryParam("durationMinutes", durationMinutes)
+                    .queryParam("count", count);
+            if (from != null) {
+                builder.queryParam("from", from);
+            }
+
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            HttpEntity<String> entity = new HttpEntity<>(headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    builder.toUriString(),
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            logger.info("Successfully fetched next available blocks from booking-service");
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected next available request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while finding next available blocks: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to find next available blocks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quote the price of a whole selection of slots without booking them
+     * 
+     * @param quoteData Facility, date, time slots and selected add-ons, as sent to /hold
+     * @return Price of each merged range, the total, and the add-ons that can be chosen
+     */
+    @PostMapping("/pricing/quote")
+    public ResponseEntity<?> quotePrice(@RequestBody Map<String, Object> quoteData) {
+        try {
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(quoteData, headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    bookingServiceUrl + "/pricing/quote",
+                    HttpMethod.POST,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected price quote request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while quoting price: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to quote price: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Relay live slot changes of a facility on a date as Server-Sent Events
+     * 
+     * @param facilityId The ID of the facility
+     * @param date The date in format YYYY-MM-DD
+     * @return Events from booking-service, passed through as they arrive
+     */
+    @GetMapping(value = "/availability_stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamAvailability(
+            @RequestParam Long facilityId,
+            @RequestParam String date) {
+
+        logger.info("Received live availability subscription for facility ID: {} on date: {}", facilityId, date);
+
+        String uri = UriComponentsBuilder.fromHttpUrl(bookingServiceUrl + "/availability/stream")
+                .queryParam("facilityId", facilityId)
+                .queryParam("date", date)
+                .toUriString();
+
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> headers.addAll(createAuthHeaders()))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .doOnError(e -> logger.warn("Live availability stream for facility ID: {} ended: {}",
+                        facilityId, e.getMessage()));
+    }
+
+    /**
+     * Get a facility's occupancy by weekday and hour
+     * 
+     * @param facilityId The ID of the facility
+     * @param from First date in format YYYY-MM-DD (optional)
+     * @param to Last date in format YYYY-MM-DD (optional)
+     * @return Booked minutes and occupancy share per weekday and hour
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<?> getOccupancyHeatmap(
+            @RequestParam Long facilityId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        logger.info("Received request for occupancy heatmap of facility ID: {}", facilityId);
+
+        try {
+            UriComponentsBuilder builder = UriComponentsBuilder
+                    .fromHttpUrl(bookingServiceUrl + "/reports/facility/" + facilityId + "/heatmap");
+            if (from != null) {
+                builder.queryParam("from", from);
+            }
+            if (to != null) {
+                builder.queryParam("to", to);
+            }
+
+            HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders());
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    builder.toUriString(),
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected occupancy heatmap request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while fetching occupancy heatmap: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to fetch occupancy heatmap: " + e.getMessage());
+        }
+    }
+
     /**
      * Get all bookings for a user
      * 
      * @param userId The ID of the user
-     * @return List of bookings for the user
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per booked range
+     * @param cursor Cursor from the previous page (omit for the first page)
+     * @param limit Page size (optional)
+     * @return One page of the user's bookings and the cursor of the next page
      */
     @GetMapping("/user")
-    public ResponseEntity<?> getUserBookings(@RequestParam Integer userId) {
+    public ResponseEntity<?> getUserBookings(@RequestParam Integer userId,
+            @RequestParam(defaultValue = "slots") String view,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         logger.info("Received request to fetch bookings for user ID: {}", userId);
 
         try {
             // Build URL with query parameters
-            String url = bookingServiceUrl + "/user?userId=" + userId;
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(bookingServiceUrl + "/user")
+                    .queryParam("userId", userId)
+                    .queryParam("view", view);
+            if (cursor != null)
+                builder.queryParam("cursor", cursor);
+            if (limit != null)
+                builder.queryParam("limit", limit);
+            String url = builder.toUriString();
             
             // Set up authentication headers
             HttpHeaders headers = createAuthHeaders();
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             // Forward the request to the booking microservice
-            ResponseEntity<List<?>> response = restTemplate.exchange(
+            ResponseEntity<Object> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     entity,
-                    new ParameterizedTypeReference<List<?>>() {});
+                    Object.class);
 
             logger.info("Successfully fetched user bookings from booking-service");
 
@@ -123,6 +395,11 @@ public class BookingController {
                     .status(response.getStatusCode())
                     .body(response.getBody());
 
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected user bookings request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
         } catch (Exception e) {
             logger.error("Error while fetching user bookings: {}", e.getMessage(), e);
             return ResponseEntity
@@ -135,20 +412,28 @@ public class BookingController {
      * Cancel a booking group (all time slots in a booking)
      * 
      * @param bookingGroupId The ID of the booking group to cancel
+     * @param from First day of the group's bookings (yyyy-MM-dd), if known
      * @return Cancellation confirmation
      */
     @DeleteMapping("/cancel-group")
-    public ResponseEntity<?> cancelBookingGroup(@RequestParam Long bookingGroupId) {
+    public ResponseEntity<?> cancelBookingGroup(@RequestParam Long bookingGroupId,
+            @RequestParam(required = false) String from) {
         logger.info("Received request to cancel booking group ID: {}", bookingGroupId);
 
         try {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(bookingServiceUrl + "/cancel-group")
+                    .queryParam("bookingGroupId", bookingGroupId);
+            if (from != null) {
+                builder.queryParam("from", from);
+            }
+
             // Set up authentication headers
             HttpHeaders headers = createAuthHeaders();
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             // Forward the request to the booking microservice
             ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    bookingServiceUrl + "/cancel-group?bookingGroupId=" + bookingGroupId,
+                    builder.toUriString(),
                     HttpMethod.DELETE,
                     entity,
                     new ParameterizedTypeReference<Map<String, Object>>() {});
@@ -180,6 +465,130 @@ public class BookingController {
         }
     }
 
+    /**
+     * Hold time slots while the user completes checkout
+     * 
+     * @param holdData Facility, user, date and time slots to hold, plus an optional holdMinutes
+     * @return Held booking group with its expiry time
+     */
+    @PostMapping("/hold")
+    public ResponseEntity<?> holdSlots(@RequestBody Map<String, Object> holdData) {
+        logger.info("Received request to hold slots: {}", holdData);
+
+        try {
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(holdData, headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    bookingServiceUrl + "/hold",
+                    HttpMethod.POST,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            logger.info("Successfully held slots in booking group: {}", response.getBody().get("bookingGroupId"));
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected hold request: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while holding slots: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to hold slots: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Book the same slot repeatedly, e.g. every Tuesday at 19:00 for a league season
+     * 
+     * @param seriesData userId, facilityId, startDate, endDate, startTime, endTime,
+     *                   frequency (WEEKLY or DAILY), interval and allowPartial
+     * @return Booked occurrences and the dates that were already taken
+     */
+    @PostMapping("/create-series")
+    public ResponseEntity<?> createRecurringSeries(@RequestBody Map<String, Object> seriesData) {
+        logger.info("Received request to create recurring booking: {}", seriesData);
+
+        try {
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(seriesData, headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    bookingServiceUrl + "/create-series",
+                    HttpMethod.POST,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            logger.info("Successfully created recurring booking group: {}", response.getBody().get("bookingGroupId"));
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (HttpClientErrorException e) {
+            logger.warn("Booking-service rejected recurring booking: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
+        } catch (Exception e) {
+            logger.error("Error while creating recurring booking: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to create recurring booking: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Release held slots, e.g. when the user abandons checkout
+     * 
+     * @param bookingGroupId The booking group ID of the hold
+     * @return Release confirmation
+     */
+    @DeleteMapping("/hold")
+    public ResponseEntity<?> releaseHold(@RequestParam Long bookingGroupId) {
+        logger.info("Received request to release hold for booking group ID: {}", bookingGroupId);
+
+        try {
+            // Set up authentication headers
+            HttpHeaders headers = createAuthHeaders();
+            HttpEntity<String> entity = new HttpEntity<>(headers);
+
+            // Forward the request to the booking microservice
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                    bookingServiceUrl + "/hold?bookingGroupId=" + bookingGroupId,
+                    HttpMethod.DELETE,
+                    entity,
+                    new ParameterizedTypeReference<Map<String, Object>>() {});
+
+            logger.info("Successfully released hold for booking group ID: {}", bookingGroupId);
+
+            // Return the response from the booking microservice
+            return ResponseEntity
+                    .status(response.getStatusCode())
+                    .body(response.getBody());
+
+        } catch (Exception e) {
+            logger.error("Error while releasing hold: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .internalServerError()
+                    .body("Failed to release hold: " + e.getMessage());
+        }
+    }
+
     /**
      * Get booking details by booking ID
      * 
@@ -7,8 +7,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.beans.factory.annotation.Value;
@@ -48,10 +50,12 @@ public class FacilityController {
     /**
      * Get all available facilities
      * 
-     * @return List of all facilities
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return List of all facilities, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/all")
-    public ResponseEntity<?> getAllFacilities() {
+    public ResponseEntity<?> getAllFacilities(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Received request to fetch all facilities");
 
         try {
@@ -64,6 +68,9 @@ public class FacilityController {
             byte[] encodedAuth = Base64.getEncoder().encode(auth.getBytes(StandardCharsets.UTF_8));
             String authHeader = "Basic " + new String(encodedAuth);
             headers.set("Authorization", authHeader);
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             // Forward the request to the facility microservice
@@ -81,9 +88,17 @@ public class FacilityController {
 
             logger.info("Successfully fetched facilities from facility-discovery-service");
 
+            // Pass the ETag on, so the client can revalidate with If-None-Match next time
+            HttpHeaders responseHeaders = new HttpHeaders();
+            if (response.getHeaders().getETag() != null) {
+                responseHeaders.setETag(response.getHeaders().getETag());
+                responseHeaders.setCacheControl(response.getHeaders().getCacheControl());
+            }
+
             // Return the response from the facility microservice
             return ResponseEntity
                     .status(response.getStatusCode())
+                    .headers(responseHeaders)
                     .body(response.getBody());
 
         } catch (Exception e) {
@@ -101,6 +116,10 @@ public class FacilityController {
      * @param facilityType
      * @param minPrice
      * @param maxPrice
+     * @param date      Only facilities free on this day (yyyy-MM-dd), with startTime and endTime
+     * @param startTime Start of the free window (HH:mm)
+     * @param endTime   End of the free window (HH:mm)
+     * @param sort      "rating" to order by Bayesian rating, best first
      * @return
      */
     @GetMapping("/search")
@@ -108,7 +127,11 @@ public class FacilityController {
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String facilityType,
             @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice) {
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String startTime,
+            @RequestParam(required = false) String endTime,
+            @RequestParam(required = false) String sort) {
         logger.info("Searching facilities with criteria - city: {}, facilityType: {}, minPrice: {}, maxPrice: {}",
                 city, facilityType, minPrice, maxPrice);
         // Building url for the query :
@@ -125,6 +148,14 @@ public class FacilityController {
                 builder.queryParam("minPrice", minPrice);
             if (maxPrice != null)
                 builder.queryParam("maxPrice", maxPrice);
+            if (date != null)
+                builder.queryParam("date", date);
+            if (startTime != null)
+                builder.queryParam("startTime", startTime);
+            if (endTime != null)
+                builder.queryParam("endTime", endTime);
+            if (sort != null)
+                builder.queryParam("sort", sort);
 
             String url = builder.toUriString();
             HttpHeaders headers = new HttpHeaders();
@@ -147,6 +178,11 @@ public class FacilityController {
             return ResponseEntity
                     .status(response.getStatusCode())
                     .body(response.getBody());
+        } catch (HttpClientErrorException e) {
+            logger.warn("Facility-discovery-service rejected search: {}", e.getStatusCode());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
         } catch (Exception e) {
             logger.error("Error while searching facilities: {}", e.getMessage());
             return ResponseEntity
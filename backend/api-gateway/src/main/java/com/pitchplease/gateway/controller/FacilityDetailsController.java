@@ -42,15 +42,21 @@ public class FacilityDetailsController {
      * Get details for a specific facility
      * 
      * @param id The ID of the facility to fetch details for
-     * @return Facility details
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return Facility details, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/get_details")
-    public ResponseEntity<?> getFacilityDetails(@RequestParam Long id) {
+    public ResponseEntity<?> getFacilityDetails(
+            @RequestParam Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Received request to fetch details for facility with ID: {}", id);
 
         try {
             // Add HTTP Basic Authentication
             HttpHeaders headers = createAuthHeaders();
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             // Build URL with ID parameter
@@ -69,9 +75,17 @@ public class FacilityDetailsController {
             System.out.println("l68 facilitydetailscontroller.java");
             logger.info("Successfully fetched details for facility with ID: {}", id);
 
+            // Pass the ETag on, so the client can revalidate with If-None-Match next time
+            HttpHeaders responseHeaders = new HttpHeaders();
+            if (response.getHeaders().getETag() != null) {
+                responseHeaders.setETag(response.getHeaders().getETag());
+                responseHeaders.setCacheControl(response.getHeaders().getCacheControl());
+            }
+
             // Return the response from the facility-details microservice
             return ResponseEntity
                     .status(response.getStatusCode())
+                    .headers(responseHeaders)
                     .body(response.getBody());
 
         } catch (Exception e) {
@@ -12,11 +12,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import org.springframework.web.bind.annotation.PathVariable;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.HashMap;
@@ -37,6 +40,8 @@ public class PaymentController {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -50,10 +55,12 @@ public class PaymentController {
      * Create a new payment and associated booking
      * 
      * @param paymentData Payment data including booking information
+     * @param idempotencyKey Forwarded to both services so a retried checkout neither books nor charges twice
      * @return Created payment details
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createPaymentAndBooking(@RequestBody Map<String, Object> paymentData) {
+    public ResponseEntity<?> createPaymentAndBooking(@RequestBody Map<String, Object> paymentData,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         logger.info("Received request to create payment and booking: {}", paymentData);
 
         try {
@@ -68,16 +75,31 @@ public class PaymentController {
             // Set up HTTP headers with authentication
             HttpHeaders headers = createAuthHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
+            if (idempotencyKey != null) {
+                headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+            }
 
-            // First, create the booking
-            logger.info("Creating booking with data: {}", bookingData);
-            HttpEntity<Map<String, Object>> bookingEntity = new HttpEntity<>(bookingData, headers);
-            // BOOKING_MICROSERVICE_API_CALL
-            ResponseEntity<Map> bookingResponse = restTemplate.exchange(
-                    bookingServiceUrl + "/create",
-                    HttpMethod.POST,
-                    bookingEntity,
-                    Map.class);
+            // First, create the booking, or confirm the slots held when checkout started
+            ResponseEntity<Map> bookingResponse;
+            Object holdGroupId = paymentData.get("holdGroupId");
+            if (holdGroupId != null) {
+                logger.info("Confirming held booking group: {}", holdGroupId);
+                HttpEntity<String> confirmEntity = new HttpEntity<>(headers);
+                bookingResponse = restTemplate.exchange(
+                        bookingServiceUrl + "/hold/confirm?bookingGroupId=" + holdGroupId,
+                        HttpMethod.POST,
+                        confirmEntity,
+                        Map.class);
+            } else {
+                logger.info("Creating booking with data: {}", bookingData);
+                HttpEntity<Map<String, Object>> bookingEntity = new HttpEntity<>(bookingData, headers);
+                // BOOKING_MICROSERVICE_API_CALL
+                bookingResponse = restTemplate.exchange(
+                        bookingServiceUrl + "/create",
+                        HttpMethod.POST,
+                        bookingEntity,
+                        Map.class);
+            }
 
             if (!bookingResponse.getStatusCode().is2xxSuccessful()) {
                 logger.error("Failed to create booking. Status: {}", bookingResponse.getStatusCode());
@@ -93,6 +115,9 @@ public class PaymentController {
             // Add booking ID to payment data
             paymentOnlyData.put("bookingGroupId", bookingId);
 
+            // Charge what booking-service priced the slots at, never an amount sent by the client
+            paymentOnlyData.put("amount", bookedAmount(bookingResponseBody));
+
             // Create the payment
             logger.info("Creating payment with data: {}", paymentOnlyData);
             HttpEntity<Map<String, Object>> paymentEntity = new HttpEntity<>(paymentOnlyData, headers);
@@ -117,6 +142,12 @@ public class PaymentController {
 
             return ResponseEntity.ok(combinedResponse);
 
+        } catch (HttpClientErrorException.Conflict | HttpClientErrorException.Gone e) {
+            // The slots were taken by someone else or the hold ran out; let the client pick again
+            logger.warn("Booking rejected: {}", e.getResponseBodyAsString());
+            return ResponseEntity
+                    .status(e.getStatusCode())
+                    .body(e.getResponseBodyAsString());
         } catch (Exception e) {
             logger.error("Error processing payment and booking: {}", e.getMessage(), e);
             return ResponseEntity
@@ -125,6 +156,33 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Sum of the prices of the bookings in a booking-service create or confirm response
+     *
+     * @throws IllegalStateException if a booking has no price
+     */
+    private static BigDecimal bookedAmount(Map<String, Object> bookingResponseBody) {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (Object booking : (List<?>) bookingResponseBody.get("bookings")) {
+            Object price = ((Map<?, ?>) booking).get("totalPrice");
+            if (price == null) {
+                throw new IllegalStateException("Booking-service returned a booking without a price");
+            }
+            amount = amount.add(new BigDecimal(price.toString()));
+        }
+        return amount;
+    }
+
+    /**
+     * Selected add-ons as the comma-separated list stored with the payment ("" for none)
+     */
+    private static String addonsString(Object addons) {
+        if (addons instanceof List<?> names) {
+            return String.join(", ", names.stream().map(Object::toString).toList());
+        }
+        return addons != null ? addons.toString() : "";
+    }
+
     /**
      * Extract booking-specific data from the combined payment request
      */
@@ -137,6 +195,8 @@ public class PaymentController {
         bookingData.put("date", paymentData.get("date"));
         bookingData.put("timeSlots", paymentData.get("timeSlots"));
         bookingData.put("totalHours", paymentData.get("hours"));
+        // Priced by booking-service, which needs the add-ons too
+        bookingData.put("addons", paymentData.get("addons"));
 
         return bookingData;
     }
@@ -149,14 +209,13 @@ public class PaymentController {
 
         // Required payment fields
         paymentOnlyData.put("userId", paymentData.get("userId"));
-        paymentOnlyData.put("amount", paymentData.get("totalAmount"));
         paymentOnlyData.put("paymentMethod", paymentData.get("paymentMethod"));
         paymentOnlyData.put("paymentStatus", paymentData.get("paymentStatus"));
 
         paymentOnlyData.put("userName", paymentData.get("userName"));
         paymentOnlyData.put("facilityId", paymentData.get("facilityId"));
         paymentOnlyData.put("facilityName", paymentData.get("facilityName"));
-        paymentOnlyData.put("addonsString", paymentData.get("addonsString"));
+        paymentOnlyData.put("addonsString", addonsString(paymentData.get("addons")));
 
         return paymentOnlyData;
     }
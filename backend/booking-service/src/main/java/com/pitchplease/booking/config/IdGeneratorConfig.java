@@ -0,0 +1,29 @@
+package com.pitchplease.booking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.pitchplease.booking.service.NodeIdLeaseService;
+import com.pitchplease.booking.utils.SnowflakeIdGenerator;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    /**
+     * Generator for booking group IDs. Each replica needs its own node ID; when
+     * none is configured one is leased from the database.
+     */
+    @Bean
+    public SnowflakeIdGenerator bookingGroupIdGenerator(
+            @Value("${pitchplease.booking.node-id:-1}") int configuredNodeId,
+            NodeIdLeaseService nodeIdLeaseService) {
+        int nodeId = configuredNodeId >= 0 ? configuredNodeId : nodeIdLeaseService.acquire();
+        logger.info("Booking group IDs will use node ID: {}", nodeId);
+        return new SnowflakeIdGenerator(nodeId);
+    }
+}
@@ -15,7 +15,7 @@ public class SecurityConfig {
         return http
             .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchanges -> exchanges
-            .pathMatchers("/all", "/user", "/facility","/create","/cancel","/user/status", "/get_available_slots", "/check-availability","/cancel-group").permitAll()
+            .pathMatchers("/all", "/export", "/user", "/user/upcoming", "/facility","/create", "/create-series","/cancel","/user/status", "/get_available_slots", "/get_availability_range", "/availability/stream", "/next_available", "/check-availability","/cancel-group", "/hold", "/hold/confirm", "/reports/**", "/pricing/**").permitAll()
             .anyExchange().authenticated()
             )
             .build();
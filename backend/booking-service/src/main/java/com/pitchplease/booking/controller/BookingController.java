@@ -1,32 +1,67 @@
 package com.pitchplease.booking.controller;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.pitchplease.booking.exception.BookingConflictException;
+import com.pitchplease.booking.exception.HoldNotFoundException;
+import com.pitchplease.booking.model.dto.AvailabilityDeltaDto;
 import com.pitchplease.booking.model.dto.BookingDto;
+import com.pitchplease.booking.model.dto.BookingPageDto;
+import com.pitchplease.booking.model.dto.FacilityChangedEventDto;
+import com.pitchplease.booking.model.dto.RecurringBookingRequestDto;
+import com.pitchplease.booking.model.dto.RecurringBookingResultDto;
+import com.pitchplease.booking.repository.BookingRepository;
+import com.pitchplease.booking.service.AvailabilityStreamService;
+import com.pitchplease.booking.service.BookingExportService;
 import com.pitchplease.booking.service.BookingService;
+import com.pitchplease.booking.service.BookingWriteCombiner;
+import com.pitchplease.booking.service.FacilityRateCache;
+import com.pitchplease.booking.service.HistoricalReportService;
+import com.pitchplease.booking.service.IdempotencyService;
+import com.pitchplease.booking.service.OccupancyRollupService;
+import com.pitchplease.booking.service.PricingEngine;
+import com.pitchplease.booking.service.ResourceVersionService;
+import com.pitchplease.booking.service.SlotHoldService;
+import com.pitchplease.booking.utils.SlotRanges;
+
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/")
@@ -37,23 +72,77 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private BookingWriteCombiner bookingWriteCombiner;
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private HistoricalReportService historicalReportService;
+
+    @Autowired
+    private OccupancyRollupService occupancyRollupService;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private FacilityRateCache facilityRateCache;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Value("${pitchplease.booking.write-combiner.timeout-seconds:10}")
+    private long combinerTimeoutSeconds;
+
 
     /**
      * Get all available time slots for a facility on a specific date
      * 
      * @param facilityId The facility ID
      * @param date The date to check
-     * @return ResponseEntity with available time slots
+     * @param format "list" (default) for one object per slot, "bitmask" for the compact hex mask
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return ResponseEntity with available time slots, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/get_available_slots")
     public ResponseEntity<?> getAvailableTimeSlots(
             @RequestParam Long facilityId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "list") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        logger.info("Fetching available time slots for facility ID: {} on date: {}", 
-                facilityId, date);
+        logger.info("Fetching available time slots for facility ID: {} on date: {} as {}", 
+                facilityId, date, format);
         
         try {
+            boolean bitmask = "bitmask".equalsIgnoreCase(format);
+            String etag = resourceVersionService.currentTag(
+                    ResourceVersionService.availability(facilityId, date), bitmask ? "bitmask" : "list");
+            if (ResourceVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+
+            if (bitmask) {
+                return ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .body(bookingService.getAvailabilityMask(facilityId, date));
+            }
+
             // Call the service method to get all available slots
             List<Map<String, Object>> availableSlots = bookingService.getAvailableTimeSlots(facilityId, date);
             
@@ -63,7 +152,10 @@ public class BookingController {
             response.put("date", date.toString());
             response.put("availableSlots", availableSlots);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response);
             
         } catch (Exception e) {
             logger.error("Error fetching available time slots: {}", e.getMessage(), e);
@@ -73,16 +165,137 @@ public class BookingController {
     }
 
     /**
-     * Get all bookings
+     * Get availability for several facilities over a date range in a single call
+     * 
+     * @param facilityIds Comma-separated facility IDs
+     * @param from First date (inclusive)
+     * @param to Last date (inclusive)
+     * @param format "list" (default) for one object per slot, "bitmask" for one hex mask per day
+     * @return ResponseEntity with one availability entry per facility and day
+     */
+    @GetMapping("/get_availability_range")
+    public ResponseEntity<?> getAvailabilityRange(
+            @RequestParam List<Long> facilityIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "list") String format) {
+
+        logger.info("Fetching availability for facility IDs: {} from {} to {} as {}",
+                facilityIds, from, to, format);
+
+        try {
+            List<Map<String, Object>> availability = bookingService.getAvailabilityRange(
+                    facilityIds, from, to, "bitmask".equalsIgnoreCase(format));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("from", from.toString());
+            response.put("to", to.toString());
+            response.put("availability", availability);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected availability range request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error fetching availability range: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to fetch availability range: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Find the next free blocks of a given length at a facility
+     * 
+     * @param facilityId The facility ID
+     * @param durationMinutes Length of the block, e.g. 120 for two hours
+     * @param from First date to search (default today)
+     * @param count Number of blocks to return (default 1)
+     * @return ResponseEntity with the free blocks in time order
+     */
+    @GetMapping("/next_available")
+    public ResponseEntity<?> findNextAvailable(
+            @RequestParam Long facilityId,
+            @RequestParam int durationMinutes,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "1") int count) {
+
+        LocalDate fromDate = from != null ? from : LocalDate.now();
+        logger.info("Finding next {} free {}-minute blocks for facility ID: {} from {}",
+                count, durationMinutes, facilityId, fromDate);
+
+        try {
+            List<Map<String, Object>> blocks = bookingService.findNextAvailable(
+                    facilityId, durationMinutes, fromDate, count);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("facilityId", facilityId);
+            response.put("durationMinutes", durationMinutes);
+            response.put("from", fromDate.toString());
+            response.put("blocks", blocks);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected next available request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error finding next available blocks: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to find next available blocks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get all bookings, one page at a time
      *
-     * @return List of all bookings
+     * @param cursor Cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to the configured page size)
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @return One page of bookings and the cursor of the next page
      */
     @GetMapping("/all")
-    public ResponseEntity<List<BookingDto>> getAllBookings() {
-        logger.info("Fetching all bookings");
-        List<BookingDto> bookings = bookingService.getAllBookings();
-        logger.info("Found {} bookings", bookings.size());
-        return new ResponseEntity<>(bookings, HttpStatus.OK);
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "slots") String view) {
+        logger.info("Fetching page of all bookings after cursor: {}", cursor);
+        return pageResponse(() -> bookingService.getAllBookingsPage(cursor, limit), view);
+    }
+
+    /**
+     * Push slot changes of a facility on a date as Server-Sent Events
+     *
+     * @param facilityId The facility ID
+     * @param date The date to watch
+     * @return A "snapshot" event, then one "change" event per change of the day's booked slots
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AvailabilityDeltaDto>> streamAvailability(
+            @RequestParam Long facilityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        logger.info("Live availability subscription for facility ID: {} on {}", facilityId, date);
+        try {
+            return availabilityStreamService.subscribe(facilityId, date);
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected live availability subscription: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream bookings as newline-delimited JSON, one booking per line, ordered by start time
+     *
+     * @param facilityId Only bookings of this facility (optional)
+     * @param userId Only bookings of this user (optional)
+     * @return Bookings, read from the database as the client consumes them
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingDto> exportBookings(
+            @RequestParam(required = false) Long facilityId,
+            @RequestParam(required = false) Integer userId) {
+        return bookingExportService.exportBookings(facilityId, userId);
     }
 
     /**
@@ -108,13 +321,33 @@ public class BookingController {
      * Get bookings by user ID
      *
      * @param userId User ID
-     * @return List of bookings made by the user
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @param cursor Cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to the configured page size)
+     * @return One page of the user's bookings and the cursor of the next page
      */
     @GetMapping("/user")
-    public ResponseEntity<List<BookingDto>> getBookingsByUserId(@RequestParam Integer userId) {
-        logger.info("Fetching bookings for user ID: {}", userId);
-        List<BookingDto> bookings = bookingService.getBookingsByUserId(userId);
-        logger.info("Found {} bookings for user ID: {}", bookings.size(), userId);
+    public ResponseEntity<?> getBookingsByUserId(@RequestParam Integer userId,
+            @RequestParam(defaultValue = "slots") String view,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("Fetching page of bookings for user ID: {} after cursor: {}", userId, cursor);
+        return pageResponse(() -> bookingService.getBookingsByUserIdPage(userId, cursor, limit), view);
+    }
+
+    /**
+     * Get a user's bookings that have not ended yet, soonest first
+     *
+     * @param userId User ID
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @return Current and future bookings of the user
+     */
+    @GetMapping("/user/upcoming")
+    public ResponseEntity<List<BookingDto>> getUpcomingBookingsByUserId(@RequestParam Integer userId,
+            @RequestParam(defaultValue = "slots") String view) {
+        logger.info("Fetching upcoming bookings for user ID: {}", userId);
+        List<BookingDto> bookings = applyView(bookingService.getUpcomingBookingsByUserId(userId), view);
+        logger.info("Found {} upcoming bookings for user ID: {}", bookings.size(), userId);
         return new ResponseEntity<>(bookings, HttpStatus.OK);
     }
 
@@ -122,14 +355,180 @@ public class BookingController {
      * Get bookings by facility ID
      *
      * @param facilityId Facility ID
-     * @return List of bookings for the facility
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @param cursor Cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to the configured page size)
+     * @return One page of the facility's bookings and the cursor of the next page
      */
     @GetMapping("/facility/{facilityId}")
-    public ResponseEntity<List<BookingDto>> getBookingsByFacilityId(@PathVariable Long facilityId) {
-        logger.info("Fetching bookings for facility ID: {}", facilityId);
-        List<BookingDto> bookings = bookingService.getBookingsByFacilityId(facilityId);
-        logger.info("Found {} bookings for facility ID: {}", bookings.size(), facilityId);
-        return new ResponseEntity<>(bookings, HttpStatus.OK);
+    public ResponseEntity<?> getBookingsByFacilityId(@PathVariable Long facilityId,
+            @RequestParam(defaultValue = "slots") String view,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("Fetching page of bookings for facility ID: {} after cursor: {}", facilityId, cursor);
+        return pageResponse(() -> bookingService.getBookingsByFacilityIdPage(facilityId, cursor, limit), view);
+    }
+
+    /**
+     * Monthly booking and payment totals of a facility
+     *
+     * @param facilityId Facility ID
+     * @param from First month, as YYYY-MM
+     * @param to Last month, as YYYY-MM (defaults to {@code from})
+     * @return One entry per month; closed months are read from the columnar archive
+     */
+    @GetMapping("/reports/facility/{facilityId}")
+    public ResponseEntity<?> getFacilityReport(@PathVariable Long facilityId,
+            @RequestParam String from,
+            @RequestParam(required = false) String to) {
+        try {
+            YearMonth fromMonth = YearMonth.parse(from);
+            YearMonth toMonth = to != null ? YearMonth.parse(to) : fromMonth;
+            logger.info("Building report for facility ID: {} from {} to {}", facilityId, fromMonth, toMonth);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("facilityId", facilityId);
+            response.put("months", historicalReportService.facilityReport(facilityId, fromMonth, toMonth));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            logger.warn("Rejected facility report request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error building facility report: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to build facility report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Occupancy of a facility by weekday and hour, read from the occupancy rollup
+     *
+     * @param facilityId Facility ID
+     * @param from First day (default 12 weeks before {@code to})
+     * @param to Last day (default today)
+     * @return Booked minutes and occupancy share per weekday and hour
+     */
+    @GetMapping("/reports/facility/{facilityId}/heatmap")
+    public ResponseEntity<?> getOccupancyHeatmap(@PathVariable Long facilityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate toDate = to != null ? to : LocalDate.now();
+            LocalDate fromDate = from != null ? from : toDate.minusWeeks(12).plusDays(1);
+            logger.info("Fetching occupancy heatmap for facility ID: {} from {} to {}", facilityId, fromDate, toDate);
+            return ResponseEntity.ok(occupancyRollupService.getHeatmap(facilityId, fromDate, toDate));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected occupancy heatmap request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error fetching occupancy heatmap: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to fetch occupancy heatmap: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quote the price of a booking without creating it
+     *
+     * @param facilityId Facility ID
+     * @param date Day of the booking
+     * @param startTime Start time (HH:mm)
+     * @param endTime End time (HH:mm, "24:00" for midnight)
+     * @param addons Comma-separated add-on names (optional)
+     * @return Price and the add-ons that were applied
+     */
+    @GetMapping("/pricing/quote")
+    public ResponseEntity<?> quotePrice(@RequestParam Long facilityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String startTime,
+            @RequestParam String endTime,
+            @RequestParam(required = false) String addons) {
+        try {
+            LocalDateTime start = date.atStartOfDay().plusMinutes(minuteOfDay(startTime, false));
+            LocalDateTime end = date.atStartOfDay().plusMinutes(minuteOfDay(endTime, true));
+            if (!start.isBefore(end)) {
+                throw new IllegalArgumentException("startTime must be before endTime");
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("facilityId", facilityId);
+            response.put("startTime", start);
+            response.put("endTime", end);
+            response.put("totalPrice", bookingService.priceFor(facilityId, start, end, addons));
+            response.put("availableAddons", pricingEngine.getAddonHourlyPrices());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            logger.warn("Rejected price quote request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Quote a whole selection of slots in one call, priced exactly as /hold and /create
+     * would price them
+     *
+     * @param requestData "facilityId", "date", "timeSlots" and "addons", as for /hold
+     * @return The merged ranges with their prices, the total and the add-ons that can be chosen
+     */
+    @PostMapping("/pricing/quote")
+    public ResponseEntity<?> quoteSelection(@RequestBody Map<String, Object> requestData) {
+        try {
+            Long facilityId = Long.valueOf(requiredField(requestData, "facilityId"));
+            List<BookingDto> slots = new ArrayList<>();
+            for (LocalDateTime[] range : slotRanges(requestData)) {
+                BookingDto slot = new BookingDto();
+                slot.setFacilityId(facilityId);
+                slot.setStartTime(range[0]);
+                slot.setEndTime(range[1]);
+                slots.add(slot);
+            }
+            if (slots.isEmpty()) {
+                return ResponseEntity.badRequest().body("No valid time slots provided for quote");
+            }
+            priceBookings(slots, requestData);
+
+            List<Map<String, Object>> ranges = new ArrayList<>();
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            for (BookingDto range : SlotRanges.merge(slots)) {
+                Map<String, Object> quoted = new HashMap<>();
+                quoted.put("startTime", range.getStartTime());
+                quoted.put("endTime", range.getEndTime());
+                quoted.put("totalPrice", range.getTotalPrice());
+                ranges.add(quoted);
+                totalPrice = totalPrice.add(range.getTotalPrice());
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("facilityId", facilityId);
+            response.put("ranges", ranges);
+            response.put("totalPrice", totalPrice);
+            response.put("availableAddons", pricingEngine.getAddonHourlyPrices());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected price quote request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Receive facility updates and deletions from facility-discovery
+     *
+     * @param events Changed facilities
+     * @return Number of facilities whose cached rate was dropped
+     */
+    @PostMapping("/pricing/facility-events")
+    public ResponseEntity<?> receiveFacilityEvents(@RequestBody List<FacilityChangedEventDto> events) {
+        List<Long> facilityIds = events.stream()
+                .map(FacilityChangedEventDto::getFacilityId)
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+        facilityRateCache.invalidate(facilityIds);
+        logger.info("Received {} facility change events", events.size());
+        return ResponseEntity.ok(Map.of("invalidated", facilityIds.size()));
     }
 
     /**
@@ -139,12 +538,19 @@ public class BookingController {
      * @return Created booking details
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createBooking(@RequestBody Map<String, Object> requestData) {
+    public ResponseEntity<?> createBooking(@RequestBody Map<String, Object> requestData,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // A retry with the same key gets the first response instead of a second booking
+        return idempotencyService.execute("booking:create", idempotencyKey, requestData,
+                () -> createBookingOnce(requestData));
+    }
+
+    private ResponseEntity<?> createBookingOnce(Map<String, Object> requestData) {
         try {
             logger.info("Received booking request: {}", requestData);
             
             // Generate a shared booking group ID for all time slots
-            Long bookingGroupId = System.currentTimeMillis();
+            Long bookingGroupId = bookingService.nextBookingGroupId();
             
             // Extract and convert all time slots to BookingDto objects
             List<BookingDto> bookingDtos = convertTimeSlotToBookingDtos(requestData, bookingGroupId);
@@ -153,16 +559,16 @@ public class BookingController {
                 logger.warn("No valid time slots provided for booking");
                 return ResponseEntity.badRequest().body("No valid time slots provided for booking");
             }
+            priceBookings(bookingDtos, requestData);
             
             logger.info("Processing {} time slots for booking group {}", bookingDtos.size(), bookingGroupId);
             
-            // Save all bookings and collect the results
-            List<BookingDto> createdBookings = new ArrayList<>();
-            for (BookingDto dto : bookingDtos) {
-                BookingDto created = bookingService.createBooking(dto);
-                createdBookings.add(created);
-                logger.info("Created booking ID: {} in group: {}", created.getBookingId(), created.getBookingGroupId());
-            }
+            // Save all bookings in one transaction and one batched insert, through the
+            // facility's single writer when the write combiner is enabled
+            List<BookingDto> createdBookings = bookingWriteCombiner.isEnabled()
+                    ? awaitCombinedWrite(bookingWriteCombiner.submit(bookingDtos))
+                    : bookingService.createBookingGroup(bookingDtos);
+            logger.info("Created {} bookings in group: {}", createdBookings.size(), bookingGroupId);
             
             // Prepare response
             Map<String, Object> response = new HashMap<>();
@@ -171,8 +577,18 @@ public class BookingController {
             response.put("facilityId", bookingDtos.get(0).getFacilityId());
             response.put("status", "COMPLETED");
             response.put("bookings", createdBookings);
+            response.put("slots", SlotRanges.expand(createdBookings, bookingService.getSlotGranularity()));
 
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (BookingConflictException e) {
+            logger.warn("Booking conflict: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected booking request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.warn("Booking writer unavailable: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             logger.error("Error creating booking: {}", e.getMessage(), e);
             return new ResponseEntity<>("Failed to create booking: " + e.getMessage(), 
@@ -181,82 +597,345 @@ public class BookingController {
     }
 
     /**
-     * Convert time slots from request data to a list of BookingDto objects
+     * Book the same time slot repeatedly, e.g. every Tuesday evening for a season
+     * 
+     * @param request The recurring series
+     * @return Booked occurrences and any dates skipped because they were taken
+     */
+    @PostMapping("/create-series")
+    public ResponseEntity<?> createRecurringSeries(@RequestBody RecurringBookingRequestDto request) {
+        try {
+            logger.info("Received recurring booking request: {}", request);
+            RecurringBookingResultDto result = bookingService.createRecurringSeries(request);
+            return new ResponseEntity<>(result, HttpStatus.CREATED);
+        } catch (BookingConflictException e) {
+            logger.warn("Recurring booking conflict: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected recurring booking request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error creating recurring booking: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to create recurring booking: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Wait for the write combiner to commit a booking group. A group still queued after
+     * the timeout is withdrawn, so a 503 always means nothing was booked; a group a writer
+     * has already claimed is waited for, so its outcome is the one answered (and stored
+     * under the request's idempotency key).
+     * 
+     * @param pending Group returned by the combiner
+     * @return Created bookings
+     * @throws IllegalStateException if the group was withdrawn unwritten
+     */
+    private List<BookingDto> awaitCombinedWrite(BookingWriteCombiner.PendingGroup pending) throws Exception {
+        try {
+            try {
+                return pending.result().get(combinerTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (pending.cancel()) {
+                    throw new IllegalStateException("Timed out waiting for the booking writer");
+                }
+                logger.warn("Booking writer is slow; waiting for a group it is already writing");
+                return pending.result().get();
+            }
+        } catch (ExecutionException e) {
+            // Surface the writer's BookingConflictException or failure as if thrown here
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hold time slots during checkout so nobody else can book them
+     * 
+     * @param requestData Same shape as for /create, including the selected "addons", plus an
+     *                    optional "holdMinutes"
+     * @return Held booking group with its expiry time
+     */
+    @PostMapping("/hold")
+    public ResponseEntity<?> holdSlots(@RequestBody Map<String, Object> requestData) {
+        try {
+            logger.info("Received hold request: {}", requestData);
+
+            Long bookingGroupId = bookingService.nextBookingGroupId();
+            List<BookingDto> bookingDtos = convertTimeSlotToBookingDtos(requestData, bookingGroupId);
+            if (bookingDtos.isEmpty()) {
+                logger.warn("No valid time slots provided for hold");
+                return ResponseEntity.badRequest().body("No valid time slots provided for hold");
+            }
+            priceBookings(bookingDtos, requestData);
+
+            Object holdMinutes = requestData.get("holdMinutes");
+            List<BookingDto> heldBookings = slotHoldService.hold(bookingDtos,
+                    holdMinutes != null ? Integer.valueOf(holdMinutes.toString()) : null);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bookingGroupId", bookingGroupId);
+            response.put("userId", heldBookings.get(0).getUserId());
+            response.put("facilityId", heldBookings.get(0).getFacilityId());
+            response.put("status", SlotHoldService.HELD_STATUS);
+            response.put("holdExpiresAt", heldBookings.get(0).getHoldExpiresAt());
+            response.put("bookings", heldBookings);
+
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (BookingConflictException e) {
+            logger.warn("Hold conflict: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected hold request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error holding slots: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to hold slots: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Confirm held slots as a booking
+     * 
+     * @param bookingGroupId Booking group ID of the hold
+     * @return Confirmed booking group
+     */
+    @PostMapping("/hold/confirm")
+    public ResponseEntity<?> confirmHold(@RequestParam Long bookingGroupId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Without a key a repeated confirm finds no hold left and answers 410
+        return idempotencyService.execute("booking:confirm", idempotencyKey, bookingGroupId.toString(),
+                () -> confirmHoldOnce(bookingGroupId));
+    }
+
+    private ResponseEntity<?> confirmHoldOnce(Long bookingGroupId) {
+        try {
+            logger.info("Request to confirm hold for group: {}", bookingGroupId);
+            List<BookingDto> confirmedBookings = slotHoldService.confirm(bookingGroupId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bookingGroupId", bookingGroupId);
+            response.put("userId", confirmedBookings.get(0).getUserId());
+            response.put("facilityId", confirmedBookings.get(0).getFacilityId());
+            response.put("status", SlotHoldService.CONFIRMED_STATUS);
+            response.put("bookings", confirmedBookings);
+
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (HoldNotFoundException e) {
+            logger.warn("Cannot confirm hold: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.GONE);
+        } catch (Exception e) {
+            logger.error("Error confirming hold: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to confirm hold: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Release held slots before the hold expires
+     * 
+     * @param bookingGroupId Booking group ID of the hold
+     * @return Number of slots released
+     */
+    @DeleteMapping("/hold")
+    public ResponseEntity<?> releaseHold(@RequestParam Long bookingGroupId) {
+        try {
+            logger.info("Request to release hold for group: {}", bookingGroupId);
+            int releasedCount = slotHoldService.release(bookingGroupId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("bookingGroupId", bookingGroupId);
+            response.put("releasedCount", releasedCount);
+            response.put("status", "released");
+
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error releasing hold: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to release hold: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Convert time slots from request data to a list of BookingDto objects. Every slot is
+     * validated before any is converted, so a request is either taken whole or rejected.
      * 
      * @param requestData The request data from API gateway
      * @param bookingGroupId The shared booking group ID
-     * @return List of BookingDto objects, one for each time slot
+     * @return List of BookingDto objects, one for each time slot (empty if none were given)
+     * @throws IllegalArgumentException if a field is missing or malformed, or a slot is
+     *         empty, past midnight or not aligned to the slot granularity
      */
-    @SuppressWarnings("unchecked")
     private List<BookingDto> convertTimeSlotToBookingDtos(Map<String, Object> requestData, Long bookingGroupId) {
         List<BookingDto> result = new ArrayList<>();
         
-        try {
-            // Extract common booking data
-            Integer userId = Integer.valueOf(requestData.get("userId").toString());
-            Long facilityId = Long.valueOf(requestData.get("facilityId").toString());
-            String date = (String) requestData.get("date");
+        // Extract common booking data
+        Integer userId = Integer.valueOf(requiredField(requestData, "userId"));
+        Long facilityId = Long.valueOf(requiredField(requestData, "facilityId"));
+        
+        for (LocalDateTime[] range : slotRanges(requestData)) {
+            BookingDto bookingDto = new BookingDto();
             
-            // Get all time slots
-            List<Map<String, Object>> timeSlots = (List<Map<String, Object>>) requestData.get("timeSlots");
-            if (timeSlots == null || timeSlots.isEmpty()) {
-                logger.warn("No time slots found in request data");
-                return result;
-            }
+            // Set common properties
+            bookingDto.setUserId(userId);
+            bookingDto.setFacilityId(facilityId);
+            bookingDto.setBookingGroupId(bookingGroupId);
+            bookingDto.setStatus("COMPLETED");
+            bookingDto.setStartTime(range[0]);
+            bookingDto.setEndTime(range[1]);
             
-            // Process each time slot
-            for (Map<String, Object> slot : timeSlots) {
-                BookingDto bookingDto = new BookingDto();
-                
-                // Set common properties
-                bookingDto.setUserId(userId);
-                bookingDto.setFacilityId(facilityId);
-                bookingDto.setBookingGroupId(bookingGroupId);
-                bookingDto.setStatus("COMPLETED");
-                
-                // Get slot-specific date or use the one from parent object
-                String slotDate = (String) slot.getOrDefault("date", date);
-                LocalDate bookingDate = LocalDate.parse(slotDate);
-                
-                // Get start and end hours - safely parse string values
-                int startHour = Integer.parseInt(slot.get("startHour").toString());
-                int endHour = Integer.parseInt(slot.get("endHour").toString());
-                
-                // Create start and end times
-                LocalDateTime startTime = LocalDateTime.of(bookingDate, LocalTime.of(startHour, 0));
-                LocalDateTime endTime = LocalDateTime.of(bookingDate, LocalTime.of(endHour, 0));
-                
-                bookingDto.setStartTime(startTime);
-                bookingDto.setEndTime(endTime);
-                
-                // Calculate price - assuming a fixed hourly rate for simplicity
-                double hourlyRate = 20.0;
-                double hours = endHour - startHour;
-                bookingDto.setTotalPrice(new java.math.BigDecimal(hours * hourlyRate));
-                
-                // Add to result list
-                result.add(bookingDto);
-                logger.info("Created booking DTO for time slot: {} to {} on {}", 
-                        startHour, endHour, slotDate);
-            }
-        } catch (Exception e) {
-            logger.error("Error converting time slots: {}", e.getMessage(), e);
+            // Add to result list
+            result.add(bookingDto);
+            logger.info("Created booking DTO for time slot: {} to {} on {}", 
+                    range[0].toLocalTime(), range[1].toLocalTime(), range[0].toLocalDate());
         }
         
         return result;
     }
 
+    /**
+     * Read and validate every time slot of a request
+     * 
+     * @param requestData The request data; slots are in "timeSlots", with a default "date"
+     * @return [start, end) of each slot, in request order (empty if none were given)
+     * @throws IllegalArgumentException if a slot is malformed, empty, past midnight or not
+     *         aligned to the slot granularity
+     */
+    @SuppressWarnings("unchecked")
+    private List<LocalDateTime[]> slotRanges(Map<String, Object> requestData) {
+        List<LocalDateTime[]> ranges = new ArrayList<>();
+        Object date = requestData.get("date");
+        int slotMinutes = bookingService.getSlotGranularity().getMinutes();
+        
+        Object slots = requestData.get("timeSlots");
+        if (!(slots instanceof List) || ((List<?>) slots).isEmpty()) {
+            logger.warn("No time slots found in request data");
+            return ranges;
+        }
+        
+        for (Object entry : (List<Object>) slots) {
+            if (!(entry instanceof Map)) {
+                throw new IllegalArgumentException("Time slot must be an object, got: " + entry);
+            }
+            Map<String, Object> slot = (Map<String, Object>) entry;
+            
+            // Get slot-specific date or use the one from parent object
+            Object slotDate = slot.getOrDefault("date", date);
+            if (slotDate == null) {
+                throw new IllegalArgumentException("Time slot " + slot + " has no date");
+            }
+            LocalDate bookingDate;
+            try {
+                bookingDate = LocalDate.parse(slotDate.toString());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Date must be yyyy-MM-dd, got: " + slotDate);
+            }
+            
+            // Slots are given either as "HH:mm" times or as whole start/end hours
+            int startMinute = parseMinuteOfDay(slot, "startTime", "startHour", false);
+            int endMinute = parseMinuteOfDay(slot, "endTime", "endHour", true);
+            if (startMinute < 0 || startMinute >= endMinute || endMinute > 24 * 60
+                    || startMinute % slotMinutes != 0 || endMinute % slotMinutes != 0) {
+                throw new IllegalArgumentException("Time slot " + slot
+                        + " is not aligned to " + slotMinutes + "-minute slots");
+            }
+            ranges.add(new LocalDateTime[] {
+                    bookingDate.atStartOfDay().plusMinutes(startMinute),
+                    bookingDate.atStartOfDay().plusMinutes(endMinute) });
+        }
+        return ranges;
+    }
+
+    /**
+     * Price every slot from the facility's rate, peak rules and the requested add-ons.
+     * Runs after conversion so pricing failures are never mistaken for malformed slots.
+     * 
+     * @param bookingDtos Converted slots of one facility
+     * @param requestData The request data; "addons" is a list of names or a comma-separated string
+     * @throws IllegalArgumentException if the facility does not exist
+     */
+    private void priceBookings(List<BookingDto> bookingDtos, Map<String, Object> requestData) {
+        Object requested = requestData.get("addons");
+        String addons = requested instanceof List<?> names
+                ? names.stream().map(Object::toString).collect(Collectors.joining(","))
+                : requested != null ? requested.toString() : null;
+        for (BookingDto bookingDto : bookingDtos) {
+            bookingDto.setTotalPrice(bookingService.priceFor(bookingDto.getFacilityId(),
+                    bookingDto.getStartTime(), bookingDto.getEndTime(), addons));
+        }
+    }
+
+    /**
+     * @return The value of a required request field as a string
+     * @throws IllegalArgumentException if the field is missing
+     */
+    private static String requiredField(Map<String, Object> requestData, String key) {
+        Object value = requestData.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + key);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Read a slot boundary as minutes since midnight
+     * 
+     * @param slot The time slot from the request
+     * @param timeKey Key of an "HH:mm" value
+     * @param hourKey Key of a whole-hour value, used when the time key is absent
+     * @param endOfSlot true if the value is an end time, which may be "24:00"
+     * @return Minute of the day
+     */
+    private int parseMinuteOfDay(Map<String, Object> slot, String timeKey, String hourKey, boolean endOfSlot) {
+        Object time = slot.get(timeKey);
+        if (time != null) {
+            return minuteOfDay(time.toString(), endOfSlot);
+        }
+        Object hour = slot.get(hourKey);
+        if (hour == null) {
+            throw new IllegalArgumentException("Time slot " + slot + " has no " + timeKey + " or " + hourKey);
+        }
+        return Integer.parseInt(hour.toString()) * 60;
+    }
+
+    /**
+     * Read an "HH:mm" time as minutes since midnight
+     * 
+     * @param time The time
+     * @param endOfSlot true if the time ends a slot, so "24:00" means the end of the day
+     * @throws IllegalArgumentException if the time is not a valid time of day
+     */
+    private static int minuteOfDay(String time, boolean endOfSlot) {
+        if (endOfSlot && "24:00".equals(time)) {
+            return 24 * 60;
+        }
+        try {
+            LocalTime parsed = LocalTime.parse(time);
+            if (parsed.getSecond() == 0 && parsed.getNano() == 0) {
+                return parsed.getHour() * 60 + parsed.getMinute();
+            }
+        } catch (DateTimeParseException e) {
+            // Answered below like any other time that is not HH:mm
+        }
+        throw new IllegalArgumentException("Time must be HH:mm, got: " + time);
+    }
+
     /**
      * Cancel all bookings in a booking group
      * 
      * @param bookingGroupId Booking group ID
+     * @param from First day of the group's bookings, if known; older monthly partitions are skipped
      * @return Response with cancellation details
      */
     @DeleteMapping("/cancel-group")
-    public ResponseEntity<?> cancelBookingGroup(@RequestParam Long bookingGroupId) {
+    public ResponseEntity<?> cancelBookingGroup(@RequestParam Long bookingGroupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
         try {
             logger.info("Request to cancel booking group: {}", bookingGroupId);
-            int cancelledCount = bookingService.cancelBookingGroup(bookingGroupId);
+            int cancelledCount = bookingService.cancelBookingGroup(bookingGroupId, earliestStart(from));
             
             Map<String, Object> response = new HashMap<>();
             response.put("bookingGroupId", bookingGroupId);
@@ -275,29 +954,71 @@ public class BookingController {
      *
      * @param userId User ID
      * @param status Booking status
-     * @return List of bookings with the specified status
+     * @param cursor Cursor from the previous page (omit for the first page)
+     * @param limit Page size (defaults to the configured page size)
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @return One page of the user's bookings with the status and the cursor of the next page
      */
     @GetMapping("/user/{userId}/status/{status}")
-    public ResponseEntity<List<BookingDto>> getBookingsByUserIdAndStatus(
+    public ResponseEntity<?> getBookingsByUserIdAndStatus(
             @PathVariable Integer userId,
-            @PathVariable String status) {
-        logger.info("Fetching bookings for user ID: {} with status: {}", userId, status);
-        List<BookingDto> bookings = bookingService.getBookingsByUserIdAndStatus(userId, status);
-        logger.info("Found {} bookings for user ID: {} with status: {}", bookings.size(), userId, status);
-        return new ResponseEntity<>(bookings, HttpStatus.OK);
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "slots") String view) {
+        logger.info("Fetching page of bookings for user ID: {} with status: {} after cursor: {}",
+                userId, status, cursor);
+        return pageResponse(() -> bookingService.getBookingsByUserIdAndStatusPage(userId, status, cursor, limit),
+                view);
     }
 
     /**
      * Get bookings by booking group ID
      *
      * @param groupId Booking group ID
+     * @param view "slots" (default) for one entry per slot, "ranges" for one entry per stored range
+     * @param from First day of the group's bookings, if known; older monthly partitions are skipped
      * @return List of bookings in the group
      */
     @GetMapping("/group/{groupId}")
-    public ResponseEntity<List<BookingDto>> getBookingsByGroupId(@PathVariable Long groupId) {
+    public ResponseEntity<List<BookingDto>> getBookingsByGroupId(@PathVariable Long groupId,
+            @RequestParam(defaultValue = "slots") String view,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
         logger.info("Fetching bookings for group ID: {}", groupId);
-        List<BookingDto> bookings = bookingService.getBookingsByGroupId(groupId);
+        List<BookingDto> bookings = applyView(bookingService.getBookingsByGroupId(groupId, earliestStart(from)), view);
         logger.info("Found {} bookings in group ID: {}", bookings.size(), groupId);
         return new ResponseEntity<>(bookings, HttpStatus.OK);
     }
+
+    /**
+     * Lower start-time bound for a booking group whose first day the caller may know
+     */
+    private static LocalDateTime earliestStart(LocalDate from) {
+        return from != null ? from.atStartOfDay() : BookingRepository.ANY_START;
+    }
+
+    /**
+     * Run a paged query, mapping a bad cursor or page size to 400
+     */
+    private ResponseEntity<?> pageResponse(Supplier<BookingPageDto> query, String view) {
+        try {
+            BookingPageDto page = query.get();
+            page.setBookings(applyView(page.getBookings(), view));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected paged booking request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Bookings are stored as contiguous ranges; expand them to one entry per slot, the
+     * shape these endpoints have always returned, unless the caller asks for ranges
+     */
+    private List<BookingDto> applyView(List<BookingDto> bookings, String view) {
+        if ("ranges".equalsIgnoreCase(view)) {
+            return bookings;
+        }
+        return SlotRanges.expand(bookings, bookingService.getSlotGranularity());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.pitchplease.booking.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception named {@link BookingConflictException} thrown when a booking overlaps an existing
+ * non-cancelled booking of the same facility.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 4410286215399617823L;
+
+    private static final String DEFAULT_MESSAGE = """
+            Facility is already booked for the requested time!
+            """;
+
+    /**
+     * Constructs a {@code BookingConflictException} with the default message.
+     */
+    public BookingConflictException() {
+        super(DEFAULT_MESSAGE);
+    }
+
+    /**
+     * Constructs a {@code BookingConflictException} with a custom message.
+     *
+     * @param message the detail message
+     */
+    public BookingConflictException(final String message) {
+        super(DEFAULT_MESSAGE + " " + message);
+    }
+
+}
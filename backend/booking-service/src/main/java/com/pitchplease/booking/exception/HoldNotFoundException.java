@@ -0,0 +1,34 @@
+package com.pitchplease.booking.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception named {@link HoldNotFoundException} thrown when a slot hold is confirmed after it
+ * expired, was released, or never existed.
+ */
+public class HoldNotFoundException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = -6120934587213320791L;
+
+    private static final String DEFAULT_MESSAGE = """
+            Hold has expired or does not exist!
+            """;
+
+    /**
+     * Constructs a {@code HoldNotFoundException} with the default message.
+     */
+    public HoldNotFoundException() {
+        super(DEFAULT_MESSAGE);
+    }
+
+    /**
+     * Constructs a {@code HoldNotFoundException} with a custom message.
+     *
+     * @param message the detail message
+     */
+    public HoldNotFoundException(final String message) {
+        super(DEFAULT_MESSAGE + " " + message);
+    }
+
+}
@@ -27,7 +27,8 @@ public class BookingMapper {
                 entity.getStartTime(),
                 entity.getEndTime(),
                 entity.getTotalPrice(),
-                entity.getStatus()
+                entity.getStatus(),
+                entity.getHoldExpiresAt()
         );
     }
     
@@ -50,7 +51,8 @@ public class BookingMapper {
                 dto.getStartTime(),
                 dto.getEndTime(),
                 dto.getTotalPrice(),
-                dto.getStatus()
+                dto.getStatus(),
+                dto.getHoldExpiresAt()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.pitchplease.booking.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change in the booked slots of one facility on one day, pushed to live subscribers.
+ * {@code booked} and {@code freed} list the start times ("HH:mm") of slots that changed
+ * since the previous event; {@code bookedMask} is the full state afterwards (see
+ * {@link AvailabilityMaskDto}), so a client that missed events can resynchronise from
+ * the latest one. The first event of a subscription lists every booked slot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDeltaDto {
+    private Long facilityId;
+    private LocalDate date;
+    private Long sequence;
+    private Integer slotMinutes;
+    private String bookedMask;
+    private List<String> booked;
+    private List<String> freed;
+}
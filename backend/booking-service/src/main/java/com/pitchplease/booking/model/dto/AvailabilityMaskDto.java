@@ -0,0 +1,23 @@
+package com.pitchplease.booking.model.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact availability of one facility on one day.
+ * {@code bookedMask} is a hex number whose bit i is set when slot i
+ * (of {@code slotMinutes} minutes, counted from midnight) is booked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityMaskDto {
+    private Long facilityId;
+    private LocalDate date;
+    private Integer slotMinutes;
+    private Integer slotCount;
+    private String bookedMask;
+}
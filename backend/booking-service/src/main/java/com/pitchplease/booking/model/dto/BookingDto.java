@@ -19,4 +19,5 @@ public class BookingDto {
     private LocalDateTime endTime;
     private BigDecimal totalPrice;
     private String status;
+    private LocalDateTime holdExpiresAt;
 }
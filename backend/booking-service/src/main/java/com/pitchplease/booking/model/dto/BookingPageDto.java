@@ -0,0 +1,20 @@
+package com.pitchplease.booking.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a booking listing ordered by start time. Pass {@code nextCursor}
+ * back as {@code cursor} to get the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDto {
+    private List<BookingDto> bookings;
+    private String nextCursor;
+    private int limit;
+}
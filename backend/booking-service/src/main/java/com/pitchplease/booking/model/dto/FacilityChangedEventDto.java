@@ -0,0 +1,19 @@
+package com.pitchplease.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A facility was updated or deleted, as published by facility-discovery
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityChangedEventDto {
+    private Long facilityId;
+    /**
+     * "UPDATED" or "DELETED"
+     */
+    private String type;
+}
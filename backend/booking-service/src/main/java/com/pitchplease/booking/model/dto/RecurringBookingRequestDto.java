@@ -0,0 +1,31 @@
+package com.pitchplease.booking.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A booking that repeats at the same time of day, e.g. every Tuesday 19:00-21:00
+ * from {@code startDate} until {@code endDate} (inclusive).
+ * {@code frequency} is "WEEKLY" or "DAILY"; {@code interval} repeats every N weeks or days.
+ * With {@code allowPartial} occurrences that clash with existing bookings are skipped
+ * instead of rejecting the whole series. {@code addons} are comma-separated add-on names.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingRequestDto {
+    private Integer userId;
+    private Long facilityId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String frequency = "WEEKLY";
+    private Integer interval = 1;
+    private Boolean allowPartial = false;
+    private String addons;
+}
@@ -0,0 +1,21 @@
+package com.pitchplease.booking.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a recurring booking: the occurrences that were booked under one
+ * booking group, and the dates skipped because they were already taken.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingResultDto {
+    private Long bookingGroupId;
+    private List<BookingDto> bookings;
+    private List<LocalDate> rejectedDates;
+}
@@ -5,8 +5,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 import lombok.AllArgsConstructor;
@@ -14,14 +17,28 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Date-ordered scans of one facility: availability, conflict checks and free-block search
+        @Index(name = "idx_bookings_facility_start", columnList = "facility_id, start_time"),
+        // Keyset pagination of listings on (start_time, booking_id)
+        @Index(name = "idx_bookings_user_start", columnList = "user_id, start_time, booking_id"),
+        @Index(name = "idx_bookings_start", columnList = "start_time, booking_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
+
+    /**
+     * Upper bound on the length of one row. Rows never cross midnight, so a row can
+     * be found from the day it overlaps and overlapping rows share a monthly partition.
+     */
+    public static final Duration MAX_DURATION = Duration.ofDays(1);
     
+    // Sequence IDs (not IDENTITY) keep Hibernate JDBC batching on; 50 IDs are reserved per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_booking_id_seq")
+    @SequenceGenerator(name = "bookings_booking_id_seq", sequenceName = "bookings_booking_id_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Long bookingId;
     
@@ -45,4 +62,8 @@ public class Booking {
     
     @Column(name = "status", nullable = false, length = 20)
     private String status;
+
+    // Set only while status is HELD; the slot is released if not confirmed by then
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.pitchplease.booking.model.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Booked minutes of one facility in one hour of one day.
+ *
+ * Rows are updated in the same transaction as the bookings they count, so the
+ * rollup never disagrees with the committed bookings. Holds and cancelled bookings
+ * are not counted; hours without bookings have no row.
+ */
+@Entity
+@Table(name = "facility_occupancy")
+@IdClass(FacilityOccupancyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityOccupancy {
+
+    @Id
+    @Column(name = "facility_id")
+    private Long facilityId;
+
+    @Id
+    @Column(name = "date")
+    private LocalDate date;
+
+    /**
+     * Hour of the day, 0-23
+     */
+    @Id
+    @Column(name = "hour_of_day")
+    private Integer hourOfDay;
+
+    @Column(name = "booked_minutes", nullable = false)
+    private Integer bookedMinutes;
+}
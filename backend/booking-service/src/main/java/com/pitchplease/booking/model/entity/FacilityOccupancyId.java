@@ -0,0 +1,20 @@
+package com.pitchplease.booking.model.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Primary key of {@link FacilityOccupancy}: one row per facility, day and hour
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityOccupancyId implements Serializable {
+    private Long facilityId;
+    private LocalDate date;
+    private Integer hourOfDay;
+}
@@ -0,0 +1,54 @@
+package com.pitchplease.booking.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stored outcome of a request sent with an {@code Idempotency-Key} header.
+ *
+ * A row without a status code is a claim: the request is still running on some
+ * replica. The table is shared with payment-service; {@code scope} keeps the
+ * operations of each service apart.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecordId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "scope", length = 50)
+    private String scope;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request body, so a key reused for a different request is rejected
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.pitchplease.booking.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A booking-service replica's claim on one Snowflake node ID.
+ *
+ * The owning replica renews the lease while it runs and deletes it on shutdown. A lease
+ * not renewed for {@code pitchplease.booking.node-lease.seconds} belonged to a replica
+ * that died and may be taken over.
+ */
+@Entity
+@Table(name = "booking_node_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeIdLease {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(name = "owner", nullable = false, length = 100)
+    private String owner;
+
+    @Column(name = "renewed_at", nullable = false)
+    private LocalDateTime renewedAt;
+}
@@ -1,6 +1,7 @@
 package com.pitchplease.booking.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,59 +16,259 @@ import com.pitchplease.booking.model.entity.Booking;
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     /**
-     * Find all bookings for a specific user
+     * Lower bound for lookups whose time window is not known; it skips no partition
+     */
+    LocalDateTime ANY_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    /**
+     * Find the bookings of a group that start at or after a given time
      * 
-     * @param userId The ID of the user
-     * @return List of bookings made by the user
+     * @param bookingGroupId The booking group ID
+     * @param earliestStart No booking of the group starts before this; older partitions are skipped
+     * @return List of bookings in the same group
      */
-    List<Booking> findByUserId(Integer userId);
+    @Query("SELECT b FROM Booking b WHERE b.bookingGroupId = :bookingGroupId AND b.startTime >= :earliestStart")
+    List<Booking> findByBookingGroupId(Long bookingGroupId, LocalDateTime earliestStart);
     
     /**
-     * Find all bookings for a specific facility
+     * Keyset page of all bookings ordered by (start time, booking ID)
      * 
-     * @param facilityId The ID of the facility
-     * @return List of bookings for the facility
+     * @param afterStart Start time of the last booking already returned
+     * @param afterId Booking ID of the last booking already returned
+     * @param limit Maximum number of bookings to return
+     * @return Bookings after the given position
      */
-    List<Booking> findByFacilityId(Long facilityId);
-    
+    @Query(value = "SELECT * FROM bookings " +
+           "WHERE (start_time, booking_id) > (:afterStart, :afterId) " +
+           "ORDER BY start_time, booking_id LIMIT :limit", nativeQuery = true)
+    List<Booking> findPageAfter(LocalDateTime afterStart, Long afterId, int limit);
+
     /**
-     * Find bookings by facility ID and status
+     * Keyset page of a user's bookings ordered by (start time, booking ID)
      * 
-     * @param facilityId The ID of the facility
-     * @param status The booking status (e.g., 'pending', 'confirmed', 'cancelled')
-     * @return List of bookings matching the criteria
+     * @param userId The ID of the user
+     * @param afterStart Start time of the last booking already returned
+     * @param afterId Booking ID of the last booking already returned
+     * @param limit Maximum number of bookings to return
+     * @return Bookings after the given position
      */
-    List<Booking> findByFacilityIdAndStatus(Long facilityId, String status);
-    
+    @Query(value = "SELECT * FROM bookings WHERE user_id = :userId " +
+           "AND (start_time, booking_id) > (:afterStart, :afterId) " +
+           "ORDER BY start_time, booking_id LIMIT :limit", nativeQuery = true)
+    List<Booking> findPageByUserIdAfter(Integer userId, LocalDateTime afterStart, Long afterId, int limit);
+
     /**
-     * Find all bookings for a specific user with a specific status
+     * Keyset page of a user's bookings with a given status ordered by (start time, booking ID)
      * 
      * @param userId The ID of the user
      * @param status The booking status
-     * @return List of bookings matching the criteria
+     * @param afterStart Start time of the last booking already returned
+     * @param afterId Booking ID of the last booking already returned
+     * @param limit Maximum number of bookings to return
+     * @return Bookings after the given position
      */
-    List<Booking> findByUserIdAndStatus(Integer userId, String status);
-    
+    @Query(value = "SELECT * FROM bookings WHERE user_id = :userId AND status = :status " +
+           "AND (start_time, booking_id) > (:afterStart, :afterId) " +
+           "ORDER BY start_time, booking_id LIMIT :limit", nativeQuery = true)
+    List<Booking> findPageByUserIdAndStatusAfter(Integer userId, String status, LocalDateTime afterStart, Long afterId,
+            int limit);
+
     /**
-     * Find all bookings by booking group ID
+     * Keyset page of a facility's bookings ordered by (start time, booking ID)
      * 
-     * @param bookingGroupId The booking group ID
-     * @return List of bookings in the same group
+     * @param facilityId The ID of the facility
+     * @param afterStart Start time of the last booking already returned
+     * @param afterId Booking ID of the last booking already returned
+     * @param limit Maximum number of bookings to return
+     * @return Bookings after the given position
      */
-    List<Booking> findByBookingGroupId(Long bookingGroupId);
-    
+    @Query(value = "SELECT * FROM bookings WHERE facility_id = :facilityId " +
+           "AND (start_time, booking_id) > (:afterStart, :afterId) " +
+           "ORDER BY start_time, booking_id LIMIT :limit", nativeQuery = true)
+    List<Booking> findPageByFacilityIdAfter(Long facilityId, LocalDateTime afterStart, Long afterId, int limit);
+
     /**
-     * Check if a facility is available for booking during a specific time period
+     * Check if a facility is available for booking during a specific time period.
+     * Ranges are half-open, so a booking ending at 10:00 does not conflict with one
+     * starting at 10:00.
      * 
      * @param facilityId The ID of the facility
      * @param startTime Start time of the proposed booking
      * @param endTime End time of the proposed booking
+     * @param now Current time; holds that expired before it are ignored
      * @return List of conflicting bookings (should be empty if facility is available)
      */
+    default List<Booking> findConflictingBookings(Long facilityId, LocalDateTime startTime, LocalDateTime endTime,
+            LocalDateTime now) {
+        return findConflictingBookings(facilityId, startTime, endTime, now, earliestStartOverlapping(startTime));
+    }
+
+    @Query("SELECT b FROM Booking b WHERE b.facilityId = :facilityId " +
+           "AND b.status != 'cancelled' " +
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > :now) " +
+           "AND b.startTime > :earliestStart " +
+           "AND b.startTime < :endTime AND b.endTime > :startTime")
+    List<Booking> findConflictingBookings(Long facilityId, LocalDateTime startTime, LocalDateTime endTime,
+            LocalDateTime now, LocalDateTime earliestStart);
+
+    /**
+     * Serialise writers of one facility until the current transaction ends.
+     * Takes a Postgres transaction-scoped advisory lock keyed by the facility ID,
+     * so check-then-insert is safe across booking-service replicas while
+     * bookings of other facilities proceed in parallel.
+     * 
+     * @param facilityId The ID of the facility to lock
+     * @return Always 1
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:facilityId)", nativeQuery = true)
+    int lockFacility(@Param("facilityId") Long facilityId);
+
+    /**
+     * Find the non-cancelled bookings of a facility that overlap a time window
+     * 
+     * @param facilityId The ID of the facility
+     * @param from Start of the window (inclusive)
+     * @param to End of the window (exclusive)
+     * @param now Current time; holds that expired before it are ignored
+     * @return List of bookings overlapping the window
+     */
+    default List<Booking> findActiveBookingsInRange(Long facilityId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime now) {
+        return findActiveBookingsInRange(facilityId, from, to, now, earliestStartOverlapping(from));
+    }
+
     @Query("SELECT b FROM Booking b WHERE b.facilityId = :facilityId " +
            "AND b.status != 'cancelled' " +
-           "AND ((b.startTime <= :endTime AND b.endTime >= :startTime))")
-    List<Booking> findConflictingBookings(Long facilityId, LocalDateTime startTime, LocalDateTime endTime);
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > :now) " +
+           "AND b.startTime > :earliestStart " +
+           "AND b.startTime < :to AND b.endTime > :from")
+    List<Booking> findActiveBookingsInRange(Long facilityId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime now, LocalDateTime earliestStart);
+    
+    /**
+     * Find the non-cancelled bookings of several facilities that overlap a time window
+     * 
+     * @param facilityIds The IDs of the facilities
+     * @param from Start of the window (inclusive)
+     * @param to End of the window (exclusive)
+     * @param now Current time; holds that expired before it are ignored
+     * @return List of bookings overlapping the window
+     */
+    default List<Booking> findActiveBookingsInRangeForFacilities(Collection<Long> facilityIds, LocalDateTime from,
+            LocalDateTime to, LocalDateTime now) {
+        return findActiveBookingsInRangeForFacilities(facilityIds, from, to, now, earliestStartOverlapping(from));
+    }
+
+    @Query("SELECT b FROM Booking b WHERE b.facilityId IN :facilityIds " +
+           "AND b.status != 'cancelled' " +
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > :now) " +
+           "AND b.startTime > :earliestStart " +
+           "AND b.startTime < :to AND b.endTime > :from")
+    List<Booking> findActiveBookingsInRangeForFacilities(Collection<Long> facilityIds, LocalDateTime from, LocalDateTime to,
+            LocalDateTime now, LocalDateTime earliestStart);
+
+    /**
+     * Find active bookings of every facility that overlap a time window
+     *
+     * @param from Start of the window (inclusive)
+     * @param to End of the window (exclusive)
+     * @param now Current time; holds that expired before it are ignored
+     * @return List of bookings overlapping the window
+     */
+    default List<Booking> findActiveBookingsInRangeForAllFacilities(LocalDateTime from, LocalDateTime to,
+            LocalDateTime now) {
+        return findActiveBookingsInRangeForAllFacilities(from, to, now, earliestStartOverlapping(from));
+    }
+
+    @Query("SELECT b FROM Booking b WHERE b.status != 'cancelled' " +
+           "AND (b.holdExpiresAt IS NULL OR b.holdExpiresAt > :now) " +
+           "AND b.startTime > :earliestStart " +
+           "AND b.startTime < :to AND b.endTime > :from")
+    List<Booking> findActiveBookingsInRangeForAllFacilities(LocalDateTime from, LocalDateTime to, LocalDateTime now,
+            LocalDateTime earliestStart);
+
+    /**
+     * Find a user's bookings that have not ended yet, soonest first
+     * 
+     * @param userId The ID of the user
+     * @param now Current time
+     * @return Current and future bookings of the user
+     */
+    default List<Booking> findUpcomingByUserId(Integer userId, LocalDateTime now) {
+        return findUpcomingByUserId(userId, now, earliestStartOverlapping(now));
+    }
+
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId " +
+           "AND b.status != 'cancelled' " +
+           "AND b.startTime > :earliestStart AND b.endTime > :now " +
+           "ORDER BY b.startTime, b.bookingId")
+    List<Booking> findUpcomingByUserId(Integer userId, LocalDateTime now, LocalDateTime earliestStart);
+
+    /**
+     * Lower bound on the start time of any booking still running at {@code time}.
+     * Bookings never cross midnight, so nothing that started a day or more earlier
+     * can overlap it. Queries repeat this bound on {@code start_time} so PostgreSQL
+     * can skip the monthly partitions of older bookings.
+     */
+    static LocalDateTime earliestStartOverlapping(LocalDateTime time) {
+        return time.minus(Booking.MAX_DURATION);
+    }
+    
+    /**
+     * Find holds that expired but have not been removed yet
+     * 
+     * @param facilityIds The IDs of the facilities
+     * @param now Current time
+     * @return List of expired holds
+     */
+    @Query("SELECT b FROM Booking b WHERE b.facilityId IN :facilityIds " +
+           "AND b.status = 'HELD' AND b.holdExpiresAt <= :now")
+    List<Booking> findExpiredHolds(Collection<Long> facilityIds, LocalDateTime now);
+    
+    /**
+     * Find the held slots of holds that expired before a given time
+     * 
+     * @param before Holds that expired at or before this time are returned
+     * @return Held slots of the expired holds
+     */
+    @Query("SELECT b FROM Booking b WHERE b.status = 'HELD' AND b.holdExpiresAt <= :before")
+    List<Booking> findHoldsExpiredBefore(LocalDateTime before);
+    
+    /**
+     * Find bookings with a specific status
+     * 
+     * @param status The booking status
+     * @return List of bookings with the status
+     */
+    List<Booking> findByStatus(String status);
+    
+    /**
+     * Turn a live hold into a booking
+     * 
+     * @param groupId The booking group ID of the hold
+     * @param status The status the bookings get
+     * @param now Current time; a hold that expired before it is not confirmed
+     * @param earliestStart No slot of the hold starts before this; older partitions are skipped
+     * @return Number of bookings confirmed (0 if the hold expired or does not exist)
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.holdExpiresAt = NULL " +
+           "WHERE b.bookingGroupId = :groupId AND b.status = 'HELD' AND b.holdExpiresAt > :now " +
+           "AND b.startTime >= :earliestStart")
+    int confirmHold(Long groupId, String status, LocalDateTime now, LocalDateTime earliestStart);
+    
+    /**
+     * Remove the held slots of a booking group that expired before {@code now}
+     * 
+     * @param groupId The booking group ID of the hold
+     * @param now Current time; pass a far-future time to release the hold regardless of expiry
+     * @param earliestStart No slot of the hold starts before this; older partitions are skipped
+     * @return Number of bookings removed
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.bookingGroupId = :groupId " +
+           "AND b.status = 'HELD' AND b.holdExpiresAt <= :now AND b.startTime >= :earliestStart")
+    int deleteHold(Long groupId, LocalDateTime now, LocalDateTime earliestStart);
     
     /**
      * Update the status of a booking
@@ -79,7 +280,16 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Modifying
     @Query("UPDATE Booking b SET b.status = :status WHERE b.bookingId = :bookingId")
     int updateBookingStatus(Long bookingId, String status);
+
+    /**
+     * Delete the bookings of a group that start at or after a given time
+     * 
+     * @param groupId The booking group ID
+     * @param earliestStart No booking of the group starts before this; older partitions are skipped
+     * @return Number of bookings deleted
+     */
     @Modifying
-    @Query(value = "DELETE FROM bookings WHERE booking_group_id = :groupId", nativeQuery = true)
-    int deleteBookingsByGroupId(@Param("groupId") Long groupId);
+    @Query(value = "DELETE FROM bookings WHERE booking_group_id = :groupId AND start_time >= :earliestStart",
+           nativeQuery = true)
+    int deleteBookingsByGroupId(@Param("groupId") Long groupId, @Param("earliestStart") LocalDateTime earliestStart);
 }
\ No newline at end of file
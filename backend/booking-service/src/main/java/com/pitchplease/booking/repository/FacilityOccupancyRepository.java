@@ -0,0 +1,62 @@
+package com.pitchplease.booking.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.pitchplease.booking.model.entity.FacilityOccupancy;
+import com.pitchplease.booking.model.entity.FacilityOccupancyId;
+
+@Repository
+public interface FacilityOccupancyRepository extends JpaRepository<FacilityOccupancy, FacilityOccupancyId> {
+
+    /**
+     * Add (or with a negative value, remove) booked minutes to one hour, creating the row if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO facility_occupancy (facility_id, date, hour_of_day, booked_minutes) " +
+           "VALUES (:facilityId, :date, :hourOfDay, :minutes) " +
+           "ON CONFLICT (facility_id, date, hour_of_day) " +
+           "DO UPDATE SET booked_minutes = facility_occupancy.booked_minutes + EXCLUDED.booked_minutes",
+           nativeQuery = true)
+    int addMinutes(@Param("facilityId") Long facilityId, @Param("date") LocalDate date,
+            @Param("hourOfDay") Integer hourOfDay, @Param("minutes") Integer minutes);
+
+    /**
+     * Booked minutes of a facility summed by ISO weekday (1 = Monday) and hour
+     *
+     * @return Rows of [weekday, hour, booked minutes]
+     */
+    @Query(value = "SELECT CAST(extract(isodow FROM date) AS INT), hour_of_day, SUM(booked_minutes) " +
+           "FROM facility_occupancy " +
+           "WHERE facility_id = :facilityId AND date BETWEEN :fromDate AND :toDate " +
+           "GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> sumByWeekdayAndHour(@Param("facilityId") Long facilityId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Recompute the rows from {@code fromDate} on from the bookings table, splitting each
+     * booking at hour boundaries. Bookings never cross midnight, so the start-time bound
+     * selects exactly the bookings that fall on those dates.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO facility_occupancy (facility_id, date, hour_of_day, booked_minutes) " +
+           "SELECT b.facility_id, CAST(h.hour_start AS DATE), CAST(extract(hour FROM h.hour_start) AS INT), " +
+           "CAST(SUM(extract(epoch FROM LEAST(b.end_time, h.hour_start + INTERVAL '1 hour') " +
+           "- GREATEST(b.start_time, h.hour_start)) / 60) AS INT) " +
+           "FROM bookings b CROSS JOIN LATERAL generate_series(date_trunc('hour', b.start_time), " +
+           "b.end_time - INTERVAL '1 microsecond', INTERVAL '1 hour') AS h(hour_start) " +
+           "WHERE b.status NOT IN ('HELD', 'cancelled') AND b.end_time > b.start_time " +
+           "AND b.start_time >= CAST(:fromDate AS TIMESTAMP) " +
+           "GROUP BY 1, 2, 3", nativeQuery = true)
+    int insertFromBookings(@Param("fromDate") LocalDate fromDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM facility_occupancy WHERE date >= :fromDate", nativeQuery = true)
+    int deleteRowsFrom(@Param("fromDate") LocalDate fromDate);
+}
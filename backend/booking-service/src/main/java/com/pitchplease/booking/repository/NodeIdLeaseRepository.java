@@ -0,0 +1,43 @@
+package com.pitchplease.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pitchplease.booking.model.entity.NodeIdLease;
+
+@Repository
+public interface NodeIdLeaseRepository extends JpaRepository<NodeIdLease, Integer> {
+
+    /**
+     * Claim a node ID that is free or whose lease expired. Times come from the
+     * database clock, so replicas with skewed clocks agree on expiry.
+     *
+     * @return 1 if this owner now holds the node ID, 0 if another live replica does
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO booking_node_leases (node_id, owner, renewed_at) " +
+           "VALUES (:nodeId, :owner, LOCALTIMESTAMP) " +
+           "ON CONFLICT (node_id) DO UPDATE " +
+           "SET owner = EXCLUDED.owner, renewed_at = EXCLUDED.renewed_at " +
+           "WHERE booking_node_leases.owner = EXCLUDED.owner " +
+           "OR booking_node_leases.renewed_at < LOCALTIMESTAMP - make_interval(secs => :leaseSeconds)",
+           nativeQuery = true)
+    int claim(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE booking_node_leases SET renewed_at = LOCALTIMESTAMP " +
+           "WHERE node_id = :nodeId AND owner = :owner", nativeQuery = true)
+    int renew(@Param("nodeId") int nodeId, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM booking_node_leases WHERE node_id = :nodeId AND owner = :owner",
+           nativeQuery = true)
+    int release(@Param("nodeId") int nodeId, @Param("owner") String owner);
+}
@@ -0,0 +1,13 @@
+package com.pitchplease.booking.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published once a committed booking change has touched the given days of a facility
+ *
+ * @param facilityId The facility ID
+ * @param dates      Days whose booked slots may have changed
+ */
+public record AvailabilityChangedEvent(Long facilityId, List<LocalDate> dates) {
+}
@@ -0,0 +1,213 @@
+package com.pitchplease.booking.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.pitchplease.booking.model.entity.Booking;
+import com.pitchplease.booking.repository.BookingRepository;
+import com.pitchplease.booking.utils.DaySlots;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feeds facility-discovery's availability projection.
+ *
+ * Changed facility-days are collected from {@link AvailabilityChangedEvent}s into a
+ * set, so a burst of bookings on the same day turns into one update. A background
+ * thread re-reads each pending day from the database and posts the booked-slot masks
+ * in batches. Each mask carries the time its bookings were read; facility-discovery
+ * keeps the newest one, so replicas and retries can deliver out of order.
+ *
+ * Publishing never blocks or fails a booking. When facility-discovery cannot be
+ * reached the days stay pending and are retried; on startup every day with upcoming
+ * bookings is published again to cover events lost while this replica was down.
+ */
+@Component
+public class AvailabilityEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityEventPublisher.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final boolean enabled;
+
+    private final String facilityDiscoveryUrl;
+
+    private final int maxBatch;
+
+    private final long retryMillis;
+
+    private final int backfillDays;
+
+    private final Set<FacilityDay> pending = new LinkedHashSet<>();
+
+    private WebClient webClient;
+
+    private Thread worker;
+
+    private volatile boolean running = true;
+
+    public AvailabilityEventPublisher(
+            @Value("${pitchplease.booking.availability-events.enabled:true}") boolean enabled,
+            @Value("${pitchplease.booking.availability-events.facility-discovery-url:http://facility-discovery-service:8094}") String facilityDiscoveryUrl,
+            @Value("${pitchplease.booking.availability-events.max-batch:200}") int maxBatch,
+            @Value("${pitchplease.booking.availability-events.retry-millis:5000}") long retryMillis,
+            @Value("${pitchplease.booking.availability-events.backfill-days:30}") int backfillDays) {
+        this.enabled = enabled;
+        this.facilityDiscoveryUrl = facilityDiscoveryUrl;
+        this.maxBatch = maxBatch;
+        this.retryMillis = retryMillis;
+        this.backfillDays = backfillDays;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        webClient = WebClient.create(facilityDiscoveryUrl);
+        worker = new Thread(this::run, "availability-events");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Queue the changed days of a facility for publishing
+     */
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            event.dates().forEach(date -> pending.add(new FacilityDay(event.facilityId(), date)));
+            pending.notifyAll();
+        }
+    }
+
+    /**
+     * Republish every day with upcoming bookings
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled || backfillDays <= 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<Booking> bookings = bookingRepository.findActiveBookingsInRangeForAllFacilities(
+                today.atStartOfDay(), today.plusDays(backfillDays).atStartOfDay(), LocalDateTime.now());
+
+        Map<Long, Set<LocalDate>> days = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            Set<LocalDate> dates = days.computeIfAbsent(booking.getFacilityId(), id -> new LinkedHashSet<>());
+            for (LocalDate date = booking.getStartTime().toLocalDate();
+                    date.atStartOfDay().isBefore(booking.getEndTime()); date = date.plusDays(1)) {
+                if (!date.isBefore(today)) {
+                    dates.add(date);
+                }
+            }
+        }
+        days.forEach((facilityId, dates) -> onAvailabilityChanged(new AvailabilityChangedEvent(facilityId, new ArrayList<>(dates))));
+        logger.info("Queued availability of {} facilities for the next {} days", days.size(), backfillDays);
+    }
+
+    private void run() {
+        while (running) {
+            List<FacilityDay> batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                publish(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Could not publish availability of {} facility-days, retrying in {} ms: {}",
+                        batch.size(), retryMillis, e.getMessage());
+                synchronized (pending) {
+                    pending.addAll(batch);
+                }
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<FacilityDay> takeBatch() throws InterruptedException {
+        synchronized (pending) {
+            while (pending.isEmpty()) {
+                pending.wait();
+            }
+            List<FacilityDay> batch = new ArrayList<>(Math.min(pending.size(), maxBatch));
+            Iterator<FacilityDay> iterator = pending.iterator();
+            while (iterator.hasNext() && batch.size() < maxBatch) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    private void publish(List<FacilityDay> batch) {
+        List<Map<String, Object>> events = new ArrayList<>(batch.size());
+        for (FacilityDay day : batch) {
+            // Taken before the read so a later snapshot never carries an earlier time
+            long snapshotAt = System.currentTimeMillis();
+            DaySlots slots = availabilityIndex.reloadDaySlots(day.facilityId(), day.date());
+
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("facilityId", day.facilityId());
+            event.put("date", day.date().toString());
+            event.put("slotMinutes", slots.getGranularity().getMinutes());
+            event.put("bookedMask", slots.toHex());
+            event.put("snapshotAt", snapshotAt);
+            events.add(event);
+        }
+
+        webClient.post()
+                .uri("/availability/events")
+                .bodyValue(events)
+                .retrieve()
+                .toBodilessEntity()
+                .block(REQUEST_TIMEOUT);
+        logger.debug("Published availability of {} facility-days", events.size());
+    }
+
+    private record FacilityDay(Long facilityId, LocalDate date) {
+    }
+}
@@ -0,0 +1,310 @@
+package com.pitchplease.booking.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pitchplease.booking.model.entity.Booking;
+import com.pitchplease.booking.repository.BookingRepository;
+import com.pitchplease.booking.utils.DaySlots;
+import com.pitchplease.booking.utils.SlotGranularity;
+
+/**
+ * In-memory availability index keyed by (facility, date).
+ *
+ * Each entry holds the booked slots of one facility on one day as a packed
+ * {@link DaySlots} bitmask at the configured slot granularity. Entries are
+ * built lazily from a date-bounded query, updated after a booking commits,
+ * evicted when a booking group is cancelled, and bounded by an LRU size limit
+ * plus a time-to-live so bookings written by other replicas become visible.
+ *
+ * Every committed change is also announced as an {@link AvailabilityChangedEvent}.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SlotGranularity granularity;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Map<FacilityDay, DayEntry> entries;
+
+    /**
+     * Incremented on every write applied to the index. A lazy load only caches
+     * its result if no write happened while the query was running.
+     */
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    public AvailabilityIndex(
+            @Value("${pitchplease.booking.availability.max-entries:10000}") int maxEntries,
+            @Value("${pitchplease.booking.availability.ttl-seconds:60}") long ttlSeconds,
+            @Value("${pitchplease.booking.slot-minutes:60}") int slotMinutes) {
+        this.granularity = SlotGranularity.ofMinutes(slotMinutes);
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FacilityDay, DayEntry> eldest) {
+                return size() > AvailabilityIndex.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return Slot length used by every entry in the index
+     */
+    public SlotGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Get the booked slots of a facility on a date
+     *
+     * @param facilityId The facility ID
+     * @param date       The date to check
+     * @return Booked slots of the day (a copy, safe to modify)
+     */
+    public DaySlots getDaySlots(Long facilityId, LocalDate date) {
+        FacilityDay key = new FacilityDay(facilityId, date);
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            DayEntry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < ttlMillis) {
+                return entry.slots.copy();
+            }
+        }
+
+        long sequenceBefore = writeSequence.get();
+        DaySlots slots = loadDaySlots(facilityId, date);
+
+        synchronized (entries) {
+            if (writeSequence.get() == sequenceBefore) {
+                entries.put(key, new DayEntry(slots.copy(), now));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Read the booked slots of a facility on a date from the database, bypassing
+     * and then refreshing the cached entry
+     *
+     * @param facilityId The facility ID
+     * @param date       The date to load
+     * @return Booked slots of the day (a copy, safe to modify)
+     */
+    public DaySlots reloadDaySlots(Long facilityId, LocalDate date) {
+        long now = System.currentTimeMillis();
+        long sequenceBefore = writeSequence.get();
+        DaySlots slots = loadDaySlots(facilityId, date);
+
+        synchronized (entries) {
+            if (writeSequence.get() == sequenceBefore) {
+                entries.put(new FacilityDay(facilityId, date), new DayEntry(slots.copy(), now));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Get the booked slots of several facilities over a date range. Cached days
+     * are served from memory; every missing day is filled by one range query.
+     *
+     * @param facilityIds The facility IDs
+     * @param from        First date (inclusive)
+     * @param to          Last date (inclusive)
+     * @return Booked slots per facility and date (copies, safe to modify)
+     */
+    public Map<Long, Map<LocalDate, DaySlots>> getRange(Collection<Long> facilityIds, LocalDate from, LocalDate to) {
+        long now = System.currentTimeMillis();
+        Map<Long, Map<LocalDate, DaySlots>> result = new LinkedHashMap<>();
+        Set<Long> missingFacilities = new LinkedHashSet<>();
+        LocalDate missingFrom = null;
+        LocalDate missingTo = null;
+
+        synchronized (entries) {
+            for (Long facilityId : facilityIds) {
+                Map<LocalDate, DaySlots> days = result.computeIfAbsent(facilityId, id -> new TreeMap<>());
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    DayEntry entry = entries.get(new FacilityDay(facilityId, date));
+                    if (entry != null && now - entry.loadedAt < ttlMillis) {
+                        days.put(date, entry.slots.copy());
+                    } else {
+                        missingFacilities.add(facilityId);
+                        missingFrom = missingFrom == null || date.isBefore(missingFrom) ? date : missingFrom;
+                        missingTo = missingTo == null || date.isAfter(missingTo) ? date : missingTo;
+                    }
+                }
+            }
+        }
+
+        if (missingFacilities.isEmpty()) {
+            return result;
+        }
+
+        long sequenceBefore = writeSequence.get();
+        List<Booking> bookings = bookingRepository.findActiveBookingsInRangeForFacilities(
+                missingFacilities, missingFrom.atStartOfDay(), missingTo.plusDays(1).atStartOfDay(), LocalDateTime.now());
+        logger.debug("Loaded {} bookings into availability index for {} facilities from {} to {}",
+                bookings.size(), missingFacilities.size(), missingFrom, missingTo);
+
+        Map<FacilityDay, DaySlots> loaded = new HashMap<>();
+        for (Long facilityId : missingFacilities) {
+            Map<LocalDate, DaySlots> days = result.get(facilityId);
+            for (LocalDate date = missingFrom; !date.isAfter(missingTo); date = date.plusDays(1)) {
+                if (!days.containsKey(date)) {
+                    loaded.put(new FacilityDay(facilityId, date), DaySlots.empty(granularity));
+                }
+            }
+        }
+        for (Booking booking : bookings) {
+            for (LocalDate date = booking.getStartTime().toLocalDate();
+                    date.isBefore(endDateExclusive(booking.getEndTime())); date = date.plusDays(1)) {
+                DaySlots slots = loaded.get(new FacilityDay(booking.getFacilityId(), date));
+                if (slots != null) {
+                    slots.markBooking(date, booking.getStartTime(), booking.getEndTime());
+                }
+            }
+        }
+
+        synchronized (entries) {
+            boolean cacheable = writeSequence.get() == sequenceBefore;
+            loaded.forEach((key, slots) -> {
+                result.get(key.facilityId()).put(key.date(), slots.copy());
+                if (cacheable) {
+                    entries.put(key, new DayEntry(slots, now));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Mark the slots covered by a booking as booked once the current transaction commits
+     *
+     * @param facilityId The facility ID
+     * @param startTime  Start time of the booking
+     * @param endTime    End time of the booking
+     */
+    public void markBookedAfterCommit(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
+        runAfterCommit(() -> markBooked(facilityId, startTime, endTime));
+    }
+
+    /**
+     * Evict every day touched by the given bookings once the current transaction commits
+     *
+     * @param bookings Bookings whose facility-days are no longer accurate
+     */
+    public void evictAfterCommit(List<Booking> bookings) {
+        runAfterCommit(() -> bookings.forEach(booking ->
+                evict(booking.getFacilityId(), booking.getStartTime(), booking.getEndTime())));
+    }
+
+    private void markBooked(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
+        writeSequence.incrementAndGet();
+        synchronized (entries) {
+            for (LocalDate date = startTime.toLocalDate(); date.isBefore(endDateExclusive(endTime)); date = date.plusDays(1)) {
+                DayEntry entry = entries.get(new FacilityDay(facilityId, date));
+                if (entry != null) {
+                    entry.slots.markBooking(date, startTime, endTime);
+                }
+            }
+        }
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(facilityId, daysOf(startTime, endTime)));
+    }
+
+    private void evict(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
+        writeSequence.incrementAndGet();
+        synchronized (entries) {
+            for (LocalDate date = startTime.toLocalDate(); date.isBefore(endDateExclusive(endTime)); date = date.plusDays(1)) {
+                entries.remove(new FacilityDay(facilityId, date));
+            }
+        }
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(facilityId, daysOf(startTime, endTime)));
+    }
+
+    private DaySlots loadDaySlots(Long facilityId, LocalDate date) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+
+        List<Booking> bookings = bookingRepository.findActiveBookingsInRange(facilityId, startOfDay, endOfDay,
+                LocalDateTime.now());
+        logger.debug("Loaded {} bookings into availability index for facility ID: {} on date: {}",
+                bookings.size(), facilityId, date);
+
+        DaySlots slots = DaySlots.empty(granularity);
+        for (Booking booking : bookings) {
+            slots.markBooking(date, booking.getStartTime(), booking.getEndTime());
+        }
+        return slots;
+    }
+
+    private static List<LocalDate> daysOf(LocalDateTime startTime, LocalDateTime endTime) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startTime.toLocalDate(); date.isBefore(endDateExclusive(endTime)); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private static LocalDate endDateExclusive(LocalDateTime endTime) {
+        LocalDate endDate = endTime.toLocalDate();
+        return endTime.toLocalTime().equals(LocalTime.MIDNIGHT) ? endDate : endDate.plusDays(1);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record FacilityDay(Long facilityId, LocalDate date) {
+    }
+
+    private static final class DayEntry {
+        private final DaySlots slots;
+        private final long loadedAt;
+
+        private DayEntry(DaySlots slots, long loadedAt) {
+            this.slots = slots;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
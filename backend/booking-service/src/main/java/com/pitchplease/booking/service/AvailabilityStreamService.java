@@ -0,0 +1,234 @@
+package com.pitchplease.booking.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.booking.model.dto.AvailabilityDeltaDto;
+import com.pitchplease.booking.utils.DaySlots;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Pushes slot changes of a (facility, date) to live subscribers over Server-Sent Events.
+ *
+ * Each watched facility-day is one topic with one multicast sink, so a change is
+ * computed once and fanned out in-process to every subscriber. Changes come from the
+ * {@link AvailabilityChangedEvent}s this replica publishes after each commit, plus a
+ * periodic re-read of every watched day that picks up bookings made on other replicas
+ * and holds that expired. All topic updates run on one thread, so sinks are never
+ * emitted to concurrently.
+ *
+ * Every subscriber has its own bounded buffer; when a slow client falls behind the
+ * oldest events are dropped. Each event carries the full booked mask and a sequence
+ * number, so the event with the highest sequence alone is enough to catch up.
+ */
+@Service
+public class AvailabilityStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStreamService.class);
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    private final int bufferSize;
+
+    private final int maxSubscribers;
+
+    private final Duration heartbeat;
+
+    private final Map<Topic, TopicState> topics = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Scheduler updateScheduler = Schedulers.fromExecutorService(updater);
+
+    public AvailabilityStreamService(
+            @Value("${pitchplease.booking.availability-stream.buffer-size:16}") int bufferSize,
+            @Value("${pitchplease.booking.availability-stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${pitchplease.booking.availability-stream.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = Duration.ofSeconds(heartbeatSeconds);
+    }
+
+    /**
+     * Subscribe to the slot changes of a facility on a date
+     *
+     * @param facilityId The facility ID
+     * @param date       The date to watch
+     * @return A "snapshot" event with every booked slot, then a "change" event per change,
+     *         interleaved with keep-alive comments
+     * @throws IllegalStateException if this replica already serves too many subscribers
+     */
+    public Flux<ServerSentEvent<AvailabilityDeltaDto>> subscribe(Long facilityId, LocalDate date) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many live availability subscribers");
+        }
+        Topic topic = new Topic(facilityId, date);
+        TopicState state = topics.compute(topic, (key, existing) -> {
+            TopicState current = existing != null ? existing : new TopicState();
+            current.subscribers.incrementAndGet();
+            return current;
+        });
+
+        Flux<ServerSentEvent<AvailabilityDeltaDto>> changes = state.sink.asFlux()
+                .onBackpressureBuffer(bufferSize,
+                        dropped -> logger.debug("Dropped availability change {} for a slow subscriber",
+                                dropped.getSequence()),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .map(delta -> event("change", delta));
+
+        // Read on the update thread, after subscribing to changes: every change is either
+        // already in the snapshot or emitted after it
+        Mono<ServerSentEvent<AvailabilityDeltaDto>> snapshot = Mono.fromCallable(() -> {
+            DaySlots current;
+            synchronized (state) {
+                if (state.last == null) {
+                    state.last = availabilityIndex.getDaySlots(facilityId, date);
+                }
+                current = state.last;
+            }
+            return event("snapshot",
+                    delta(topic, state.sequence.get(), current, DaySlots.empty(current.getGranularity())));
+        }).subscribeOn(updateScheduler);
+
+        Flux<ServerSentEvent<AvailabilityDeltaDto>> keepAlive = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<AvailabilityDeltaDto>builder().comment("keep-alive").build());
+
+        return Flux.merge(changes, snapshot, keepAlive)
+                .doFinally(signal -> unsubscribe(topic));
+    }
+
+    private void unsubscribe(Topic topic) {
+        subscribers.decrementAndGet();
+        topics.computeIfPresent(topic, (key, state) -> {
+            if (state.subscribers.decrementAndGet() > 0) {
+                return state;
+            }
+            state.sink.tryEmitComplete();
+            return null;
+        });
+    }
+
+    /**
+     * Queue an update of every watched day a committed booking change touched
+     */
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        for (LocalDate date : event.dates()) {
+            Topic topic = new Topic(event.facilityId(), date);
+            TopicState state = topics.get(topic);
+            if (state != null) {
+                scheduleUpdate(topic, state, false);
+            }
+        }
+    }
+
+    /**
+     * Re-read every watched day from the database to catch changes made elsewhere
+     */
+    @Scheduled(fixedDelayString = "${pitchplease.booking.availability-stream.refresh-millis:10000}")
+    public void refreshWatchedDays() {
+        topics.forEach((topic, state) -> scheduleUpdate(topic, state, true));
+    }
+
+    private void scheduleUpdate(Topic topic, TopicState state, boolean fromDatabase) {
+        // Coalesce: a topic already waiting for an update needs no second one
+        if (!state.pending.compareAndSet(false, true)) {
+            return;
+        }
+        updater.execute(() -> {
+            state.pending.set(false);
+            try {
+                DaySlots current = fromDatabase
+                        ? availabilityIndex.reloadDaySlots(topic.facilityId, topic.date)
+                        : availabilityIndex.getDaySlots(topic.facilityId, topic.date);
+                DaySlots previous;
+                synchronized (state) {
+                    previous = state.last;
+                    if (current.equals(previous)) {
+                        return;
+                    }
+                    state.last = current;
+                }
+                AvailabilityDeltaDto delta = delta(topic, state.sequence.incrementAndGet(), current,
+                        previous != null ? previous : DaySlots.empty(current.getGranularity()));
+                state.sink.tryEmitNext(delta);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to update live availability of facility ID: {} on {}: {}",
+                        topic.facilityId, topic.date, e.getMessage());
+            }
+        });
+    }
+
+    private static AvailabilityDeltaDto delta(Topic topic, long sequence, DaySlots current, DaySlots previous) {
+        int slotMinutes = current.getGranularity().getMinutes();
+        List<String> booked = new ArrayList<>();
+        List<String> freed = new ArrayList<>();
+        for (int slot = 0; slot < current.size(); slot++) {
+            boolean now = current.isBooked(slot);
+            if (now != previous.isBooked(slot)) {
+                String start = LocalTime.MIDNIGHT.plusMinutes((long) slot * slotMinutes).toString();
+                (now ? booked : freed).add(start);
+            }
+        }
+        return new AvailabilityDeltaDto(topic.facilityId, topic.date, sequence, slotMinutes, current.toHex(),
+                booked, freed);
+    }
+
+    private static ServerSentEvent<AvailabilityDeltaDto> event(String name, AvailabilityDeltaDto delta) {
+        return ServerSentEvent.builder(delta)
+                .event(name)
+                .id(String.valueOf(delta.getSequence()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        topics.values().forEach(state -> state.sink.tryEmitComplete());
+        updater.shutdownNow();
+    }
+
+    private record Topic(Long facilityId, LocalDate date) {
+    }
+
+    private static final class TopicState {
+        private final Sinks.Many<AvailabilityDeltaDto> sink = Sinks.many().multicast().directBestEffort();
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private final AtomicLong sequence = new AtomicLong();
+        private DaySlots last;
+    }
+}
@@ -0,0 +1,138 @@
+package com.pitchplease.booking.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.booking.model.dto.BookingDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Streams bookings for export without loading them all into memory.
+ *
+ * Rows are read through a server-side cursor: PostgreSQL only sends
+ * {@code fetch-size} rows per round trip when auto-commit is off, and
+ * {@link Flux#generate} pulls the next row only when the subscriber asks
+ * for it. Heap use stays flat whatever the number of bookings.
+ */
+@Service
+public class BookingExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingExportService.class);
+
+    private static final String SELECT_BOOKINGS = "SELECT booking_id, booking_group_id, facility_id, user_id, "
+            + "start_time, end_time, total_price, status, hold_expires_at FROM bookings";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${pitchplease.booking.listing.export-fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Stream bookings ordered by start time
+     *
+     * @param facilityId Only bookings of this facility (optional)
+     * @param userId     Only bookings of this user (optional)
+     * @return Bookings, read lazily as the subscriber requests them
+     */
+    public Flux<BookingDto> exportBookings(Long facilityId, Integer userId) {
+        return Flux.using(
+                () -> openCursor(facilityId, userId),
+                cursor -> Flux.<BookingDto>generate(sink -> {
+                    try {
+                        if (cursor.resultSet.next()) {
+                            sink.next(toDto(cursor.resultSet));
+                        } else {
+                            sink.complete();
+                        }
+                    } catch (SQLException e) {
+                        sink.error(e);
+                    }
+                }),
+                ExportCursor::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private ExportCursor openCursor(Long facilityId, Integer userId) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (facilityId != null) {
+            conditions.add("facility_id = ?");
+            parameters.add(facilityId);
+        }
+        if (userId != null) {
+            conditions.add("user_id = ?");
+            parameters.add(userId);
+        }
+        String sql = SELECT_BOOKINGS
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY start_time, booking_id";
+
+        Connection connection = dataSource.getConnection();
+        try {
+            // The driver only streams with a cursor inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            logger.info("Exporting bookings for facility ID: {}, user ID: {}", facilityId, userId);
+            return new ExportCursor(connection, statement, statement.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static BookingDto toDto(ResultSet rs) throws SQLException {
+        Timestamp holdExpiresAt = rs.getTimestamp("hold_expires_at");
+        return new BookingDto(
+                rs.getLong("booking_id"),
+                rs.getObject("booking_group_id", Long.class),
+                rs.getLong("facility_id"),
+                rs.getInt("user_id"),
+                rs.getTimestamp("start_time").toLocalDateTime(),
+                rs.getTimestamp("end_time").toLocalDateTime(),
+                rs.getBigDecimal("total_price"),
+                rs.getString("status"),
+                holdExpiresAt != null ? holdExpiresAt.toLocalDateTime() : null);
+    }
+
+    private static final class ExportCursor {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+
+        private ExportCursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        private void close() {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            } catch (SQLException e) {
+                logger.warn("Failed to close booking export cursor: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.pitchplease.booking.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of the {@code bookings} table in shape.
+ *
+ * When {@code bookings} is partitioned by {@code start_time} month (see db-setup.sql),
+ * this job creates the partitions for the coming months ahead of time and moves
+ * partitions older than the retention period out of the table into the
+ * {@code bookings_archive} schema. Archived months stay queryable there but no longer
+ * weigh on the indexes used by availability and conflict checks.
+ *
+ * The work is done by the {@code ensure_bookings_partition} and
+ * {@code archive_bookings_partitions} database functions. One replica runs it at a
+ * time; the others skip the run. Databases where {@code bookings} is a plain table are
+ * left alone.
+ */
+@Component
+public class BookingPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPartitionMaintenance.class);
+
+    /**
+     * Advisory lock key shared by every replica running this job
+     */
+    private static final long MAINTENANCE_LOCK_KEY = 0x626f6f6b70617274L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pitchplease.booking.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pitchplease.booking.partitions.months-ahead:12}")
+    private int monthsAhead;
+
+    @Value("${pitchplease.booking.partitions.retain-months:24}")
+    private int retainMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Create upcoming partitions and archive expired ones
+     */
+    @Scheduled(cron = "${pitchplease.booking.partitions.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!isPartitioned()) {
+                    logger.debug("bookings is not partitioned; skipping partition maintenance");
+                    return;
+                }
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                        Boolean.class, MAINTENANCE_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    logger.debug("Another replica is maintaining booking partitions");
+                    return;
+                }
+
+                LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+                for (int month = 0; month <= monthsAhead; month++) {
+                    jdbcTemplate.queryForObject("SELECT ensure_bookings_partition(?)", String.class,
+                            thisMonth.plusMonths(month));
+                }
+
+                List<String> archived = jdbcTemplate.queryForList("SELECT archive_bookings_partitions(?)",
+                        String.class, thisMonth.minusMonths(retainMonths));
+                logger.info("Booking partitions ready through {}; archived: {}",
+                        thisMonth.plusMonths(monthsAhead), archived);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Booking partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('bookings')",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
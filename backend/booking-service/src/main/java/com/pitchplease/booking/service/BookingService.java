@@ -1,25 +1,43 @@
 package com.pitchplease.booking.service;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.pitchplease.booking.exception.BookingConflictException;
 import com.pitchplease.booking.mapper.BookingMapper;
+import com.pitchplease.booking.model.dto.AvailabilityMaskDto;
 import com.pitchplease.booking.model.dto.BookingDto;
+import com.pitchplease.booking.model.dto.BookingPageDto;
+import com.pitchplease.booking.model.dto.RecurringBookingRequestDto;
+import com.pitchplease.booking.model.dto.RecurringBookingResultDto;
 import com.pitchplease.booking.model.entity.Booking;
 import com.pitchplease.booking.repository.BookingRepository;
+import com.pitchplease.booking.utils.BookingCursor;
+import com.pitchplease.booking.utils.DaySlots;
+import com.pitchplease.booking.utils.SlotGranularity;
+import com.pitchplease.booking.utils.SlotRanges;
+import com.pitchplease.booking.utils.SnowflakeIdGenerator;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -29,23 +47,41 @@ public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    static final int MAX_RANGE_DAYS = 31;
+
+    static final int MAX_RANGE_FACILITIES = 50;
+
+    static final int MAX_SERIES_OCCURRENCES = 200;
+
+    static final int MAX_NEXT_AVAILABLE_COUNT = 20;
+
+    static final int NEXT_AVAILABLE_HORIZON_DAYS = 90;
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
     private BookingMapper bookingMapper;
 
-    /**
-     * Get all bookings
-     * 
-     * @return List of all bookings
-     */
-    @Transactional(readOnly = true)
-    public List<BookingDto> getAllBookings() {
-        return bookingRepository.findAll().stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private OccupancyRollupService occupancyRollupService;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private SnowflakeIdGenerator bookingGroupIdGenerator;
+
+    @Value("${pitchplease.booking.listing.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${pitchplease.booking.listing.max-page-size:500}")
+    private int maxPageSize;
 
     /**
      * Get booking by ID
@@ -60,29 +96,110 @@ public class BookingService {
     }
 
     /**
-     * Get bookings by user ID
+     * Get a user's bookings that have not ended yet
      * 
      * @param userId User ID
-     * @return List of bookings made by the user
+     * @return Current and future bookings, soonest first
      */
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByUserId(Integer userId) {
-        return bookingRepository.findByUserId(userId).stream()
+    public List<BookingDto> getUpcomingBookingsByUserId(Integer userId) {
+        return bookingRepository.findUpcomingByUserId(userId, LocalDateTime.now()).stream()
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get bookings by facility ID
+     * Get one page of all bookings, ordered by start time
+     * 
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit  Page size, or null for the default
+     * @return The page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDto getAllBookingsPage(String cursor, Integer limit) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(bookingRepository.findPageAfter(after.startTime(), after.bookingId(), pageSize + 1), pageSize);
+    }
+
+    /**
+     * Get one page of a user's bookings, ordered by start time
+     * 
+     * @param userId User ID
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit  Page size, or null for the default
+     * @return The page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDto getBookingsByUserIdPage(Integer userId, String cursor, Integer limit) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(bookingRepository.findPageByUserIdAfter(userId, after.startTime(), after.bookingId(),
+                pageSize + 1), pageSize);
+    }
+
+    /**
+     * Get one page of a user's bookings with a given status, ordered by start time
+     * 
+     * @param userId User ID
+     * @param status Booking status
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit  Page size, or null for the default
+     * @return The page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDto getBookingsByUserIdAndStatusPage(Integer userId, String status, String cursor,
+            Integer limit) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(bookingRepository.findPageByUserIdAndStatusAfter(userId, status, after.startTime(),
+                after.bookingId(), pageSize + 1), pageSize);
+    }
+
+    /**
+     * Get one page of a facility's bookings, ordered by start time
      * 
      * @param facilityId Facility ID
-     * @return List of bookings for the facility
+     * @param cursor     Cursor from the previous page, or null for the first page
+     * @param limit      Page size, or null for the default
+     * @return The page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or page size is invalid
      */
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByFacilityId(Long facilityId) {
-        return bookingRepository.findByFacilityId(facilityId).stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+    public BookingPageDto getBookingsByFacilityIdPage(Long facilityId, String cursor, Integer limit) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(bookingRepository.findPageByFacilityIdAfter(facilityId, after.startTime(), after.bookingId(),
+                pageSize + 1), pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    /**
+     * Build a page from a query that asked for one row more than the page size
+     */
+    private BookingPageDto toPage(List<Booking> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Booking> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Booking last = page.get(page.size() - 1);
+            nextCursor = new BookingCursor(last.getStartTime(), last.getBookingId()).encode();
+        }
+        return new BookingPageDto(page.stream().map(bookingMapper::toDto).collect(Collectors.toList()),
+                nextCursor, pageSize);
     }
 
     /**
@@ -90,8 +207,8 @@ public class BookingService {
      * 
      * @param bookingDto Booking to be created
      * @return Created booking
-     * @throws RuntimeException if the facility is already booked for the requested
-     *                          time period
+     * @throws BookingConflictException if the facility is already booked for the
+     *                                   requested time period
      */
     @Transactional
     public BookingDto createBooking(BookingDto bookingDto) {
@@ -100,31 +217,322 @@ public class BookingService {
                 bookingDto.getStartTime(),
                 bookingDto.getEndTime());
 
-        // Ensure status is set
-        if (bookingDto.getStatus() == null) {
-            bookingDto.setStatus("pending");
+        return createBookingGroup(List.of(bookingDto)).get(0);
+    }
+
+    /**
+     * Create all time slots of a booking group in one transaction.
+     * Every slot is checked against existing bookings with a single range query,
+     * and the rows are written as one JDBC batch. Either all slots are booked or none.
+     * 
+     * @param bookingDtos Slots to be created; slots without a group ID share a newly generated one
+     * @return Created bookings, one per contiguous range of slots
+     * @throws BookingConflictException if any slot overlaps an existing booking or another slot
+     *                                   of the same request
+     */
+    @Transactional
+    public List<BookingDto> createBookingGroup(List<BookingDto> bookingDtos) {
+        if (bookingDtos.isEmpty()) {
+            return List.of();
         }
 
-        // If no booking group ID is provided, create one
-        if (bookingDto.getBookingGroupId() == null) {
-            bookingDto.setBookingGroupId(System.currentTimeMillis());
-            logger.info("Generated new booking group ID: {}", bookingDto.getBookingGroupId());
+        List<Booking> entities = toNewEntities(bookingDtos);
+        TreeSet<Long> facilityIds = lockFacilities(entities);
+
+        removeExpiredHolds(facilityIds);
+        checkForConflicts(entities, findExistingBookings(facilityIds, entities));
+
+        return saveNewBookings(entities, facilityIds);
+    }
+
+    /**
+     * Book every occurrence of a recurring series in one transaction. All occurrences are
+     * checked with a single query covering the whole series and inserted as one batch
+     * under one booking group.
+     * 
+     * @param request The series to book
+     * @return Booked occurrences and the dates skipped because they were taken
+     * @throws IllegalArgumentException if the series is malformed or too long
+     * @throws BookingConflictException if an occurrence is taken and partial booking is not
+     *                                   allowed, or if every occurrence is taken
+     */
+    @Transactional
+    public RecurringBookingResultDto createRecurringSeries(RecurringBookingRequestDto request) {
+        List<BookingDto> occurrences = expandSeries(request);
+        logger.info("Booking series of {} occurrences for facility ID: {} from {} to {}",
+                occurrences.size(), request.getFacilityId(), request.getStartDate(), request.getEndDate());
+
+        List<Booking> entities = toNewEntities(occurrences);
+        TreeSet<Long> facilityIds = lockFacilities(entities);
+        removeExpiredHolds(facilityIds);
+
+        // Live bookings of one facility never overlap, so sorted by start they are sorted by end too
+        List<Booking> existing = new ArrayList<>(findExistingBookings(facilityIds, entities));
+        existing.sort(Comparator.comparing(Booking::getStartTime));
+
+        List<Booking> accepted = new ArrayList<>();
+        List<LocalDate> rejectedDates = new ArrayList<>();
+        for (Booking occurrence : entities) {
+            if (overlapsAny(existing, occurrence)) {
+                rejectedDates.add(occurrence.getStartTime().toLocalDate());
+            } else {
+                accepted.add(occurrence);
+            }
+        }
+
+        if (!rejectedDates.isEmpty() && !Boolean.TRUE.equals(request.getAllowPartial())) {
+            throw new BookingConflictException("Facility " + request.getFacilityId()
+                    + " is already booked on " + rejectedDates);
+        }
+        if (accepted.isEmpty()) {
+            throw new BookingConflictException("Facility " + request.getFacilityId()
+                    + " is already booked on every date of the series");
         }
 
-        Booking entity = bookingMapper.toEntity(bookingDto);
-        entity.setBookingId(null); // Ensure we're creating a new entity
+        List<BookingDto> saved = saveNewBookings(accepted, facilityIds);
+        logger.info("Booked {} occurrences, skipped {} in group: {}",
+                saved.size(), rejectedDates.size(), saved.get(0).getBookingGroupId());
+        return new RecurringBookingResultDto(saved.get(0).getBookingGroupId(), saved, rejectedDates);
+    }
+
+    /**
+     * Expand a recurring series into one booking per occurrence
+     * 
+     * @throws IllegalArgumentException if the series is malformed or has more than
+     *                                  {@value #MAX_SERIES_OCCURRENCES} occurrences
+     */
+    private List<BookingDto> expandSeries(RecurringBookingRequestDto request) {
+        if (request.getUserId() == null || request.getFacilityId() == null
+                || request.getStartDate() == null || request.getEndDate() == null
+                || request.getStartTime() == null || request.getEndTime() == null) {
+            throw new IllegalArgumentException("userId, facilityId, startDate, endDate, startTime and endTime are required");
+        }
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        int interval = request.getInterval() != null ? request.getInterval() : 1;
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        String frequency = request.getFrequency() != null ? request.getFrequency().toUpperCase() : "WEEKLY";
+        int stepDays = switch (frequency) {
+            case "WEEKLY" -> 7 * interval;
+            case "DAILY" -> interval;
+            default -> throw new IllegalArgumentException("frequency must be WEEKLY or DAILY");
+        };
+
+        long count = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) / stepDays + 1;
+        if (count > MAX_SERIES_OCCURRENCES) {
+            throw new IllegalArgumentException("A series can have at most " + MAX_SERIES_OCCURRENCES
+                    + " occurrences, this one has " + count);
+        }
+
+        Long bookingGroupId = bookingGroupIdGenerator.nextId();
+        List<BookingDto> occurrences = new ArrayList<>((int) count);
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(stepDays)) {
+            LocalDateTime startTime = date.atTime(request.getStartTime());
+            LocalDateTime endTime = date.atTime(request.getEndTime());
+
+            BookingDto occurrence = new BookingDto();
+            occurrence.setBookingGroupId(bookingGroupId);
+            occurrence.setUserId(request.getUserId());
+            occurrence.setFacilityId(request.getFacilityId());
+            occurrence.setStartTime(startTime);
+            occurrence.setEndTime(endTime);
+            occurrence.setTotalPrice(priceFor(request.getFacilityId(), startTime, endTime, request.getAddons()));
+            occurrence.setStatus("COMPLETED");
+            occurrences.add(occurrence);
+        }
+        return occurrences;
+    }
+
+    /**
+     * @param existing Non-overlapping bookings sorted by start time
+     * @return true if the booking overlaps any of them
+     */
+    private static boolean overlapsAny(List<Booking> existing, Booking booking) {
+        // Find the first existing booking that ends after this one starts
+        int low = 0;
+        int high = existing.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (existing.get(mid).getEndTime().isAfter(booking.getStartTime())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low < existing.size() && existing.get(low).getStartTime().isBefore(booking.getEndTime());
+    }
+
+    /**
+     * Price of a booking from the facility's rate, peak rules and add-ons
+     * 
+     * @param facilityId Facility being booked
+     * @param startTime  Start of the booking
+     * @param endTime    End of the booking
+     * @param addons     Comma-separated add-on names (optional)
+     * @return Price rounded to cents
+     * @throws IllegalArgumentException if the facility does not exist
+     */
+    public BigDecimal priceFor(Long facilityId, LocalDateTime startTime, LocalDateTime endTime, String addons) {
+        return pricingEngine.price(facilityId, startTime, endTime, addons);
+    }
+
+    /**
+     * Fill in defaults and map requested slots to new entities. Back-to-back slots are
+     * merged, so each maximal run of slots becomes a single row.
+     * 
+     * @param bookingDtos Slots to be created; slots without a group ID share a newly generated one
+     * @return Unsaved entities, one per contiguous range, ordered by facility and start time
+     * @throws IllegalArgumentException if a booking is empty or crosses midnight
+     */
+    public List<Booking> toNewEntities(List<BookingDto> bookingDtos) {
+        Long generatedGroupId = null;
+        for (BookingDto bookingDto : bookingDtos) {
+            // Ensure status is set
+            if (bookingDto.getStatus() == null) {
+                bookingDto.setStatus("pending");
+            }
+
+            // If no booking group ID is provided, create one
+            if (bookingDto.getBookingGroupId() == null) {
+                if (generatedGroupId == null) {
+                    generatedGroupId = bookingGroupIdGenerator.nextId();
+                    logger.info("Generated new booking group ID: {}", generatedGroupId);
+                }
+                bookingDto.setBookingGroupId(generatedGroupId);
+            }
+        }
+
+        List<BookingDto> ranges = SlotRanges.merge(bookingDtos);
+        if (ranges.size() < bookingDtos.size()) {
+            logger.info("Merged {} requested slots into {} booking ranges", bookingDtos.size(), ranges.size());
+        }
 
+        List<Booking> entities = new ArrayList<>(ranges.size());
+        for (BookingDto range : ranges) {
+            if (!range.getStartTime().isBefore(range.getEndTime())
+                    || range.getEndTime().isAfter(range.getStartTime().toLocalDate().plusDays(1).atStartOfDay())) {
+                throw new IllegalArgumentException("Booking from " + range.getStartTime() + " to "
+                        + range.getEndTime() + " must end after it starts and no later than midnight");
+            }
+            Booking entity = bookingMapper.toEntity(range);
+            entity.setBookingId(null); // Ensure we're creating a new entity
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Take the advisory lock of every facility the bookings touch. Other writers of these
+     * facilities wait until the current transaction ends, on every replica. Locks are taken
+     * in ID order so two writers spanning the same facilities cannot deadlock.
+     * 
+     * @return IDs of the locked facilities
+     */
+    public TreeSet<Long> lockFacilities(Collection<Booking> entities) {
+        TreeSet<Long> facilityIds = entities.stream()
+                .map(Booking::getFacilityId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        facilityIds.forEach(bookingRepository::lockFacility);
+        return facilityIds;
+    }
+
+    /**
+     * Load the live bookings that could collide with new ones, using one query covering
+     * the envelope of all their time ranges
+     */
+    public List<Booking> findExistingBookings(Collection<Long> facilityIds, List<Booking> entities) {
+        LocalDateTime from = entities.stream().map(Booking::getStartTime).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = entities.stream().map(Booking::getEndTime).max(LocalDateTime::compareTo).get();
+
+        return bookingRepository.findActiveBookingsInRangeForFacilities(
+                facilityIds, from, to, LocalDateTime.now());
+    }
+
+    /**
+     * Insert new bookings as one JDBC batch and update the availability index once the
+     * current transaction commits
+     * 
+     * @return Saved bookings, in input order
+     * @throws BookingConflictException if the exclusion constraint rejects a row
+     */
+    public List<BookingDto> saveNewBookings(List<Booking> entities, Collection<Long> facilityIds) {
         try {
-            Booking savedEntity = bookingRepository.save(entity);
-            logger.info("Created new booking with ID: {} in group: {}",
-                    savedEntity.getBookingId(), savedEntity.getBookingGroupId());
-            return bookingMapper.toDto(savedEntity);
+            // Flush so the no_overlapping_bookings constraint is checked inside this try
+            List<Booking> savedEntities = bookingRepository.saveAll(entities);
+            bookingRepository.flush();
+            logger.info("Created {} bookings in group: {}",
+                    savedEntities.size(), savedEntities.get(0).getBookingGroupId());
+
+            occupancyRollupService.recordBooked(savedEntities);
+            for (Booking savedEntity : savedEntities) {
+                availabilityIndex.markBookedAfterCommit(savedEntity.getFacilityId(),
+                        savedEntity.getStartTime(), savedEntity.getEndTime());
+            }
+            return savedEntities.stream()
+                    .map(bookingMapper::toDto)
+                    .collect(Collectors.toList());
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new BookingConflictException("Facilities " + facilityIds
+                        + " were booked concurrently");
+            }
+            logger.error("Error saving booking to database: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to save booking: " + e.getMessage(), e);
         } catch (Exception e) {
             logger.error("Error saving booking to database: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to save booking: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Check new bookings against existing ones and against each other
+     * 
+     * @throws BookingConflictException on the first overlap found
+     */
+    public void checkForConflicts(List<Booking> entities, List<Booking> existing) {
+        for (int i = 0; i < entities.size(); i++) {
+            Booking candidate = entities.get(i);
+            for (Booking other : existing) {
+                if (collides(candidate, other)) {
+                    throw new BookingConflictException("Facility " + candidate.getFacilityId() + " from "
+                            + candidate.getStartTime() + " to " + candidate.getEndTime());
+                }
+            }
+            for (int j = i + 1; j < entities.size(); j++) {
+                if (collides(candidate, entities.get(j))) {
+                    throw new BookingConflictException("Requested slots overlap each other at facility "
+                            + candidate.getFacilityId() + " from " + candidate.getStartTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete holds on these facilities that expired without being released, e.g. because the
+     * replica that placed them went down. Queries already ignore them, but the exclusion
+     * constraint does not, so they must go before new rows are inserted.
+     */
+    public void removeExpiredHolds(Collection<Long> facilityIds) {
+        List<Booking> expiredHolds = bookingRepository.findExpiredHolds(facilityIds, LocalDateTime.now());
+        if (!expiredHolds.isEmpty()) {
+            logger.info("Removing {} expired held slots before booking", expiredHolds.size());
+            bookingRepository.deleteAllInBatch(expiredHolds);
+            availabilityIndex.evictAfterCommit(expiredHolds);
+        }
+    }
+
+    private boolean collides(Booking first, Booking second) {
+        return first.getFacilityId().equals(second.getFacilityId())
+                && isOverlapping(first.getStartTime(), first.getEndTime(),
+                        second.getStartTime(), second.getEndTime());
+    }
+
     /**
      * Get all available booking slots for a facility on a specific date
      * 
@@ -132,86 +540,184 @@ public class BookingService {
      * @param date       The date to check
      * @return List of time slots with availability information
      */
-    @Transactional(readOnly = true)
     public List<Map<String, Object>> getAvailableTimeSlots(Long facilityId, LocalDate date) {
         logger.info("Service getting available time slots for facility ID: {} on date: {}",
                 facilityId, date);
 
         try {
-            // Get all non-cancelled bookings for this facility on the given date
-            List<BookingDto> bookings = getBookingsByFacilityId(facilityId).stream()
-                    .filter(booking -> {
-                        LocalDate bookingDate = booking.getStartTime().toLocalDate();
-                        return bookingDate.equals(date) && !booking.getStatus().equals("cancelled");
-                    })
-                    .collect(Collectors.toList());
+            // Booked slots come from the availability index; only a cache miss touches the database
+            DaySlots daySlots = availabilityIndex.getDaySlots(facilityId, date);
+            List<Map<String, Object>> slots = toSlotList(daySlots);
 
-            logger.info("Found {} bookings for facility ID: {} on date: {}",
-                    bookings.size(), facilityId, date);
+            return slots;
 
-            // Create a boolean array to track which hours are booked
-            boolean[] bookedHours = new boolean[24];
+        } catch (Exception e) {
+            logger.error("Error determining available time slots: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to determine available time slots: " + e.getMessage(), e);
+        }
+    }
 
-            // Mark hours as booked based on existing bookings
-            for (BookingDto booking : bookings) {
-                LocalDateTime start = booking.getStartTime();
-                LocalDateTime end = booking.getEndTime();
+    /**
+     * Get the booked slots of a facility on a specific date in the compact bitmask format
+     * 
+     * @param facilityId The facility ID
+     * @param date       The date to check
+     * @return Bitmask of booked slots with its slot length
+     */
+    public AvailabilityMaskDto getAvailabilityMask(Long facilityId, LocalDate date) {
+        DaySlots daySlots = availabilityIndex.getDaySlots(facilityId, date);
+        return new AvailabilityMaskDto(
+                facilityId,
+                date,
+                daySlots.getGranularity().getMinutes(),
+                daySlots.size(),
+                daySlots.toHex());
+    }
 
-                // Calculate the hour indices
-                int startHour = start.getHour();
-                int endHour = end.getHour();
+    /**
+     * Get availability for several facilities over a date range in one call
+     * 
+     * @param facilityIds Facility IDs (at most {@value #MAX_RANGE_FACILITIES})
+     * @param from        First date (inclusive)
+     * @param to          Last date (inclusive, at most {@value #MAX_RANGE_DAYS} days after from)
+     * @param bitmask     true for one hex mask per day, false for the per-slot list
+     * @return One entry per facility and day, ordered by facility then date
+     * @throws IllegalArgumentException if the range or facility list is empty or too large
+     */
+    public List<Map<String, Object>> getAvailabilityRange(List<Long> facilityIds, LocalDate from, LocalDate to,
+            boolean bitmask) {
+        if (facilityIds.isEmpty() || facilityIds.size() > MAX_RANGE_FACILITIES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_RANGE_FACILITIES + " facility IDs are required");
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+        }
 
-                // Handle case where booking ends on next day
-                if (end.toLocalDate().isAfter(date)) {
-                    endHour = 24;
-                }
+        Map<Long, Map<LocalDate, DaySlots>> grid = availabilityIndex.getRange(facilityIds, from, to);
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        grid.forEach((facilityId, days) -> days.forEach((date, daySlots) -> {
+            Map<String, Object> day = new HashMap<>();
+            day.put("facilityId", facilityId);
+            day.put("date", date.toString());
+            if (bitmask) {
+                day.put("slotMinutes", daySlots.getGranularity().getMinutes());
+                day.put("bookedMask", daySlots.toHex());
+            } else {
+                day.put("availableSlots", toSlotList(daySlots));
+            }
+            result.add(day);
+        }));
+        return result;
+    }
 
-                // Mark all hours covered by this booking as booked
-                for (int hour = startHour; hour < endHour; hour++) {
-                    bookedHours[hour] = true;
+    /**
+     * Find the first free blocks of a given length at a facility, walking day by day from
+     * a start date. Days are loaded a week at a time through the availability index and the
+     * walk stops as soon as enough blocks are found. Blocks do not cross midnight, and slots
+     * that already started today are skipped.
+     * 
+     * @param facilityId      The facility ID
+     * @param durationMinutes Block length, a multiple of the slot length
+     * @param fromDate        First date to search
+     * @param count           Number of blocks wanted (at most {@value #MAX_NEXT_AVAILABLE_COUNT})
+     * @return Up to {@code count} non-overlapping free blocks in time order, each with date,
+     *         startTime and endTime; fewer if the search horizon of
+     *         {@value #NEXT_AVAILABLE_HORIZON_DAYS} days runs out
+     * @throws IllegalArgumentException if the duration or count is out of range
+     */
+    public List<Map<String, Object>> findNextAvailable(Long facilityId, int durationMinutes,
+            LocalDate fromDate, int count) {
+        int slotMinutes = getSlotGranularity().getMinutes();
+        if (durationMinutes <= 0 || durationMinutes % slotMinutes != 0 || durationMinutes > 24 * 60) {
+            throw new IllegalArgumentException("Duration must be a positive multiple of " + slotMinutes
+                    + " minutes, up to one day");
+        }
+        if (count < 1 || count > MAX_NEXT_AVAILABLE_COUNT) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_NEXT_AVAILABLE_COUNT);
+        }
+        int blockSlots = durationMinutes / slotMinutes;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate lastDate = fromDate.plusDays(NEXT_AVAILABLE_HORIZON_DAYS - 1);
+        List<Map<String, Object>> blocks = new ArrayList<>(count);
+
+        for (LocalDate chunkStart = fromDate; !chunkStart.isAfter(lastDate); chunkStart = chunkStart.plusDays(7)) {
+            LocalDate chunkEnd = chunkStart.plusDays(6).isAfter(lastDate) ? lastDate : chunkStart.plusDays(6);
+            Map<LocalDate, DaySlots> days = availabilityIndex
+                    .getRange(List.of(facilityId), chunkStart, chunkEnd)
+                    .get(facilityId);
+
+            for (Map.Entry<LocalDate, DaySlots> day : days.entrySet()) {
+                LocalDate date = day.getKey();
+                if (date.isBefore(now.toLocalDate())) {
+                    continue;
+                }
+                int slot = date.equals(now.toLocalDate())
+                        ? (now.getHour() * 60 + now.getMinute() + slotMinutes - 1) / slotMinutes
+                        : 0;
+                while ((slot = day.getValue().findFreeBlock(blockSlots, slot)) >= 0) {
+                    Map<String, Object> block = new HashMap<>();
+                    block.put("date", date.toString());
+                    block.put("startTime", formatMinuteOfDay(slot * slotMinutes));
+                    block.put("endTime", formatMinuteOfDay((slot + blockSlots) * slotMinutes));
+                    blocks.add(block);
+                    if (blocks.size() == count) {
+                        return blocks;
+                    }
+                    slot += blockSlots;
                 }
             }
+        }
+        return blocks;
+    }
 
-            // Create the list of slots
-            List<Map<String, Object>> slots = new ArrayList<>(24);
-            for (int hour = 0; hour < 24; hour++) {
-                Map<String, Object> slot = new HashMap<>();
-                slot.put("startHour", hour);
-                slot.put("endHour", hour + 1);
-                slot.put("available", !bookedHours[hour]);
-                slots.add(slot);
-            }
+    /**
+     * Get the slot length bookings are aligned to
+     * 
+     * @return Configured slot granularity
+     */
+    public SlotGranularity getSlotGranularity() {
+        return availabilityIndex.getGranularity();
+    }
 
-            return slots;
+    /**
+     * Generate a booking group ID that is unique across all booking-service replicas
+     * 
+     * @return New booking group ID
+     */
+    public Long nextBookingGroupId() {
+        return bookingGroupIdGenerator.nextId();
+    }
 
-        } catch (Exception e) {
-            logger.error("Error determining available time slots: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to determine available time slots: " + e.getMessage(), e);
+    /**
+     * Expand a day into one map per slot
+     */
+    private static List<Map<String, Object>> toSlotList(DaySlots daySlots) {
+        int slotMinutes = daySlots.getGranularity().getMinutes();
+        List<Map<String, Object>> slots = new ArrayList<>(daySlots.size());
+        for (int index = 0; index < daySlots.size(); index++) {
+            int startMinute = index * slotMinutes;
+            int endMinute = startMinute + slotMinutes;
+
+            Map<String, Object> slot = new HashMap<>();
+            if (slotMinutes == 60) {
+                slot.put("startHour", startMinute / 60);
+                slot.put("endHour", endMinute / 60);
+            }
+            slot.put("startTime", formatMinuteOfDay(startMinute));
+            slot.put("endTime", formatMinuteOfDay(endMinute));
+            slot.put("available", !daySlots.isBooked(index));
+            slots.add(slot);
         }
+        return slots;
     }
 
     /**
-     * Get all bookings for a facility on a specific date
-     * 
-     * @param facilityId The facility ID
-     * @param date       The date to check
-     * @return List of bookings on that date
-     */
-    private List<BookingDto> getBookingsForFacilityOnDate(Long facilityId, LocalDate date) {
-        // Calculate the start and end of the day
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-
-        // Get all bookings for this facility
-        List<BookingDto> allBookings = getBookingsByFacilityId(facilityId);
-
-        // Filter bookings that fall on the requested date and not cancelled
-        return allBookings.stream()
-                .filter(booking -> !booking.getStatus().equals("cancelled") &&
-                        booking.getStartTime().isEqual(startOfDay)
-                        || booking.getStartTime().isAfter(startOfDay) &&
-                                booking.getStartTime().isBefore(endOfDay))
-                .collect(Collectors.toList());
+     * Format a minute of the day as HH:mm (the end of the day is "24:00")
+     */
+    private static String formatMinuteOfDay(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
     }
 
     /**
@@ -228,18 +734,38 @@ public class BookingService {
         return start1.isBefore(end2) && end1.isAfter(start2);
     }
 
+    /**
+     * Check whether a write failed on the bookings exclusion constraint (SQLSTATE 23P01)
+     */
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Cancel all bookings in a booking group
      * 
      * @param bookingGroupId Booking group ID
+     * @param earliestStart  No booking of the group starts before this, or
+     *                       {@link BookingRepository#ANY_START} if that is not known
      * @return Number of bookings cancelled
      * @throws RuntimeException if no bookings found for the group
      */
     @Transactional
-    public int cancelBookingGroup(Long bookingGroupId) {
+    public int cancelBookingGroup(Long bookingGroupId, LocalDateTime earliestStart) {
         logger.info("Cancelling all bookings in group: {}", bookingGroupId);
 
-        int cancelledCount = bookingRepository.deleteBookingsByGroupId(bookingGroupId);
+        // Remember which facility-days the group covered so the index can drop them
+        List<Booking> groupBookings = bookingRepository.findByBookingGroupId(bookingGroupId, earliestStart);
+        availabilityIndex.evictAfterCommit(groupBookings);
+        occupancyRollupService.recordRemoved(groupBookings);
+
+        int cancelledCount = bookingRepository.deleteBookingsByGroupId(bookingGroupId, earliestStart);
     
     if (cancelledCount > 0) {
         logger.info("Cancelled {} bookings in group: {}", cancelledCount, bookingGroupId);
@@ -250,19 +776,6 @@ public class BookingService {
     return cancelledCount;
     }
 
-    /**
-     * Get all bookings with a specific status
-     * 
-     * @param status Booking status (e.g., 'pending', 'confirmed', 'cancelled')
-     * @return List of bookings with the specified status
-     */
-    @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByUserIdAndStatus(Integer userId, String status) {
-        return bookingRepository.findByUserIdAndStatus(userId, status).stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
-    }
-
     /**
      * Check if a facility is available for a specific time period
      * 
@@ -274,7 +787,7 @@ public class BookingService {
     @Transactional(readOnly = true)
     public boolean isFacilityAvailable(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
         List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(
-                facilityId, startTime, endTime);
+                facilityId, startTime, endTime, LocalDateTime.now());
 
         return conflictingBookings.isEmpty();
     }
@@ -283,12 +796,14 @@ public class BookingService {
      * Get all bookings by booking group ID
      * 
      * @param bookingGroupId Booking group ID
+     * @param earliestStart  No booking of the group starts before this, or
+     *                       {@link BookingRepository#ANY_START} if that is not known
      * @return List of bookings in the group
      */
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByGroupId(Long bookingGroupId) {
+    public List<BookingDto> getBookingsByGroupId(Long bookingGroupId, LocalDateTime earliestStart) {
         logger.info("Fetching bookings for group ID: {}", bookingGroupId);
-        return bookingRepository.findByBookingGroupId(bookingGroupId).stream()
+        return bookingRepository.findByBookingGroupId(bookingGroupId, earliestStart).stream()
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,269 @@
+package com.pitchplease.booking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pitchplease.booking.exception.BookingConflictException;
+import com.pitchplease.booking.model.dto.BookingDto;
+import com.pitchplease.booking.model.entity.Booking;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional single-writer path for booking creation under heavy contention.
+ *
+ * Facilities are spread over a fixed number of shards, each with its own queue and
+ * writer thread. A writer drains up to {@code max-batch} requests at a time, takes the
+ * facility locks once, loads the existing bookings with one query, accepts or rejects
+ * every request in memory in arrival order, and inserts all accepted slots in a single
+ * transaction. Callers wait on a future that completes once the batch has committed.
+ * A caller that gives up can cancel its group only while it is still queued; once a
+ * writer has claimed it, it is written and the caller must wait for the outcome.
+ *
+ * Requests for the same facility never compete for locks with each other, so throughput
+ * grows with the number of shards instead of shrinking with the number of requests.
+ * Writers still take the per-facility advisory locks, so the combiner stays correct
+ * next to the direct path and other replicas.
+ */
+@Component
+public class BookingWriteCombiner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingWriteCombiner.class);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean enabled;
+
+    private final int maxBatch;
+
+    private final List<BlockingQueue<PendingGroup>> queues = new ArrayList<>();
+
+    private final List<Thread> writers = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile boolean running = true;
+
+    public BookingWriteCombiner(
+            @Value("${pitchplease.booking.write-combiner.enabled:false}") boolean enabled,
+            @Value("${pitchplease.booking.write-combiner.shards:4}") int shards,
+            @Value("${pitchplease.booking.write-combiner.max-batch:64}") int maxBatch,
+            @Value("${pitchplease.booking.write-combiner.queue-capacity:10000}") int queueCapacity) {
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        if (enabled) {
+            for (int shard = 0; shard < shards; shard++) {
+                queues.add(new LinkedBlockingQueue<>(queueCapacity));
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int shard = 0; shard < queues.size(); shard++) {
+            BlockingQueue<PendingGroup> queue = queues.get(shard);
+            Thread writer = new Thread(() -> drain(queue), "booking-writer-" + shard);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        logger.info("Booking write combiner started with {} shards", queues.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+        for (BlockingQueue<PendingGroup> queue : queues) {
+            PendingGroup pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new IllegalStateException("Booking service is shutting down"));
+            }
+        }
+    }
+
+    /**
+     * @return true if creates should be routed through the combiner
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a booking group for the writer of its facility's shard
+     *
+     * @param bookingDtos Slots of one booking group
+     * @return The queued group; its future completes with the created bookings, or with a
+     *         {@link BookingConflictException} if any slot is taken
+     * @throws IllegalStateException if the shard's queue is full
+     */
+    public PendingGroup submit(List<BookingDto> bookingDtos) {
+        List<Booking> entities = bookingService.toNewEntities(bookingDtos);
+        PendingGroup pending = new PendingGroup(entities);
+
+        int shard = Math.floorMod(entities.get(0).getFacilityId().hashCode(), queues.size());
+        if (!queues.get(shard).offer(pending)) {
+            throw new IllegalStateException("Booking queue for shard " + shard + " is full");
+        }
+        return pending;
+    }
+
+    private void drain(BlockingQueue<PendingGroup> queue) {
+        List<PendingGroup> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            // Groups cancelled by callers that stopped waiting are never written
+            batch.removeIf(pending -> !pending.claim());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                writeBatch(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Batch of {} booking groups failed, retrying one by one: {}", batch.size(), e.getMessage());
+                batch.forEach(this::writeAlone);
+            } catch (Throwable t) {
+                // Keep the writer alive; its callers and everyone queued behind them would wait forever
+                logger.error("Batch of {} booking groups failed: {}", batch.size(), t.getMessage(), t);
+                batch.forEach(pending -> pending.result.completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Accept or reject every group of the batch and commit the accepted ones together
+     */
+    private void writeBatch(List<PendingGroup> batch) {
+        List<Booking> batchEntities = new ArrayList<>();
+        batch.forEach(pending -> batchEntities.addAll(pending.entities));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TreeSet<Long> facilityIds = bookingService.lockFacilities(batchEntities);
+            bookingService.removeExpiredHolds(facilityIds);
+            List<Booking> taken = new ArrayList<>(bookingService.findExistingBookings(facilityIds, batchEntities));
+
+            List<Booking> accepted = new ArrayList<>();
+            for (PendingGroup pending : batch) {
+                try {
+                    bookingService.checkForConflicts(pending.entities, taken);
+                    taken.addAll(pending.entities);
+                    accepted.addAll(pending.entities);
+                    pending.rejection = null;
+                } catch (BookingConflictException e) {
+                    pending.rejection = e;
+                }
+            }
+
+            assignCreated(batch, accepted.isEmpty()
+                    ? List.of()
+                    : bookingService.saveNewBookings(accepted, facilityIds));
+        });
+
+        // Only now is the batch committed and visible to readers
+        for (PendingGroup pending : batch) {
+            if (pending.rejection != null) {
+                pending.result.completeExceptionally(pending.rejection);
+            } else {
+                pending.result.complete(pending.created);
+            }
+        }
+        logger.debug("Wrote batch of {} booking groups", batch.size());
+    }
+
+    /**
+     * Hand each accepted group its slice of the saved bookings
+     */
+    private static void assignCreated(List<PendingGroup> batch, List<BookingDto> saved) {
+        int offset = 0;
+        for (PendingGroup pending : batch) {
+            if (pending.rejection == null) {
+                pending.created = saved.subList(offset, offset + pending.entities.size());
+                offset += pending.entities.size();
+            }
+        }
+    }
+
+    private void writeAlone(PendingGroup pending) {
+        try {
+            pending.entities.forEach(entity -> entity.setBookingId(null));
+            List<BookingDto> created = transactionTemplate.execute(status -> {
+                TreeSet<Long> facilityIds = bookingService.lockFacilities(pending.entities);
+                bookingService.removeExpiredHolds(facilityIds);
+                bookingService.checkForConflicts(pending.entities,
+                        bookingService.findExistingBookings(facilityIds, pending.entities));
+                return bookingService.saveNewBookings(pending.entities, facilityIds);
+            });
+            pending.result.complete(created);
+        } catch (Throwable t) {
+            pending.result.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * A booking group waiting for, or being written by, its shard's writer
+     */
+    public static final class PendingGroup {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final List<Booking> entities;
+        private final CompletableFuture<List<BookingDto>> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private List<BookingDto> created;
+        private BookingConflictException rejection;
+
+        private PendingGroup(List<Booking> entities) {
+            this.entities = entities;
+        }
+
+        /**
+         * @return Future completed once the group is committed or rejected
+         */
+        public CompletableFuture<List<BookingDto>> result() {
+            return result;
+        }
+
+        /**
+         * Withdraw the group if no writer has claimed it yet
+         *
+         * @return true if the group will never be written, false if a writer already has it
+         */
+        public boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+
+        private boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.pitchplease.booking.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Near-cache of facility hourly rates used for pricing.
+ *
+ * Rates are read from the shared {@code facilities} table the first time a facility is
+ * priced and then served from memory. facility-discovery announces updates and
+ * deletions, which evict the entry so the next booking reads the new rate. Each replica
+ * only hears the events sent to it, so entries also expire after {@code rate-ttl-seconds}.
+ */
+@Component
+public class FacilityRateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacilityRateCache.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${pitchplease.booking.pricing.rate-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<Long, CachedRate> rates = new ConcurrentHashMap<>();
+
+    /**
+     * @param facilityId Facility ID
+     * @return Hourly rate of the facility
+     * @throws IllegalArgumentException if the facility does not exist
+     */
+    public BigDecimal getHourlyRate(Long facilityId) {
+        long now = System.currentTimeMillis();
+        CachedRate cached = rates.get(facilityId);
+        if (cached != null && now - cached.loadedAt < ttlSeconds * 1000) {
+            return cached.hourlyRate;
+        }
+
+        List<BigDecimal> found = jdbcTemplate.queryForList(
+                "SELECT hourly_rate FROM facilities WHERE facility_id = ?", BigDecimal.class, facilityId);
+        if (found.isEmpty() || found.get(0) == null) {
+            rates.remove(facilityId);
+            throw new IllegalArgumentException("Unknown facility: " + facilityId);
+        }
+        BigDecimal hourlyRate = found.get(0);
+        rates.put(facilityId, new CachedRate(hourlyRate, now));
+        return hourlyRate;
+    }
+
+    /**
+     * Drop cached rates so the next lookup reads them again
+     */
+    public void invalidate(Collection<Long> facilityIds) {
+        facilityIds.forEach(rates::remove);
+        logger.debug("Invalidated cached rates of facilities: {}", facilityIds);
+    }
+
+    private record CachedRate(BigDecimal hourlyRate, long loadedAt) {
+    }
+}
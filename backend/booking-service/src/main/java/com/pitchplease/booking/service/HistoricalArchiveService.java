@@ -0,0 +1,288 @@
+package com.pitchplease.booking.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pitchplease.booking.utils.ColumnarSegmentWriter;
+
+/**
+ * Copies closed months of bookings and payments into columnar segment files on local disk.
+ *
+ * A month is closed once it ended more than {@code closed-after-days} ago; after that
+ * its rows no longer change. Each closed month gets one {@code bookings-YYYY-MM.seg}
+ * and one {@code payments-YYYY-MM.seg} file, sorted by facility, which
+ * {@link HistoricalReportService} memory-maps instead of querying PostgreSQL. Months
+ * whose booking partition was already moved to {@code bookings_archive} are read
+ * from there. Existing files are never rewritten, so each month is exported once per
+ * replica.
+ *
+ * The payments table belongs to payment-service; it is read here only because the
+ * services share one database and reports need both sides of a facility's history.
+ */
+@Service
+public class HistoricalArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalArchiveService.class);
+
+    static final String BOOKINGS_PREFIX = "bookings-";
+
+    static final String PAYMENTS_PREFIX = "payments-";
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pitchplease.booking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pitchplease.booking.archive.directory:archive}")
+    private String directory;
+
+    @Value("${pitchplease.booking.archive.closed-after-days:7}")
+    private int closedAfterDays;
+
+    @Value("${pitchplease.booking.archive.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * @return Directory holding the segment files
+     */
+    public Path getDirectory() {
+        return Paths.get(directory);
+    }
+
+    /**
+     * @param month A month
+     * @return true once the month has closed and may be archived
+     */
+    public boolean isClosed(YearMonth month) {
+        return !month.plusMonths(1).atDay(1).plusDays(closedAfterDays).isAfter(LocalDate.now());
+    }
+
+    /**
+     * Segment file of one table and month
+     */
+    public Path segmentPath(String prefix, YearMonth month) {
+        return getDirectory().resolve(prefix + month + SEGMENT_SUFFIX);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        archiveClosedMonths();
+    }
+
+    /**
+     * Export every closed month that has no segment files yet
+     */
+    @Scheduled(cron = "${pitchplease.booking.archive.cron:0 45 3 * * *}")
+    public void archiveClosedMonths() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(getDirectory());
+            YearMonth first = earliestMonth();
+            if (first == null) {
+                return;
+            }
+            YearMonth last = YearMonth.now();
+            while (!isClosed(last)) {
+                last = last.minusMonths(1);
+            }
+
+            int archived = 0;
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                if (!Files.exists(segmentPath(BOOKINGS_PREFIX, month))) {
+                    archiveBookings(month);
+                    archived++;
+                }
+                if (!Files.exists(segmentPath(PAYMENTS_PREFIX, month))) {
+                    archivePayments(month);
+                    archived++;
+                }
+            }
+            if (archived > 0) {
+                logger.info("Archived {} monthly segments from {} to {} into {}", archived, first, last, getDirectory());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Historical archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void archiveBookings(YearMonth month) throws IOException {
+        String archivedPartition = "bookings_archive.bookings_" + month.toString().replace('-', '_');
+        String source = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                archivedPartition) ? archivedPartition : "bookings";
+
+        LongColumn facilityIds = new LongColumn();
+        LongColumn userIds = new LongColumn();
+        LongColumn groupIds = new LongColumn();
+        LongColumn startMinutes = new LongColumn();
+        LongColumn durations = new LongColumn();
+        LongColumn prices = new LongColumn();
+        List<String> statuses = new ArrayList<>();
+
+        streamMonth("SELECT facility_id, user_id, booking_group_id, start_time, end_time, total_price, status FROM "
+                + source + " WHERE start_time >= ? AND start_time < ? ORDER BY facility_id, start_time", month,
+                rs -> {
+                    LocalDateTime start = rs.getTimestamp("start_time").toLocalDateTime();
+                    LocalDateTime end = rs.getTimestamp("end_time").toLocalDateTime();
+                    facilityIds.add(rs.getLong("facility_id"));
+                    userIds.add(rs.getLong("user_id"));
+                    groupIds.add(rs.getLong("booking_group_id"));
+                    startMinutes.add(epochMinute(start));
+                    durations.add(ChronoUnit.MINUTES.between(start, end));
+                    prices.add(cents(rs.getBigDecimal("total_price")));
+                    statuses.add(rs.getString("status"));
+                });
+
+        new ColumnarSegmentWriter(facilityIds.size())
+                .addLongColumn("facility_id", facilityIds.toArray())
+                .addIntColumn("user_id", userIds.toIntArray())
+                .addLongColumn("booking_group_id", groupIds.toArray())
+                .addLongColumn("start_minute", startMinutes.toArray())
+                .addIntColumn("duration_minutes", durations.toIntArray())
+                .addLongColumn("price_cents", prices.toArray())
+                .addDictionaryColumn("status", statuses.toArray(new String[0]))
+                .writeTo(segmentPath(BOOKINGS_PREFIX, month));
+        logger.debug("Archived {} bookings of {} from {}", facilityIds.size(), month, source);
+    }
+
+    private void archivePayments(YearMonth month) throws IOException {
+        LongColumn facilityIds = new LongColumn();
+        LongColumn userIds = new LongColumn();
+        LongColumn groupIds = new LongColumn();
+        LongColumn createdMinutes = new LongColumn();
+        LongColumn amounts = new LongColumn();
+        List<String> statuses = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+
+        streamMonth("SELECT facility_id, user_id, booking_group_id, created_at, amount, payment_status, payment_method "
+                + "FROM payments WHERE created_at >= ? AND created_at < ? ORDER BY facility_id, created_at", month,
+                rs -> {
+                    facilityIds.add(rs.getLong("facility_id"));
+                    userIds.add(rs.getLong("user_id"));
+                    groupIds.add(rs.getLong("booking_group_id"));
+                    createdMinutes.add(epochMinute(rs.getTimestamp("created_at").toLocalDateTime()));
+                    amounts.add(cents(rs.getBigDecimal("amount")));
+                    statuses.add(rs.getString("payment_status"));
+                    methods.add(rs.getString("payment_method"));
+                });
+
+        new ColumnarSegmentWriter(facilityIds.size())
+                .addLongColumn("facility_id", facilityIds.toArray())
+                .addLongColumn("user_id", userIds.toArray())
+                .addLongColumn("booking_group_id", groupIds.toArray())
+                .addLongColumn("created_minute", createdMinutes.toArray())
+                .addLongColumn("amount_cents", amounts.toArray())
+                .addDictionaryColumn("payment_status", statuses.toArray(new String[0]))
+                .addDictionaryColumn("payment_method", methods.toArray(new String[0]))
+                .writeTo(segmentPath(PAYMENTS_PREFIX, month));
+        logger.debug("Archived {} payments of {}", facilityIds.size(), month);
+    }
+
+    /**
+     * Run a month query through a server-side cursor so large months are not buffered twice
+     */
+    private void streamMonth(String sql, YearMonth month, RowCallbackHandler handler) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+            statement.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            return statement;
+        }, handler));
+    }
+
+    /**
+     * First month with any booking or payment, including archived booking partitions
+     */
+    private YearMonth earliestMonth() {
+        LocalDate earliest = Stream.of(
+                jdbcTemplate.queryForObject("SELECT min(start_time)::date FROM bookings", Date.class),
+                jdbcTemplate.queryForObject("SELECT min(created_at)::date FROM payments", Date.class),
+                jdbcTemplate.queryForObject("SELECT min(to_date(substring(c.relname FROM 10), 'YYYY_MM')) "
+                        + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "WHERE n.nspname = 'bookings_archive' AND c.relname ~ '^bookings_[0-9]{4}_[0-9]{2}$'",
+                        Date.class))
+                .filter(Objects::nonNull)
+                .map(Date::toLocalDate)
+                .min(LocalDate::compareTo)
+                .orElse(null);
+        return earliest != null ? YearMonth.from(earliest) : null;
+    }
+
+    static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Growable primitive column, avoiding one boxed object per row
+     */
+    private static final class LongColumn {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toIntArray() {
+            int[] ints = new int[size];
+            for (int i = 0; i < size; i++) {
+                ints[i] = Math.toIntExact(values[i]);
+            }
+            return ints;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.pitchplease.booking.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.booking.utils.ColumnarSegmentReader;
+
+/**
+ * Monthly facility reports over archived and live data.
+ *
+ * Months that {@link HistoricalArchiveService} has exported are answered from the
+ * memory-mapped segment files: rows are sorted by facility, so a binary search finds
+ * the facility's slice and the totals are sums over primitive arrays. Other months
+ * fall back to aggregate queries on PostgreSQL. Cancelled bookings and checkout holds
+ * are not counted.
+ */
+@Service
+public class HistoricalReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalReportService.class);
+
+    private static final String CANCELLED = "cancelled";
+
+    private static final String PAYMENT_COMPLETED = "COMPLETED";
+
+    @Autowired
+    private HistoricalArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${pitchplease.booking.archive.max-report-months:60}")
+    private int maxReportMonths;
+
+    /**
+     * Open segments, keyed by file; mappings are cheap to keep and segments never change
+     */
+    private final Map<Path, ColumnarSegmentReader> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Per-month totals of one facility
+     *
+     * @param facilityId Facility ID
+     * @param from       First month (inclusive)
+     * @param to         Last month (inclusive)
+     * @return One entry per month with bookings, bookedMinutes, utilisation, bookingRevenue,
+     *         paymentRevenue and source ("archive" or "live")
+     * @throws IllegalArgumentException if the range is reversed or too long
+     */
+    public List<Map<String, Object>> facilityReport(Long facilityId, YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (from.plusMonths(maxReportMonths).isBefore(to.plusMonths(1))) {
+            throw new IllegalArgumentException("Reports cover at most " + maxReportMonths + " months");
+        }
+
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            MonthTotals totals = archivedTotals(facilityId, month);
+            String source = "archive";
+            if (totals == null) {
+                totals = liveTotals(facilityId, month);
+                source = "live";
+            }
+
+            long minutesInMonth = month.lengthOfMonth() * 24L * 60L;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("month", month.toString());
+            row.put("bookings", totals.bookings);
+            row.put("bookedMinutes", totals.bookedMinutes);
+            row.put("utilisation", BigDecimal.valueOf(totals.bookedMinutes)
+                    .divide(BigDecimal.valueOf(minutesInMonth), 4, RoundingMode.HALF_UP));
+            row.put("bookingRevenue", BigDecimal.valueOf(totals.bookingCents, 2));
+            row.put("paymentRevenue", BigDecimal.valueOf(totals.paymentCents, 2));
+            row.put("source", source);
+            report.add(row);
+        }
+        return report;
+    }
+
+    /**
+     * @return Totals from the segment files, or null if the month is not archived yet
+     */
+    private MonthTotals archivedTotals(Long facilityId, YearMonth month) {
+        ColumnarSegmentReader bookings = segment(archiveService.segmentPath(HistoricalArchiveService.BOOKINGS_PREFIX, month));
+        ColumnarSegmentReader payments = segment(archiveService.segmentPath(HistoricalArchiveService.PAYMENTS_PREFIX, month));
+        if (bookings == null || payments == null) {
+            return null;
+        }
+
+        MonthTotals totals = new MonthTotals();
+        int[] rows = facilityRows(bookings, facilityId);
+        if (rows[0] < rows[1]) {
+            int[] durations = bookings.intColumn("duration_minutes");
+            long[] prices = bookings.longColumn("price_cents");
+            ColumnarSegmentReader.DictionaryColumn statuses = bookings.dictionaryColumn("status");
+            int cancelled = statuses.codeOf(CANCELLED);
+            int held = statuses.codeOf(SlotHoldService.HELD_STATUS);
+            for (int row = rows[0]; row < rows[1]; row++) {
+                int status = statuses.codes()[row] & 0xFF;
+                if (status == cancelled || status == held) {
+                    continue;
+                }
+                totals.bookings++;
+                totals.bookedMinutes += durations[row];
+                totals.bookingCents += prices[row];
+            }
+        }
+
+        rows = facilityRows(payments, facilityId);
+        if (rows[0] < rows[1]) {
+            long[] amounts = payments.longColumn("amount_cents");
+            ColumnarSegmentReader.DictionaryColumn statuses = payments.dictionaryColumn("payment_status");
+            boolean[] completed = new boolean[statuses.dictionary().length];
+            for (int code = 0; code < completed.length; code++) {
+                completed[code] = PAYMENT_COMPLETED.equalsIgnoreCase(statuses.dictionary()[code]);
+            }
+            for (int row = rows[0]; row < rows[1]; row++) {
+                if (completed[statuses.codes()[row] & 0xFF]) {
+                    totals.paymentCents += amounts[row];
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @return [first, end) row range of a facility in a segment sorted by facility_id
+     */
+    private static int[] facilityRows(ColumnarSegmentReader segment, long facilityId) {
+        if (segment.rowCount() == 0) {
+            return new int[] { 0, 0 };
+        }
+        long[] facilityIds = segment.longColumn("facility_id");
+        return new int[] { lowerBound(facilityIds, facilityId), lowerBound(facilityIds, facilityId + 1) };
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int index = Arrays.binarySearch(sorted, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == key) {
+            index--;
+        }
+        return index;
+    }
+
+    private MonthTotals liveTotals(Long facilityId, YearMonth month) {
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        MonthTotals totals = new MonthTotals();
+
+        jdbcTemplate.query("SELECT count(*) AS bookings, "
+                + "coalesce(sum(extract(epoch FROM end_time - start_time) / 60), 0) AS minutes, "
+                + "coalesce(sum(total_price), 0) AS revenue FROM bookings "
+                + "WHERE facility_id = ? AND start_time >= ? AND start_time < ? AND status NOT IN (?, ?)",
+                rs -> {
+                    totals.bookings = rs.getLong("bookings");
+                    totals.bookedMinutes = rs.getLong("minutes");
+                    totals.bookingCents = rs.getBigDecimal("revenue").movePointRight(2).longValue();
+                }, facilityId, start, end, CANCELLED, SlotHoldService.HELD_STATUS);
+
+        BigDecimal paid = jdbcTemplate.queryForObject("SELECT coalesce(sum(amount), 0) FROM payments "
+                + "WHERE facility_id = ? AND created_at >= ? AND created_at < ? AND upper(payment_status) = ?",
+                BigDecimal.class, facilityId, start, end, PAYMENT_COMPLETED);
+        totals.paymentCents = paid.movePointRight(2).longValue();
+        return totals;
+    }
+
+    private ColumnarSegmentReader segment(Path path) {
+        ColumnarSegmentReader reader = segments.get(path);
+        if (reader != null || !Files.exists(path)) {
+            return reader;
+        }
+        try {
+            return segments.computeIfAbsent(path, p -> {
+                try {
+                    return ColumnarSegmentReader.open(p);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            logger.warn("Unreadable archive segment {}; falling back to live data: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class MonthTotals {
+        private long bookings;
+        private long bookedMinutes;
+        private long bookingCents;
+        private long paymentCents;
+    }
+}
@@ -0,0 +1,109 @@
+package com.pitchplease.booking.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.booking.repository.NodeIdLeaseRepository;
+import com.pitchplease.booking.utils.SnowflakeIdGenerator;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Leases this replica a Snowflake node ID from {@code booking_node_leases}, so scaled
+ * replicas never share one without any per-replica configuration.
+ *
+ * The lowest free or expired node ID is claimed at startup, renewed well within the
+ * lease period and released on shutdown; a replica that dies loses its ID once the
+ * lease expires. If all node IDs are held, startup fails rather than reusing one.
+ */
+@Service
+public class NodeIdLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdLeaseService.class);
+
+    @Autowired
+    private NodeIdLeaseRepository nodeIdLeaseRepository;
+
+    @Value("${pitchplease.booking.node-lease.seconds:120}")
+    private long leaseSeconds;
+
+    private final String owner = ownerName();
+
+    private volatile Integer nodeId;
+
+    /**
+     * Claim a node ID for this replica
+     *
+     * @return The leased node ID
+     * @throws IllegalStateException if every node ID is leased by a live replica
+     */
+    public synchronized int acquire() {
+        if (nodeId != null) {
+            return nodeId;
+        }
+        for (int candidate = 0; candidate <= SnowflakeIdGenerator.MAX_NODE_ID; candidate++) {
+            if (nodeIdLeaseRepository.claim(candidate, owner, leaseSeconds) == 1) {
+                nodeId = candidate;
+                logger.info("Leased node ID {} as {}", candidate, owner);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + (SnowflakeIdGenerator.MAX_NODE_ID + 1)
+                + " booking node IDs are leased; set pitchplease.booking.node-id or stop a replica");
+    }
+
+    /**
+     * Keep the lease alive. A lease lost while this replica was cut off from the database
+     * is claimed again if nobody took it over in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${pitchplease.booking.node-lease.renew-millis:20000}")
+    public void renew() {
+        Integer leased = nodeId;
+        if (leased == null) {
+            return;
+        }
+        try {
+            if (nodeIdLeaseRepository.renew(leased, owner) == 0
+                    && nodeIdLeaseRepository.claim(leased, owner, leaseSeconds) == 0) {
+                logger.error("Node ID {} was leased by another replica; booking group IDs may collide "
+                        + "until this replica is restarted", leased);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to renew the lease on node ID {}: {}", leased, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        Integer leased = nodeId;
+        if (leased == null) {
+            return;
+        }
+        try {
+            nodeIdLeaseRepository.release(leased, owner);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            logger.warn("Failed to release the lease on node ID {}: {}", leased, e.getMessage());
+        }
+    }
+
+    private static String ownerName() {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "unknown";
+        }
+        // Unique even when a restarted container keeps its host name
+        String name = hostName + '/' + UUID.randomUUID();
+        return name.length() > 100 ? name.substring(name.length() - 100) : name;
+    }
+}
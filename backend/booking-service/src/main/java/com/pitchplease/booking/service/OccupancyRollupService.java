@@ -0,0 +1,237 @@
+package com.pitchplease.booking.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pitchplease.booking.model.entity.Booking;
+import com.pitchplease.booking.repository.FacilityOccupancyRepository;
+
+/**
+ * Maintains the {@code facility_occupancy} rollup and serves weekday-by-hour heatmaps from it.
+ *
+ * Creating, confirming and cancelling bookings adjust the booked minutes of the hours
+ * they cover inside the same transaction, so a heatmap reads at most one row per
+ * facility-hour instead of scanning bookings. The rebuild job recomputes the rollup
+ * from the bookings table: on startup when it is empty (backfill) and on a schedule to
+ * repair any drift, e.g. from bookings changed outside this service. Months whose
+ * partition was moved to {@code bookings_archive} are no longer in {@code bookings}, so
+ * the rebuild leaves their rows as they were.
+ */
+@Service
+public class OccupancyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyRollupService.class);
+
+    /**
+     * Advisory lock key shared by every replica running the rebuild
+     */
+    private static final long REBUILD_LOCK_KEY = 0x6f63637570616e63L;
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    /**
+     * Rebuild start when no month has been archived
+     */
+    private static final LocalDate ALL_DATES = LocalDate.of(1, 1, 1);
+
+    @Autowired
+    private FacilityOccupancyRepository occupancyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pitchplease.booking.occupancy.rebuild-enabled:true}")
+    private boolean rebuildEnabled;
+
+    @Value("${pitchplease.booking.occupancy.max-heatmap-days:366}")
+    private int maxHeatmapDays;
+
+    /**
+     * Count newly booked or confirmed rows; holds and cancelled rows are skipped
+     */
+    @Transactional
+    public void recordBooked(Collection<Booking> bookings) {
+        apply(bookings, 1);
+    }
+
+    /**
+     * Remove rows that are about to be deleted; holds and cancelled rows are skipped
+     */
+    @Transactional
+    public void recordRemoved(Collection<Booking> bookings) {
+        apply(bookings, -1);
+    }
+
+    private void apply(Collection<Booking> bookings, int sign) {
+        // Sorted so concurrent transactions update shared rows in the same order and cannot deadlock
+        TreeMap<HourCell, Integer> cells = new TreeMap<>(HourCell.ORDER);
+        for (Booking booking : bookings) {
+            if (counts(booking)) {
+                addCells(cells, booking.getFacilityId(), booking.getStartTime(), booking.getEndTime());
+            }
+        }
+        cells.forEach((cell, minutes) -> occupancyRepository.addMinutes(
+                cell.facilityId, cell.date, cell.hour, sign * minutes));
+    }
+
+    private static boolean counts(Booking booking) {
+        return !SlotHoldService.HELD_STATUS.equals(booking.getStatus())
+                && !"cancelled".equalsIgnoreCase(booking.getStatus());
+    }
+
+    /**
+     * Split a booking at hour boundaries
+     */
+    static void addCells(Map<HourCell, Integer> cells, Long facilityId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime hourStart = start.truncatedTo(ChronoUnit.HOURS);
+        while (hourStart.isBefore(end)) {
+            LocalDateTime hourEnd = hourStart.plusHours(1);
+            LocalDateTime from = start.isAfter(hourStart) ? start : hourStart;
+            LocalDateTime to = end.isBefore(hourEnd) ? end : hourEnd;
+            int minutes = (int) ChronoUnit.MINUTES.between(from, to);
+            if (minutes > 0) {
+                cells.merge(new HourCell(facilityId, hourStart.toLocalDate(), hourStart.getHour()),
+                        minutes, Integer::sum);
+            }
+            hourStart = hourEnd;
+        }
+    }
+
+    /**
+     * Occupancy of a facility by weekday and hour
+     *
+     * @param facilityId Facility ID
+     * @param from       First day (inclusive)
+     * @param to         Last day (inclusive)
+     * @return Weekday names plus 7x24 grids (Monday first, hour 0 first) of booked minutes
+     *         and of occupancy, the share of that hour booked across the matching days
+     * @throws IllegalArgumentException if the range is reversed or too long
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getHeatmap(Long facilityId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxHeatmapDays) {
+            throw new IllegalArgumentException("Heatmaps cover at most " + maxHeatmapDays + " days");
+        }
+
+        long[][] bookedMinutes = new long[7][24];
+        for (Object[] row : occupancyRepository.sumByWeekdayAndHour(facilityId, from, to)) {
+            int weekday = ((Number) row[0]).intValue() - 1;
+            int hour = ((Number) row[1]).intValue();
+            bookedMinutes[weekday][hour] = ((Number) row[2]).longValue();
+        }
+
+        // How many times each weekday occurs in the range
+        int[] days = new int[7];
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days[date.getDayOfWeek().getValue() - 1]++;
+        }
+
+        List<String> weekdays = new ArrayList<>();
+        BigDecimal[][] occupancy = new BigDecimal[7][24];
+        for (int weekday = 0; weekday < 7; weekday++) {
+            weekdays.add(DayOfWeek.of(weekday + 1).name());
+            for (int hour = 0; hour < 24; hour++) {
+                occupancy[weekday][hour] = days[weekday] == 0 ? BigDecimal.ZERO
+                        : BigDecimal.valueOf(bookedMinutes[weekday][hour])
+                                .divide(BigDecimal.valueOf((long) days[weekday] * MINUTES_PER_HOUR), 4,
+                                        RoundingMode.HALF_UP);
+            }
+        }
+
+        Map<String, Object> heatmap = new LinkedHashMap<>();
+        heatmap.put("facilityId", facilityId);
+        heatmap.put("from", from.toString());
+        heatmap.put("to", to.toString());
+        heatmap.put("weekdays", weekdays);
+        heatmap.put("bookedMinutes", bookedMinutes);
+        heatmap.put("occupancy", occupancy);
+        return heatmap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rebuildEnabled && occupancyRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute the rollup for the dates the bookings table still holds
+     */
+    @Scheduled(cron = "${pitchplease.booking.occupancy.rebuild-cron:0 30 4 * * SUN}")
+    public void rebuild() {
+        if (!rebuildEnabled) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                        Boolean.class, REBUILD_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    logger.debug("Another replica is rebuilding the occupancy rollup");
+                    return;
+                }
+                // Incremental updates wait until the rebuild commits and then apply on top of it
+                jdbcTemplate.execute("LOCK TABLE facility_occupancy IN EXCLUSIVE MODE");
+                LocalDate fromDate = firstLiveDate();
+                occupancyRepository.deleteRowsFrom(fromDate);
+                int rows = occupancyRepository.insertFromBookings(fromDate);
+                logger.info("Rebuilt occupancy rollup from {}: {} facility-hours", fromDate, rows);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Occupancy rollup rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * First day after the newest month archived out of the bookings table
+     */
+    private LocalDate firstLiveDate() {
+        Date lastArchivedMonth = jdbcTemplate.queryForObject(
+                "SELECT max(to_date(substring(c.relname FROM 10), 'YYYY_MM')) "
+                        + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "WHERE n.nspname = 'bookings_archive' AND c.relname ~ '^bookings_[0-9]{4}_[0-9]{2}$'",
+                Date.class);
+        return lastArchivedMonth != null ? lastArchivedMonth.toLocalDate().plusMonths(1) : ALL_DATES;
+    }
+
+    /**
+     * One facility-hour of the rollup
+     */
+    record HourCell(Long facilityId, LocalDate date, int hour) {
+        static final Comparator<HourCell> ORDER = Comparator.comparing(HourCell::facilityId)
+                .thenComparing(HourCell::date)
+                .thenComparingInt(HourCell::hour);
+    }
+}
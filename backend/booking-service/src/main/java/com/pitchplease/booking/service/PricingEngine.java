@@ -0,0 +1,146 @@
+package com.pitchplease.booking.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Prices bookings on the server.
+ *
+ * A booking costs the facility's hourly rate, prorated by the minute, with minutes
+ * inside the peak window (and, if configured, all weekend minutes) multiplied by the
+ * peak multiplier. Add-ons are charged per hour on top. Rates come from
+ * {@link FacilityRateCache}, so pricing does not call facility-discovery.
+ */
+@Service
+public class PricingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private static final BigDecimal MINUTES_PER_HOUR = BigDecimal.valueOf(60);
+
+    @Autowired
+    private FacilityRateCache facilityRateCache;
+
+    private final LocalTime peakStart;
+
+    private final LocalTime peakEnd;
+
+    private final BigDecimal peakMultiplier;
+
+    private final boolean weekendPeak;
+
+    private final Map<String, BigDecimal> addonHourlyPrices;
+
+    public PricingEngine(
+            @Value("${pitchplease.booking.pricing.peak-start:17:00}") String peakStart,
+            @Value("${pitchplease.booking.pricing.peak-end:22:00}") String peakEnd,
+            @Value("${pitchplease.booking.pricing.peak-multiplier:1.25}") BigDecimal peakMultiplier,
+            @Value("${pitchplease.booking.pricing.weekend-peak:true}") boolean weekendPeak,
+            @Value("${pitchplease.booking.pricing.addons:lighting=5.00,equipment=3.00,coaching=15.00}") String addons) {
+        this.peakStart = LocalTime.parse(peakStart);
+        this.peakEnd = LocalTime.parse(peakEnd);
+        this.peakMultiplier = peakMultiplier;
+        this.weekendPeak = weekendPeak;
+        this.addonHourlyPrices = parseAddonPrices(addons);
+    }
+
+    /**
+     * Price of one booking
+     *
+     * @param facilityId Facility being booked
+     * @param startTime  Start of the booking
+     * @param endTime    End of the booking, on the same day or at the following midnight
+     * @param addons     Comma-separated add-on names (optional); unknown names are ignored
+     * @return Price rounded to cents
+     * @throws IllegalArgumentException if the facility does not exist
+     */
+    public BigDecimal price(Long facilityId, LocalDateTime startTime, LocalDateTime endTime, String addons) {
+        BigDecimal hourlyRate = facilityRateCache.getHourlyRate(facilityId);
+        long minutes = ChronoUnit.MINUTES.between(startTime, endTime);
+        long peakMinutes = peakMinutes(startTime, endTime);
+
+        BigDecimal addonRate = BigDecimal.ZERO;
+        for (String addon : parseAddons(addons)) {
+            addonRate = addonRate.add(addonHourlyPrices.get(addon));
+        }
+
+        BigDecimal hourlyTotal = hourlyRate.multiply(BigDecimal.valueOf(minutes - peakMinutes))
+                .add(hourlyRate.multiply(peakMultiplier).multiply(BigDecimal.valueOf(peakMinutes)))
+                .add(addonRate.multiply(BigDecimal.valueOf(minutes)));
+        return hourlyTotal.divide(MINUTES_PER_HOUR, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Add-on names and their hourly prices
+     */
+    public Map<String, BigDecimal> getAddonHourlyPrices() {
+        return addonHourlyPrices;
+    }
+
+    /**
+     * @return Known add-ons named in the string, lower-cased, in order
+     */
+    List<String> parseAddons(String addons) {
+        List<String> names = new ArrayList<>();
+        if (addons == null || addons.isBlank()) {
+            return names;
+        }
+        for (String part : addons.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (addonHourlyPrices.containsKey(name)) {
+                names.add(name);
+            } else {
+                logger.warn("Ignoring unknown add-on: {}", name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Minutes of the booking that fall in the peak window
+     */
+    private long peakMinutes(LocalDateTime startTime, LocalDateTime endTime) {
+        DayOfWeek day = startTime.getDayOfWeek();
+        if (weekendPeak && (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY)) {
+            return ChronoUnit.MINUTES.between(startTime, endTime);
+        }
+        LocalDateTime windowStart = startTime.toLocalDate().atTime(peakStart);
+        LocalDateTime windowEnd = startTime.toLocalDate().atTime(peakEnd);
+        LocalDateTime from = startTime.isAfter(windowStart) ? startTime : windowStart;
+        LocalDateTime to = endTime.isBefore(windowEnd) ? endTime : windowEnd;
+        return Math.max(0, ChronoUnit.MINUTES.between(from, to));
+    }
+
+    private static Map<String, BigDecimal> parseAddonPrices(String addons) {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        for (String entry : addons.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Add-on prices must look like name=price, got: " + entry);
+            }
+            prices.put(parts[0].trim().toLowerCase(Locale.ROOT), new BigDecimal(parts[1].trim()));
+        }
+        return prices;
+    }
+}
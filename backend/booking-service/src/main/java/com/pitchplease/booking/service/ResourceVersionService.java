@@ -0,0 +1,124 @@
+package com.pitchplease.booking.service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Version counters behind the strong ETags of cacheable reads.
+ *
+ * Every resource (e.g. one facility's availability on one day) has a version taken
+ * from a single increasing counter, so an evicted and re-created entry never repeats
+ * an old tag. Committed booking changes bump the versions of the days they touch, so a
+ * client's tag stays current exactly as long as the response it came with. Tags start
+ * with a per-process epoch, making tags issued by other replicas or before a restart
+ * mismatch instead of falsely matching. Versions also expire after the availability
+ * cache's time-to-live, so changes made on other replicas are picked up no later than
+ * the cached data itself.
+ */
+@Service
+public class ResourceVersionService {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final long maxAgeMillis;
+
+    private final Map<String, Version> versions;
+
+    public ResourceVersionService(
+            @Value("${pitchplease.booking.etag.max-entries:100000}") int maxEntries,
+            @Value("${pitchplease.booking.availability.ttl-seconds:60}") long maxAgeSeconds) {
+        this.maxAgeMillis = maxAgeSeconds * 1000L;
+        this.versions = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Version> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Current ETag of a representation. Read it before loading the data, so a change
+     * that lands in between leaves the client with an older tag rather than a newer one.
+     *
+     * @param resource Resource key, e.g. from {@link #availability(Long, LocalDate)}
+     * @param variant  Representation of the resource, e.g. "list" or "bitmask"
+     * @return A quoted strong entity tag
+     */
+    public String currentTag(String resource, String variant) {
+        long now = System.currentTimeMillis();
+        long version;
+        synchronized (versions) {
+            Version current = versions.get(resource);
+            if (current == null || now - current.issuedAt >= maxAgeMillis) {
+                current = new Version(counter.incrementAndGet(), now);
+                versions.put(resource, current);
+            }
+            version = current.value;
+        }
+        return '"' + epoch + '-' + Long.toString(version, 36) + '-' + variant + '"';
+    }
+
+    /**
+     * Invalidate every tag issued for a resource
+     */
+    public void bump(String resource) {
+        synchronized (versions) {
+            versions.put(resource, new Version(counter.incrementAndGet(), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Bump the availability of every day a committed booking change touched
+     */
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        for (LocalDate date : event.dates()) {
+            bump(availability(event.facilityId(), date));
+        }
+    }
+
+    /**
+     * @return Resource key of a facility's availability on a date
+     */
+    public static String availability(Long facilityId, LocalDate date) {
+        return "availability:" + facilityId + ':' + date;
+    }
+
+    /**
+     * Whether an If-None-Match header matches a tag, using the weak comparison
+     * RFC 9110 prescribes for If-None-Match
+     *
+     * @param ifNoneMatch Header value (may be null, "*" or a comma-separated list)
+     * @param etag        Current tag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Version(long value, long issuedAt) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.pitchplease.booking.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pitchplease.booking.exception.HoldNotFoundException;
+import com.pitchplease.booking.model.dto.BookingDto;
+import com.pitchplease.booking.model.entity.Booking;
+import com.pitchplease.booking.repository.BookingRepository;
+import com.pitchplease.booking.utils.HashedTimingWheel;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Temporary slot holds taken while a user goes through checkout.
+ *
+ * A hold is a booking group whose rows have status {@value #HELD_STATUS} and a
+ * {@code holdExpiresAt} time. Held slots block other bookings and show as unavailable
+ * like any other booking. Confirming turns them into regular bookings; releasing or
+ * letting them expire deletes them.
+ *
+ * Expiry is driven by a {@link HashedTimingWheel} rather than a polling query. Each
+ * replica schedules the holds it places, plus every live hold found at startup. Queries
+ * ignore expired holds, so a hold whose replica went down never blocks a slot past its
+ * expiry time. A periodic sweep removes such orphaned holds once they are a grace period
+ * past expiry, so their days are evicted and republished to facility-discovery like any
+ * other expired hold.
+ *
+ * Every lookup of a hold's rows carries a lower bound on {@code start_time} so only the
+ * recent monthly partitions are read. Slots that have already ended cannot be held, so a
+ * hold placed at time t has no row starting before
+ * {@link BookingRepository#earliestStartOverlapping} of t.
+ */
+@Service
+public class SlotHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotHoldService.class);
+
+    public static final String HELD_STATUS = "HELD";
+
+    public static final String CONFIRMED_STATUS = "COMPLETED";
+
+    /**
+     * Passed as "now" to release a hold whatever its expiry time
+     */
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private OccupancyRollupService occupancyRollupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final int defaultMinutes;
+
+    private final int maxMinutes;
+
+    private final Duration sweepGrace;
+
+    private final HashedTimingWheel timingWheel;
+
+    private final Map<Long, HashedTimingWheel.Timeout> expiryTimers = new ConcurrentHashMap<>();
+
+    public SlotHoldService(
+            @Value("${pitchplease.booking.hold.default-minutes:10}") int defaultMinutes,
+            @Value("${pitchplease.booking.hold.max-minutes:30}") int maxMinutes,
+            @Value("${pitchplease.booking.hold.tick-millis:1000}") long tickMillis,
+            @Value("${pitchplease.booking.hold.wheel-size:512}") int wheelSize,
+            @Value("${pitchplease.booking.hold.sweep-grace-seconds:60}") long sweepGraceSeconds) {
+        this.defaultMinutes = defaultMinutes;
+        this.maxMinutes = maxMinutes;
+        this.sweepGrace = Duration.ofSeconds(sweepGraceSeconds);
+        this.timingWheel = new HashedTimingWheel("slot-hold-expiry", tickMillis, wheelSize);
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hold slots for a limited time
+     *
+     * @param bookingDtos Slots to hold; they share one booking group
+     * @param minutes     How long to hold them, or null for the default
+     * @return Held bookings, all with the same group ID and expiry time
+     * @throws IllegalArgumentException if the hold length is out of range or a slot has already ended
+     * @throws com.pitchplease.booking.exception.BookingConflictException if any slot is taken
+     */
+    public List<BookingDto> hold(List<BookingDto> bookingDtos, Integer minutes) {
+        int holdMinutes = minutes != null ? minutes : defaultMinutes;
+        if (holdMinutes < 1 || holdMinutes > maxMinutes) {
+            throw new IllegalArgumentException("Hold length must be between 1 and " + maxMinutes + " minutes");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingDto bookingDto : bookingDtos) {
+            if (!bookingDto.getEndTime().isAfter(now)) {
+                throw new IllegalArgumentException("Cannot hold a slot that has already ended");
+            }
+        }
+
+        LocalDateTime expiresAt = now.plusMinutes(holdMinutes);
+        for (BookingDto bookingDto : bookingDtos) {
+            bookingDto.setStatus(HELD_STATUS);
+            bookingDto.setHoldExpiresAt(expiresAt);
+        }
+
+        List<BookingDto> held = bookingService.createBookingGroup(bookingDtos);
+        Long bookingGroupId = held.get(0).getBookingGroupId();
+        scheduleExpiry(bookingGroupId, expiresAt);
+
+        logger.info("Holding {} slots in group: {} until {}", held.size(), bookingGroupId, expiresAt);
+        return held;
+    }
+
+    /**
+     * Turn a live hold into confirmed bookings
+     *
+     * @param bookingGroupId Booking group ID of the hold
+     * @return Confirmed bookings
+     * @throws HoldNotFoundException if the hold expired, was released or never existed
+     */
+    @Transactional
+    public List<BookingDto> confirm(Long bookingGroupId) {
+        LocalDateTime now = LocalDateTime.now();
+        // A live hold was placed within the last maxMinutes
+        LocalDateTime earliestStart = earliestStartOfHoldPlacedAfter(now.minusMinutes(maxMinutes));
+        int confirmed = bookingRepository.confirmHold(bookingGroupId, CONFIRMED_STATUS, now, earliestStart);
+        if (confirmed == 0) {
+            throw new HoldNotFoundException("Booking group: " + bookingGroupId);
+        }
+        cancelExpiry(bookingGroupId);
+        occupancyRollupService.recordBooked(bookingRepository.findByBookingGroupId(bookingGroupId, earliestStart));
+
+        logger.info("Confirmed {} held slots in group: {}", confirmed, bookingGroupId);
+        return bookingService.getBookingsByGroupId(bookingGroupId, earliestStart);
+    }
+
+    /**
+     * Give held slots back before the hold expires. A hold already past expiry is left to
+     * the timer or the sweep.
+     *
+     * @param bookingGroupId Booking group ID of the hold
+     * @return Number of slots released
+     */
+    public int release(Long bookingGroupId) {
+        cancelExpiry(bookingGroupId);
+        LocalDateTime earliestStart = earliestStartOfHoldPlacedAfter(LocalDateTime.now().minusMinutes(maxMinutes));
+        int released = removeHold(bookingGroupId, END_OF_TIME, earliestStart);
+        logger.info("Released {} held slots in group: {}", released, bookingGroupId);
+        return released;
+    }
+
+    /**
+     * Clear holds that expired while no replica was running and schedule the live ones
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> heldSlots = bookingRepository.findByStatus(HELD_STATUS).stream()
+                .filter(booking -> booking.getHoldExpiresAt() != null)
+                .collect(Collectors.toList());
+        Map<Long, LocalDateTime> holds = earliest(heldSlots, Booking::getHoldExpiresAt);
+        Map<Long, LocalDateTime> earliestStarts = earliest(heldSlots, Booking::getStartTime);
+
+        holds.forEach((bookingGroupId, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                scheduleExpiry(bookingGroupId, expiresAt);
+            } else {
+                removeHold(bookingGroupId, now, earliestStarts.get(bookingGroupId));
+            }
+        });
+        logger.info("Recovered {} slot holds", holds.size());
+    }
+
+    /**
+     * Remove holds whose replica went down before they expired. Holds only just past
+     * expiry are left to the timer of the replica that placed them.
+     */
+    @Scheduled(fixedDelayString = "${pitchplease.booking.hold.sweep-millis:60000}")
+    public void sweepExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<Long, LocalDateTime> orphaned = earliest(
+                    bookingRepository.findHoldsExpiredBefore(now.minus(sweepGrace)), Booking::getStartTime);
+            int removed = 0;
+            for (Map.Entry<Long, LocalDateTime> hold : orphaned.entrySet()) {
+                cancelExpiry(hold.getKey());
+                removed += removeHold(hold.getKey(), now, hold.getValue());
+            }
+            if (removed > 0) {
+                logger.info("Swept {} orphaned held slots in {} groups", removed, orphaned.size());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to sweep expired holds: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timingWheel.close();
+    }
+
+    private void scheduleExpiry(Long bookingGroupId, LocalDateTime expiresAt) {
+        long delayMillis = Duration.between(LocalDateTime.now(), expiresAt).toMillis();
+        HashedTimingWheel.Timeout timeout = timingWheel.schedule(() -> expire(bookingGroupId, expiresAt), delayMillis);
+        HashedTimingWheel.Timeout previous = expiryTimers.put(bookingGroupId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void cancelExpiry(Long bookingGroupId) {
+        HashedTimingWheel.Timeout timeout = expiryTimers.remove(bookingGroupId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void expire(Long bookingGroupId, LocalDateTime expiresAt) {
+        expiryTimers.remove(bookingGroupId);
+        try {
+            LocalDateTime earliestStart = earliestStartOfHoldPlacedAfter(expiresAt.minusMinutes(maxMinutes));
+            int removed = removeHold(bookingGroupId, LocalDateTime.now(), earliestStart);
+            if (removed > 0) {
+                logger.info("Hold expired, released {} slots in group: {}", removed, bookingGroupId);
+            }
+        } catch (RuntimeException e) {
+            // Queries already ignore the expired rows; the next booking on the facility removes them
+            logger.error("Failed to release expired hold for group: {}: {}", bookingGroupId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete the held rows of a group that expired before {@code now} and drop them from the index
+     *
+     * @param earliestStart No row of the group starts before this
+     */
+    private int removeHold(Long bookingGroupId, LocalDateTime now, LocalDateTime earliestStart) {
+        return transactionTemplate.execute(status -> {
+            List<Booking> heldSlots = bookingRepository.findByBookingGroupId(bookingGroupId, earliestStart).stream()
+                    .filter(booking -> HELD_STATUS.equals(booking.getStatus()))
+                    .collect(Collectors.toList());
+            if (heldSlots.isEmpty()) {
+                return 0;
+            }
+            int removed = bookingRepository.deleteHold(bookingGroupId, now, earliestStart);
+            availabilityIndex.evictAfterCommit(heldSlots);
+            return removed;
+        });
+    }
+
+    /**
+     * Lower start-time bound for a hold placed at or after {@code placedAfter}
+     */
+    private static LocalDateTime earliestStartOfHoldPlacedAfter(LocalDateTime placedAfter) {
+        // Held slots had not ended when the hold was placed
+        return BookingRepository.earliestStartOverlapping(placedAfter);
+    }
+
+    /**
+     * Earliest value of {@code field} per booking group
+     */
+    private static Map<Long, LocalDateTime> earliest(List<Booking> bookings,
+            Function<Booking, LocalDateTime> field) {
+        return bookings.stream().collect(Collectors.toMap(Booking::getBookingGroupId, field,
+                BinaryOperator.minBy(LocalDateTime::compareTo)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.pitchplease.booking.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a booking listing ordered by (start time, booking ID).
+ *
+ * The next page starts strictly after this position, so rows inserted or
+ * deleted between requests never shift the pages the way offsets do.
+ * Clients see only an opaque URL-safe token.
+ *
+ * @param startTime Start time of the last booking returned
+ * @param bookingId ID of the last booking returned
+ */
+public record BookingCursor(LocalDateTime startTime, Long bookingId) {
+
+    /**
+     * Position before every booking
+     */
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+
+    /**
+     * @return Token to hand back to the client
+     */
+    public String encode() {
+        String raw = startTime + "|" + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @param token Cursor token, or null/blank for the first page
+     * @return The position to continue after
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static BookingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
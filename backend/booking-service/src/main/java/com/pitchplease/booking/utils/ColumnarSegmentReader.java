@@ -0,0 +1,181 @@
+package com.pitchplease.booking.utils;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a segment written by {@link ColumnarSegmentWriter}.
+ *
+ * The file is memory-mapped, so opening it costs one directory parse and the OS
+ * page cache, not the heap, holds the compressed bytes. Columns are inflated
+ * straight from the mapping into primitive arrays on first request; a query touching
+ * two columns never decompresses the others. Segments never change, so decoded
+ * columns are kept behind soft references and later requests reuse them until the
+ * heap runs short. Callers share the returned arrays and must not modify them.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class ColumnarSegmentReader {
+
+    private final MappedByteBuffer mapped;
+
+    private final int rowCount;
+
+    private final Map<String, Entry> directory = new HashMap<>();
+
+    private final Map<String, SoftReference<Object>> decoded = new ConcurrentHashMap<>();
+
+    private ColumnarSegmentReader(MappedByteBuffer mapped) throws IOException {
+        this.mapped = mapped;
+        ByteBuffer header = mapped.duplicate();
+        if (header.getInt() != ColumnarSegmentWriter.MAGIC) {
+            throw new IOException("Not a columnar segment");
+        }
+        short version = header.getShort();
+        if (version != ColumnarSegmentWriter.VERSION) {
+            throw new IOException("Unsupported segment version: " + version);
+        }
+        this.rowCount = header.getInt();
+        int columnCount = header.getInt();
+        for (int i = 0; i < columnCount; i++) {
+            byte[] name = new byte[header.getShort()];
+            header.get(name);
+            directory.put(new String(name, StandardCharsets.UTF_8),
+                    new Entry(header.get(), header.getLong(), header.getInt(), header.getInt()));
+        }
+    }
+
+    /**
+     * Map a segment file
+     */
+    public static ColumnarSegmentReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColumnarSegmentReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public boolean hasColumn(String name) {
+        return directory.containsKey(name);
+    }
+
+    public int[] intColumn(String name) {
+        return (int[]) decoded(name, () -> {
+            int[] values = new int[rowCount];
+            inflate(name, ColumnarSegmentWriter.TYPE_INT).asIntBuffer().get(values);
+            return values;
+        });
+    }
+
+    public long[] longColumn(String name) {
+        return (long[]) decoded(name, () -> {
+            long[] values = new long[rowCount];
+            inflate(name, ColumnarSegmentWriter.TYPE_LONG).asLongBuffer().get(values);
+            return values;
+        });
+    }
+
+    /**
+     * Decode a dictionary column
+     */
+    public DictionaryColumn dictionaryColumn(String name) {
+        return (DictionaryColumn) decoded(name, () -> {
+            ByteBuffer raw = inflate(name, ColumnarSegmentWriter.TYPE_DICTIONARY).order(ByteOrder.BIG_ENDIAN);
+            String[] dictionary = new String[raw.getShort()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] value = new byte[raw.getShort()];
+                raw.get(value);
+                dictionary[i] = new String(value, StandardCharsets.UTF_8);
+            }
+            byte[] codes = new byte[rowCount];
+            raw.get(codes);
+            return new DictionaryColumn(dictionary, codes);
+        });
+    }
+
+    /**
+     * Decoded column, decoding it again only if it was never decoded or has been collected.
+     * Two threads may both decode a column the first time; either result is kept.
+     */
+    private Object decoded(String name, Supplier<Object> decoder) {
+        SoftReference<Object> cached = decoded.get(name);
+        Object values = cached != null ? cached.get() : null;
+        if (values == null) {
+            values = decoder.get();
+            decoded.put(name, new SoftReference<>(values));
+        }
+        return values;
+    }
+
+    private ByteBuffer inflate(String name, byte type) {
+        Entry entry = directory.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No column named " + name);
+        }
+        if (entry.type != type) {
+            throw new IllegalArgumentException("Column " + name + " has type " + entry.type + ", not " + type);
+        }
+
+        ByteBuffer compressed = mapped.slice((int) entry.offset, entry.compressedLength);
+        ByteBuffer raw = ByteBuffer.allocate(entry.rawLength);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (raw.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(raw) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Column " + name + " is truncated");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Column " + name + " is corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        return raw.flip().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * A string column as a dictionary plus one code per row
+     *
+     * @param dictionary Distinct values
+     * @param codes      Index into {@code dictionary} for each row (read as unsigned)
+     */
+    public record DictionaryColumn(String[] dictionary, byte[] codes) {
+
+        /**
+         * @return Code of {@code value}, or -1 if no row has it
+         */
+        public int codeOf(String value) {
+            for (int i = 0; i < dictionary.length; i++) {
+                if (dictionary[i].equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public String valueAt(int row) {
+            return dictionary[codes[row] & 0xFF];
+        }
+    }
+
+    private record Entry(byte type, long offset, int compressedLength, int rawLength) {
+    }
+}
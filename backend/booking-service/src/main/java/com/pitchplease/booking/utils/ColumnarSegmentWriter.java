@@ -0,0 +1,181 @@
+package com.pitchplease.booking.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an immutable columnar segment file read by {@link ColumnarSegmentReader}.
+ *
+ * Each column is stored as one little-endian primitive array, deflated on its own,
+ * so a reader decompresses only the columns a query needs. Low-cardinality strings
+ * are dictionary-encoded into one byte per row.
+ *
+ * Layout: magic, version, row count, column count, a directory of
+ * (name, type, offset, compressed length, raw length) entries, then the column blobs.
+ * Files are written to a temporary name and moved into place, so readers never see
+ * a partial segment.
+ */
+public final class ColumnarSegmentWriter {
+
+    static final int MAGIC = 0x50504331; // "PPC1"
+
+    static final short VERSION = 1;
+
+    static final byte TYPE_INT = 1;
+
+    static final byte TYPE_LONG = 2;
+
+    static final byte TYPE_DICTIONARY = 3;
+
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+    private final int rowCount;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * @param rowCount Number of rows every column must have
+     */
+    public ColumnarSegmentWriter(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public ColumnarSegmentWriter addIntColumn(String name, int[] values) {
+        checkLength(name, values.length);
+        ByteBuffer raw = ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asIntBuffer().put(values);
+        columns.put(name, new Column(TYPE_INT, raw.array()));
+        return this;
+    }
+
+    public ColumnarSegmentWriter addLongColumn(String name, long[] values) {
+        checkLength(name, values.length);
+        ByteBuffer raw = ByteBuffer.allocate(values.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asLongBuffer().put(values);
+        columns.put(name, new Column(TYPE_LONG, raw.array()));
+        return this;
+    }
+
+    /**
+     * Add a string column with at most 256 distinct values
+     *
+     * @throws IllegalArgumentException if the column has more distinct values
+     */
+    public ColumnarSegmentWriter addDictionaryColumn(String name, String[] values) {
+        checkLength(name, values.length);
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        byte[] codes = new byte[values.length];
+        for (int row = 0; row < values.length; row++) {
+            String value = values[row] != null ? values[row] : "";
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+                    throw new IllegalArgumentException("Column " + name + " has more than "
+                            + MAX_DICTIONARY_SIZE + " distinct values");
+                }
+                code = dictionary.size();
+                dictionary.put(value, code);
+            }
+            codes[row] = (byte) (int) code;
+        }
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(codes.length + 64);
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            out.writeShort(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            out.write(codes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        columns.put(name, new Column(TYPE_DICTIONARY, raw.toByteArray()));
+        return this;
+    }
+
+    /**
+     * Compress every column and write the segment
+     *
+     * @param path Target file; replaced atomically if it exists
+     */
+    public void writeTo(Path path) throws IOException {
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> blobs = new ArrayList<>();
+        int directorySize = 0;
+        for (Map.Entry<String, Column> entry : columns.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            blobs.add(deflate(entry.getValue().raw));
+            directorySize += Short.BYTES + name.length + 1 + Long.BYTES + Integer.BYTES + Integer.BYTES;
+        }
+        long offset = Integer.BYTES + Short.BYTES + Integer.BYTES + Integer.BYTES + directorySize;
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(rowCount);
+            out.writeInt(columns.size());
+
+            int index = 0;
+            for (Column column : columns.values()) {
+                byte[] name = names.get(index);
+                byte[] blob = blobs.get(index);
+                out.writeShort(name.length);
+                out.write(name);
+                out.writeByte(column.type);
+                out.writeLong(offset);
+                out.writeInt(blob.length);
+                out.writeInt(column.raw.length);
+                offset += blob.length;
+                index++;
+            }
+            for (byte[] blob : blobs) {
+                out.write(blob);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void checkLength(String name, int length) {
+        if (length != rowCount) {
+            throw new IllegalArgumentException("Column " + name + " has " + length + " rows, expected " + rowCount);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private record Column(byte type, byte[] raw) {
+    }
+}
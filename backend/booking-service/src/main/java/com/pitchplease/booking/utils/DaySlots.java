@@ -0,0 +1,312 @@
+package com.pitchplease.booking.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Booked slots of one facility on one day, packed into {@code long} words.
+ *
+ * Bit {@code i} is set when slot {@code i} (counted from midnight at the
+ * configured {@link SlotGranularity}) is booked. Range marking, overlap and
+ * free-run checks work a whole word at a time instead of slot by slot.
+ *
+ * Instances are not thread-safe; callers that share them must copy or lock.
+ */
+public final class DaySlots {
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private final SlotGranularity granularity;
+
+    private final long[] words;
+
+    private DaySlots(SlotGranularity granularity, long[] words) {
+        this.granularity = granularity;
+        this.words = words;
+    }
+
+    /**
+     * Create a day with every slot free
+     *
+     * @param granularity Slot length
+     * @return Empty day
+     */
+    public static DaySlots empty(SlotGranularity granularity) {
+        return new DaySlots(granularity, new long[wordCount(granularity.slotsPerDay())]);
+    }
+
+    /**
+     * @return Independent copy of this day
+     */
+    public DaySlots copy() {
+        return new DaySlots(granularity, words.clone());
+    }
+
+    public SlotGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return Number of slots in the day
+     */
+    public int size() {
+        return granularity.slotsPerDay();
+    }
+
+    /**
+     * @param slot Slot index
+     * @return true if the slot is booked
+     */
+    public boolean isBooked(int slot) {
+        checkSlot(slot);
+        return (words[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Mark slots [fromSlot, toSlot) as booked
+     */
+    public void markRange(int fromSlot, int toSlot) {
+        applyRange(fromSlot, toSlot, true);
+    }
+
+    /**
+     * Mark slots [fromSlot, toSlot) as free
+     */
+    public void clearRange(int fromSlot, int toSlot) {
+        applyRange(fromSlot, toSlot, false);
+    }
+
+    /**
+     * Mark every slot of {@code date} touched by [startTime, endTime) as booked.
+     * Partially covered slots are marked too, so unaligned bookings never show
+     * as free time.
+     *
+     * @param date      The day this instance represents
+     * @param startTime Start of the booking
+     * @param endTime   End of the booking
+     */
+    public void markBooking(LocalDate date, LocalDateTime startTime, LocalDateTime endTime) {
+        int[] range = slotRange(date, startTime, endTime);
+        if (range != null) {
+            markRange(range[0], range[1]);
+        }
+    }
+
+    /**
+     * @return true if every slot in [fromSlot, toSlot) is free
+     */
+    public boolean isFree(int fromSlot, int toSlot) {
+        checkRange(fromSlot, toSlot);
+        for (int word = fromSlot >>> 6; word <= (toSlot - 1) >>> 6 && fromSlot < toSlot; word++) {
+            if ((words[word] & rangeMask(word, fromSlot, toSlot)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other Day at the same granularity
+     * @return true if any slot is booked in both days
+     */
+    public boolean overlaps(DaySlots other) {
+        checkSameGranularity(other);
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mark every slot booked in {@code other} as booked here as well
+     */
+    public void or(DaySlots other) {
+        checkSameGranularity(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Index of the first free slot at or after {@code fromSlot}
+     *
+     * @return Slot index, or {@link #size()} if none is free
+     */
+    public int nextFreeSlot(int fromSlot) {
+        return nextSlot(fromSlot, true);
+    }
+
+    /**
+     * Index of the first booked slot at or after {@code fromSlot}
+     *
+     * @return Slot index, or {@link #size()} if none is booked
+     */
+    public int nextBookedSlot(int fromSlot) {
+        return nextSlot(fromSlot, false);
+    }
+
+    /**
+     * All maximal runs of free slots
+     *
+     * @return List of [startSlot, endSlot) pairs in ascending order
+     */
+    public List<int[]> freeRuns() {
+        List<int[]> runs = new ArrayList<>();
+        int slot = nextFreeSlot(0);
+        while (slot < size()) {
+            int end = nextBookedSlot(slot);
+            runs.add(new int[] { slot, end });
+            slot = nextFreeSlot(end);
+        }
+        return runs;
+    }
+
+    /**
+     * Find the first contiguous free block of {@code length} slots at or after {@code fromSlot}
+     *
+     * @return Start slot of the block, or -1 if the day has no such block
+     */
+    public int findFreeBlock(int length, int fromSlot) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Block length must be positive");
+        }
+        int slot = nextFreeSlot(Math.max(fromSlot, 0));
+        while (slot + length <= size()) {
+            int end = nextBookedSlot(slot);
+            if (end - slot >= length) {
+                return slot;
+            }
+            slot = nextFreeSlot(end);
+        }
+        return -1;
+    }
+
+    /**
+     * Compact wire format: the booked bitmask as a hexadecimal number with
+     * slot 0 in the least significant bit, zero-padded to {@code size() / 4} digits.
+     *
+     * @return Hex string, e.g. "00f000" for 60-minute slots booked from 12:00 to 16:00
+     */
+    public String toHex() {
+        int digits = (size() + 3) / 4;
+        char[] out = new char[digits];
+        for (int nibble = 0; nibble < digits; nibble++) {
+            int bit = nibble * 4;
+            int value = (int) ((words[bit >>> 6] >>> (bit & (WORD_BITS - 1))) & 0xF);
+            out[digits - 1 - nibble] = Character.forDigit(value, 16);
+        }
+        return new String(out);
+    }
+
+    /**
+     * Convert a time range on {@code date} to the slots it touches
+     *
+     * @return [fromSlot, toSlot) clipped to the day, or null if the range misses the day
+     */
+    public int[] slotRange(LocalDate date, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+
+        LocalDateTime from = startTime.isAfter(startOfDay) ? startTime : startOfDay;
+        LocalDateTime to = endTime.isBefore(endOfDay) ? endTime : endOfDay;
+        if (!from.isBefore(to)) {
+            return null;
+        }
+
+        long slotMinutes = granularity.getMinutes();
+        long fromMinute = ChronoUnit.MINUTES.between(startOfDay, from);
+        long toSeconds = ChronoUnit.SECONDS.between(startOfDay, to);
+        int fromSlot = (int) (fromMinute / slotMinutes);
+        int toSlot = (int) ((toSeconds + slotMinutes * 60 - 1) / (slotMinutes * 60));
+        return new int[] { fromSlot, Math.min(toSlot, size()) };
+    }
+
+    private int nextSlot(int fromSlot, boolean free) {
+        if (fromSlot >= size()) {
+            return size();
+        }
+        int word = fromSlot >>> 6;
+        long bits = (free ? ~words[word] : words[word]) & (-1L << fromSlot);
+        while (true) {
+            if (bits != 0) {
+                int slot = word * WORD_BITS + Long.numberOfTrailingZeros(bits);
+                return Math.min(slot, size());
+            }
+            if (++word == words.length) {
+                return size();
+            }
+            bits = free ? ~words[word] : words[word];
+        }
+    }
+
+    private void applyRange(int fromSlot, int toSlot, boolean booked) {
+        checkRange(fromSlot, toSlot);
+        if (fromSlot == toSlot) {
+            return;
+        }
+        for (int word = fromSlot >>> 6; word <= (toSlot - 1) >>> 6; word++) {
+            long mask = rangeMask(word, fromSlot, toSlot);
+            words[word] = booked ? words[word] | mask : words[word] & ~mask;
+        }
+    }
+
+    /**
+     * Bits of word {@code word} that fall inside [fromSlot, toSlot)
+     */
+    private static long rangeMask(int word, int fromSlot, int toSlot) {
+        int wordStart = word * WORD_BITS;
+        int lo = Math.max(fromSlot, wordStart) - wordStart;
+        int hi = Math.min(toSlot, wordStart + WORD_BITS) - wordStart;
+        long upper = hi == WORD_BITS ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    private static int wordCount(int slots) {
+        return (slots + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size()) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " outside 0.." + (size() - 1));
+        }
+    }
+
+    private void checkRange(int fromSlot, int toSlot) {
+        if (fromSlot < 0 || toSlot > size() || fromSlot > toSlot) {
+            throw new IndexOutOfBoundsException("Slot range [" + fromSlot + ", " + toSlot + ") outside 0.." + size());
+        }
+    }
+
+    private void checkSameGranularity(DaySlots other) {
+        if (other.granularity != granularity) {
+            throw new IllegalArgumentException("Cannot combine " + granularity + " with " + other.granularity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DaySlots other)) {
+            return false;
+        }
+        return granularity == other.granularity && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * granularity.hashCode() + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return "DaySlots[" + granularity.getMinutes() + "min, " + toHex() + "]";
+    }
+}
@@ -0,0 +1,169 @@
+package com.pitchplease.booking.utils;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel for large numbers of one-shot timeouts.
+ *
+ * Time is divided into ticks of {@code tickMillis}. A timeout due in {@code n}
+ * ticks is placed in bucket {@code (current + n) % wheelSize} with
+ * {@code n / wheelSize} remaining rounds, so scheduling and cancelling are O(1)
+ * and each tick only looks at one bucket instead of scanning every pending timeout.
+ *
+ * New timeouts are handed to the single worker thread through a lock-free queue;
+ * only the worker touches the buckets. Tasks run on the worker thread and should
+ * be short; a task that throws is logged and does not stop the wheel.
+ */
+public final class HashedTimingWheel implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickMillis;
+
+    private final Queue<Timeout>[] buckets;
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    private final Thread worker;
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    private final long startNanos;
+
+    private long tick;
+
+    /**
+     * @param name       Name of the worker thread
+     * @param tickMillis Length of one tick; timeouts fire up to one tick late
+     * @param wheelSize  Number of buckets (one full turn is {@code tickMillis * wheelSize})
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick length and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run {@code task} once after {@code delayMillis}
+     *
+     * @return Handle that can cancel the task before it runs
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (!running.get()) {
+            throw new IllegalStateException("Timing wheel has been stopped");
+        }
+        long deadline = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + Math.max(delayMillis, 0);
+        Timeout timeout = new Timeout(task, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        running.set(false);
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running.get()) {
+            long nextTickAt = (tick + 1) * tickMillis;
+            long sleepMillis = nextTickAt - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    if (!running.get()) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            tick++;
+            transferPending();
+            expire(buckets[(int) (tick % buckets.length)]);
+        }
+    }
+
+    /**
+     * Move newly scheduled timeouts into their buckets
+     */
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled.get()) {
+                continue;
+            }
+            // Deadlines that already passed go into the current bucket and fire this tick
+            long dueTick = Math.max((timeout.deadlineMillis + tickMillis - 1) / tickMillis, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick % buckets.length)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled.get()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                if (timeout.cancelled.compareAndSet(false, true)) {
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        logger.error("Timing wheel task failed: {}", e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A scheduled task
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+
+        private final long deadlineMillis;
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Prevent the task from running
+         *
+         * @return true if the task had neither run nor been cancelled before
+         */
+        public boolean cancel() {
+            return cancelled.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pitchplease.booking.utils;
+
+/**
+ * Length of one bookable slot. A day is split into {@link #slotsPerDay()} slots
+ * of this length, numbered from midnight.
+ */
+public enum SlotGranularity {
+
+    FIFTEEN_MINUTES(15),
+    THIRTY_MINUTES(30),
+    SIXTY_MINUTES(60);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int minutes;
+
+    SlotGranularity(int minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * @return Slot length in minutes
+     */
+    public int getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * @return Number of slots in one day
+     */
+    public int slotsPerDay() {
+        return MINUTES_PER_DAY / minutes;
+    }
+
+    /**
+     * Resolve a granularity from its length in minutes
+     *
+     * @param minutes Slot length in minutes (15, 30 or 60)
+     * @return The matching granularity
+     * @throws IllegalArgumentException if the length is not supported
+     */
+    public static SlotGranularity ofMinutes(int minutes) {
+        for (SlotGranularity granularity : values()) {
+            if (granularity.minutes == minutes) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported slot length: " + minutes
+                + " minutes (expected 15, 30 or 60)");
+    }
+}
@@ -0,0 +1,131 @@
+package com.pitchplease.booking.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import com.pitchplease.booking.model.dto.BookingDto;
+
+/**
+ * Conversion between per-slot bookings and the contiguous ranges they are stored as.
+ *
+ * Requests still name individual slots, but each maximal run of back-to-back slots in
+ * a booking group is written as a single {@code bookings} row. {@link #expand} turns
+ * stored ranges back into one entry per slot for callers that want the per-slot view.
+ */
+public final class SlotRanges {
+
+    private SlotRanges() {
+    }
+
+    /**
+     * Merge back-to-back slots into ranges. Slots are merged only when they belong to
+     * the same group, facility and user and have the same status and hold expiry;
+     * overlapping slots are left apart so the conflict check still sees them. Ranges
+     * are split at midnight so no stored row spans two days.
+     *
+     * @param slots Slots in any order
+     * @return Ranges ordered by facility and start time, with summed prices
+     */
+    public static List<BookingDto> merge(List<BookingDto> slots) {
+        List<BookingDto> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparing(BookingDto::getFacilityId)
+                .thenComparing(BookingDto::getStartTime));
+
+        List<BookingDto> ranges = new ArrayList<>(sorted.size());
+        BookingDto current = null;
+        for (BookingDto slot : sorted) {
+            if (current != null && continues(current, slot)) {
+                current.setEndTime(slot.getEndTime());
+                current.setTotalPrice(add(current.getTotalPrice(), slot.getTotalPrice()));
+            } else {
+                current = copy(slot);
+                ranges.add(current);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Split stored ranges at slot boundaries
+     *
+     * @param ranges      Bookings as stored
+     * @param granularity Slot length to split at
+     * @return One entry per slot; each keeps the booking ID of its range and a share of
+     *         its price proportional to its length
+     */
+    public static List<BookingDto> expand(List<BookingDto> ranges, SlotGranularity granularity) {
+        List<BookingDto> slots = new ArrayList<>();
+        for (BookingDto range : ranges) {
+            long totalMinutes = ChronoUnit.MINUTES.between(range.getStartTime(), range.getEndTime());
+            BigDecimal remainingPrice = range.getTotalPrice();
+
+            LocalDateTime start = range.getStartTime();
+            while (start.isBefore(range.getEndTime())) {
+                LocalDateTime end = nextBoundary(start, granularity);
+                if (end.isAfter(range.getEndTime())) {
+                    end = range.getEndTime();
+                }
+
+                BookingDto slot = copy(range);
+                slot.setStartTime(start);
+                slot.setEndTime(end);
+                if (range.getTotalPrice() != null && totalMinutes > 0) {
+                    // The last slot takes whatever rounding left over so the slots add up to the range
+                    BigDecimal share = end.equals(range.getEndTime())
+                            ? remainingPrice
+                            : range.getTotalPrice()
+                                    .multiply(BigDecimal.valueOf(ChronoUnit.MINUTES.between(start, end)))
+                                    .divide(BigDecimal.valueOf(totalMinutes), 2, RoundingMode.HALF_UP);
+                    slot.setTotalPrice(share);
+                    remainingPrice = remainingPrice.subtract(share);
+                }
+                slots.add(slot);
+                start = end;
+            }
+        }
+        return slots;
+    }
+
+    private static boolean continues(BookingDto range, BookingDto slot) {
+        return range.getEndTime().equals(slot.getStartTime())
+                && range.getStartTime().toLocalDate().equals(slot.getStartTime().toLocalDate())
+                && Objects.equals(range.getBookingGroupId(), slot.getBookingGroupId())
+                && Objects.equals(range.getFacilityId(), slot.getFacilityId())
+                && Objects.equals(range.getUserId(), slot.getUserId())
+                && Objects.equals(range.getStatus(), slot.getStatus())
+                && Objects.equals(range.getHoldExpiresAt(), slot.getHoldExpiresAt());
+    }
+
+    private static LocalDateTime nextBoundary(LocalDateTime time, SlotGranularity granularity) {
+        long minuteOfDay = time.getHour() * 60L + time.getMinute();
+        long slotMinutes = granularity.getMinutes();
+        long nextMinute = (minuteOfDay / slotMinutes + 1) * slotMinutes;
+        return time.toLocalDate().atStartOfDay().plusMinutes(nextMinute);
+    }
+
+    private static BigDecimal add(BigDecimal first, BigDecimal second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.add(second);
+    }
+
+    private static BookingDto copy(BookingDto dto) {
+        return new BookingDto(
+                dto.getBookingId(),
+                dto.getBookingGroupId(),
+                dto.getFacilityId(),
+                dto.getUserId(),
+                dto.getStartTime(),
+                dto.getEndTime(),
+                dto.getTotalPrice(),
+                dto.getStatus(),
+                dto.getHoldExpiresAt());
+    }
+}
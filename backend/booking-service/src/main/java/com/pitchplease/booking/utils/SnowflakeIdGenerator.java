@@ -0,0 +1,104 @@
+package com.pitchplease.booking.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style ID generator that needs no coordination between replicas.
+ *
+ * An ID packs, from the most significant bit down:
+ * <pre>
+ *  41 bits  milliseconds since {@link #EPOCH_MILLIS} (about 69 years)
+ *   5 bits  node ID (0..31), unique per running instance
+ *   7 bits  sequence within the millisecond (0..127)
+ * </pre>
+ * The 53-bit total keeps every ID exactly representable as a JavaScript number,
+ * which is how the frontend handles booking group IDs.
+ *
+ * The timestamp and sequence live together in one {@link AtomicLong} and advance
+ * with a compare-and-set, so {@link #nextId()} never blocks. When a millisecond's
+ * sequence runs out, or the wall clock moves backwards, the generator keeps
+ * counting from its last timestamp instead of waiting, which keeps IDs unique
+ * and increasing on this node.
+ */
+public final class SnowflakeIdGenerator {
+
+    /** 2025-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1735689600000L;
+
+    public static final int NODE_BITS = 5;
+
+    public static final int SEQUENCE_BITS = 7;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    private final LongSupplier clock;
+
+    /**
+     * Last issued (timestamp << SEQUENCE_BITS | sequence)
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param nodeId Node ID in 0..{@value #MAX_NODE_ID}
+     */
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * @param nodeId Node ID in 0..{@value #MAX_NODE_ID}
+     * @param clock  Source of the current time in epoch milliseconds
+     */
+    public SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public int getNodeId() {
+        return (int) nodeId;
+    }
+
+    /**
+     * @return A new ID, unique across nodes with distinct node IDs
+     */
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long fresh = now << SEQUENCE_BITS;
+            // A new millisecond starts at sequence 0; otherwise count on, overflowing into the timestamp
+            next = fresh > current ? fresh : current + 1;
+        } while (!state.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * @param id An ID issued by this generator
+     * @return Epoch milliseconds encoded in the ID
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * @param id An ID issued by this generator
+     * @return Node ID encoded in the ID
+     */
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
@@ -0,0 +1,113 @@
+package com.pitchplease.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PricingEngineTest {
+
+    private static final Long FACILITY_ID = 7L;
+
+    /** A Monday */
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    /** A Saturday */
+    private static final LocalDateTime SATURDAY = LocalDateTime.of(2025, 6, 7, 0, 0);
+
+    @Mock
+    private FacilityRateCache facilityRateCache;
+
+    private PricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = engine(true);
+        when(facilityRateCache.getHourlyRate(FACILITY_ID)).thenReturn(new BigDecimal("40.00"));
+    }
+
+    @Test
+    void offPeakIsProratedByTheMinute() {
+        assertPrice("60.00", MONDAY.withHour(10), MONDAY.withHour(11).withMinute(30), null);
+    }
+
+    @Test
+    void onlyMinutesInsideThePeakWindowAreMultiplied() {
+        // 30 minutes at 40/h plus 30 minutes at 50/h
+        assertPrice("45.00", MONDAY.withHour(16).withMinute(30), MONDAY.withHour(17).withMinute(30), null);
+    }
+
+    @Test
+    void bookingEndingAtMidnightCountsPeakUntilTheWindowCloses() {
+        // 21:00-22:00 peak, 22:00-24:00 off-peak
+        assertPrice("130.00", MONDAY.withHour(21), MONDAY.plusDays(1), null);
+    }
+
+    @Test
+    void weekendMinutesArePeakWhenConfigured() {
+        assertPrice("50.00", SATURDAY.withHour(10), SATURDAY.withHour(11), null);
+    }
+
+    @Test
+    void weekendMinutesFollowTheWindowWhenWeekendPeakIsOff() {
+        pricingEngine = engine(false);
+        assertPrice("40.00", SATURDAY.withHour(10), SATURDAY.withHour(11), null);
+    }
+
+    @Test
+    void addonsAreChargedPerHourAndUnknownOnesIgnored() {
+        // 40 + lighting 5 + coaching 15
+        assertPrice("60.00", MONDAY.withHour(10), MONDAY.withHour(11), " Lighting, coaching,sauna,");
+    }
+
+    @Test
+    void addonsAreNotMultipliedAtPeak() {
+        // 50 at peak + equipment 3
+        assertPrice("53.00", MONDAY.withHour(18), MONDAY.withHour(19), "equipment");
+    }
+
+    @Test
+    void priceIsRoundedHalfUpToCents() {
+        when(facilityRateCache.getHourlyRate(FACILITY_ID)).thenReturn(new BigDecimal("0.03"));
+        // 0.03 * 10 / 60 = 0.005
+        assertPrice("0.01", MONDAY.withHour(10), MONDAY.withHour(10).withMinute(10), null);
+    }
+
+    @Test
+    void parseAddonsKeepsKnownNamesInOrder() {
+        assertEquals(List.of("coaching", "lighting"), pricingEngine.parseAddons("COACHING, sauna ,lighting"));
+        assertEquals(List.of(), pricingEngine.parseAddons(" "));
+        assertEquals(List.of(), pricingEngine.parseAddons(null));
+    }
+
+    @Test
+    void malformedAddonPricesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingEngine("17:00", "22:00", new BigDecimal("1.25"), true, "lighting"));
+    }
+
+    private PricingEngine engine(boolean weekendPeak) {
+        PricingEngine engine = new PricingEngine("17:00", "22:00", new BigDecimal("1.25"), weekendPeak,
+                "lighting=5.00,equipment=3.00,coaching=15.00");
+        ReflectionTestUtils.setField(engine, "facilityRateCache", facilityRateCache);
+        return engine;
+    }
+
+    private void assertPrice(String expected, LocalDateTime startTime, LocalDateTime endTime, String addons) {
+        assertEquals(new BigDecimal(expected), pricingEngine.price(FACILITY_ID, startTime, endTime, addons));
+    }
+}
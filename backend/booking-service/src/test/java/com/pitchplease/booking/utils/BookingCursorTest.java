@@ -0,0 +1,60 @@
+package com.pitchplease.booking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class BookingCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrips() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2025, 6, 2, 17, 30), 123456789012L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripKeepsSecondsAndFractions() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2025, 6, 2, 17, 30, 5, 120_000_000), 1L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void firstRoundTrips() {
+        assertEquals(BookingCursor.FIRST, BookingCursor.decode(BookingCursor.FIRST.encode()));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new BookingCursor(LocalDateTime.of(2025, 12, 31, 23, 59), Long.MAX_VALUE).encode();
+
+        assertFalse(token.matches(".*[+/=].*"), token);
+    }
+
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertSame(BookingCursor.FIRST, BookingCursor.decode(null));
+        assertSame(BookingCursor.FIRST, BookingCursor.decode(""));
+        assertSame(BookingCursor.FIRST, BookingCursor.decode("  "));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(token("2025-06-02T17:30")));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(token("yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(token("2025-06-02T17:30|x")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
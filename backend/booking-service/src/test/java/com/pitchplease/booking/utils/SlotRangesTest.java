@@ -0,0 +1,134 @@
+package com.pitchplease.booking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pitchplease.booking.model.dto.BookingDto;
+
+class SlotRangesTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Test
+    void backToBackSlotsMergeInAnyOrder() {
+        List<BookingDto> ranges = SlotRanges.merge(List.of(
+                slot(1L, 11, 0, 11, 30, "5.00"),
+                slot(1L, 10, 0, 10, 30, "5.00"),
+                slot(1L, 10, 30, 11, 0, "5.00")));
+
+        assertEquals(1, ranges.size());
+        assertRange(ranges.get(0), 10, 0, 11, 30);
+        assertEquals(new BigDecimal("15.00"), ranges.get(0).getTotalPrice());
+    }
+
+    @Test
+    void gapsAndFacilitiesSeparateRanges() {
+        List<BookingDto> ranges = SlotRanges.merge(List.of(
+                slot(2L, 10, 0, 10, 30, "5.00"),
+                slot(1L, 10, 0, 10, 30, "5.00"),
+                slot(1L, 11, 0, 11, 30, "5.00")));
+
+        assertEquals(3, ranges.size());
+        assertEquals(1L, ranges.get(0).getFacilityId());
+        assertRange(ranges.get(0), 10, 0, 10, 30);
+        assertRange(ranges.get(1), 11, 0, 11, 30);
+        assertEquals(2L, ranges.get(2).getFacilityId());
+    }
+
+    @Test
+    void slotsWithDifferentStatusOrGroupStayApart() {
+        BookingDto held = slot(1L, 10, 30, 11, 0, "5.00");
+        held.setStatus("HELD");
+        BookingDto otherGroup = slot(1L, 11, 0, 11, 30, "5.00");
+        otherGroup.setBookingGroupId(99L);
+
+        assertEquals(3, SlotRanges.merge(List.of(slot(1L, 10, 0, 10, 30, "5.00"), held, otherGroup)).size());
+    }
+
+    @Test
+    void overlappingSlotsAreNotMerged() {
+        List<BookingDto> ranges = SlotRanges.merge(List.of(
+                slot(1L, 10, 0, 11, 0, "10.00"),
+                slot(1L, 10, 30, 11, 30, "10.00")));
+
+        assertEquals(2, ranges.size());
+    }
+
+    @Test
+    void rangesAreSplitAtMidnight() {
+        BookingDto lastSlot = slot(1L, 23, 30, 0, 0, "5.00");
+        lastSlot.setEndTime(DAY.plusDays(1));
+        BookingDto nextDay = slot(1L, 0, 0, 0, 30, "5.00");
+        nextDay.setStartTime(DAY.plusDays(1));
+        nextDay.setEndTime(DAY.plusDays(1).plusMinutes(30));
+
+        List<BookingDto> ranges = SlotRanges.merge(List.of(lastSlot, nextDay));
+
+        assertEquals(2, ranges.size());
+        assertEquals(DAY.plusDays(1), ranges.get(0).getEndTime());
+        assertEquals(DAY.plusDays(1), ranges.get(1).getStartTime());
+    }
+
+    @Test
+    void mergeDoesNotModifyTheInput() {
+        BookingDto first = slot(1L, 10, 0, 10, 30, "5.00");
+        SlotRanges.merge(List.of(first, slot(1L, 10, 30, 11, 0, "5.00")));
+
+        assertRange(first, 10, 0, 10, 30);
+        assertEquals(new BigDecimal("5.00"), first.getTotalPrice());
+    }
+
+    @Test
+    void expandSplitsAtSlotBoundariesAndKeepsTheTotal() {
+        BookingDto range = slot(1L, 10, 0, 11, 30, "10.00");
+        range.setBookingId(5L);
+
+        List<BookingDto> slots = SlotRanges.expand(List.of(range), SlotGranularity.THIRTY_MINUTES);
+
+        assertEquals(3, slots.size());
+        assertRange(slots.get(0), 10, 0, 10, 30);
+        assertRange(slots.get(2), 11, 0, 11, 30);
+        assertEquals(new BigDecimal("3.33"), slots.get(0).getTotalPrice());
+        assertEquals(new BigDecimal("3.33"), slots.get(1).getTotalPrice());
+        assertEquals(new BigDecimal("3.34"), slots.get(2).getTotalPrice());
+        slots.forEach(slot -> assertEquals(5L, slot.getBookingId()));
+    }
+
+    @Test
+    void expandAlignsToTheGridFromMidnight() {
+        List<BookingDto> slots = SlotRanges.expand(List.of(slot(1L, 10, 15, 11, 0, null)),
+                SlotGranularity.THIRTY_MINUTES);
+
+        assertEquals(2, slots.size());
+        assertRange(slots.get(0), 10, 15, 10, 30);
+        assertRange(slots.get(1), 10, 30, 11, 0);
+    }
+
+    @Test
+    void expandThenMergeRestoresTheRange() {
+        BookingDto range = slot(1L, 9, 0, 12, 0, "30.00");
+
+        List<BookingDto> merged = SlotRanges.merge(SlotRanges.expand(List.of(range), SlotGranularity.FIFTEEN_MINUTES));
+
+        assertEquals(List.of(range), merged);
+    }
+
+    private static BookingDto slot(Long facilityId, int startHour, int startMinute, int endHour, int endMinute,
+            String price) {
+        return new BookingDto(null, 1L, facilityId, 3,
+                DAY.withHour(startHour).withMinute(startMinute),
+                DAY.withHour(endHour).withMinute(endMinute),
+                price != null ? new BigDecimal(price) : null,
+                "COMPLETED", null);
+    }
+
+    private static void assertRange(BookingDto range, int startHour, int startMinute, int endHour, int endMinute) {
+        assertEquals(DAY.withHour(startHour).withMinute(startMinute), range.getStartTime());
+        assertEquals(DAY.withHour(endHour).withMinute(endMinute), range.getEndTime());
+    }
+}
@@ -0,0 +1,100 @@
+package com.pitchplease.booking.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1000;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+
+    @Test
+    void idPacksTimestampNodeAndSequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, clock::get);
+
+        assertEquals((1000L << 12) | (5L << 7), generator.nextId());
+        assertEquals((1000L << 12) | (5L << 7) | 1, generator.nextId());
+    }
+
+    @Test
+    void fieldsDecodeBack() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, clock::get);
+
+        long id = generator.nextId();
+
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(SnowflakeIdGenerator.MAX_NODE_ID, SnowflakeIdGenerator.nodeIdOf(id));
+    }
+
+    @Test
+    void sequenceRestartsEachMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock::get);
+        generator.nextId();
+        generator.nextId();
+
+        clock.incrementAndGet();
+
+        assertEquals(1001L << 12, generator.nextId());
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, clock::get);
+        for (int i = 0; i < 128; i++) {
+            generator.nextId();
+        }
+
+        long id = generator.nextId();
+
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(3, SnowflakeIdGenerator.nodeIdOf(id));
+        assertEquals(0, id & 127);
+    }
+
+    @Test
+    void idsKeepIncreasingWhenTheClockMovesBack() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        long previous = generator.nextId();
+
+        clock.addAndGet(-500);
+
+        for (int i = 0; i < 300; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(1, SnowflakeIdGenerator.nodeIdOf(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        long first = new SnowflakeIdGenerator(1, clock::get).nextId();
+        long second = new SnowflakeIdGenerator(2, clock::get).nextId();
+
+        assertTrue(first != second);
+    }
+
+    @Test
+    void idsFitInAJavaScriptNumberForTheWholeRange() {
+        long lastMillis = SnowflakeIdGenerator.EPOCH_MILLIS + (1L << 41) - 1;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, () -> lastMillis);
+
+        long id = generator.nextId();
+
+        assertTrue(id < (1L << 53));
+        assertEquals(lastMillis, SnowflakeIdGenerator.timestampOf(id));
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
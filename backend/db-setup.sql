@@ -32,20 +32,96 @@ CREATE TABLE facilities (
     owner_id INT REFERENCES users(user_id)
 );
 
--- Bookings table
+-- Needed to combine facility_id equality with range overlap in one exclusion constraint
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Bookings table, range-partitioned by start_time month. A row never crosses midnight,
+-- so bookings that could overlap always fall in the same monthly partition.
 CREATE TABLE bookings (
-    booking_id SERIAL PRIMARY KEY,
+    booking_id SERIAL,
     booking_group_id BIGINT NOT NULL, -- Groups related time slots together
     facility_id INT NOT NULL REFERENCES facilities(facility_id) ON DELETE CASCADE,
     user_id INT NOT NULL REFERENCES users(user_id),
     start_time TIMESTAMP NOT NULL,
     end_time TIMESTAMP NOT NULL,
     total_price DECIMAL(10, 2) NOT NULL,
-    status VARCHAR(1000) NOT NULL DEFAULT 'CONFIRMED', -- confirmed, cancelled
+    status VARCHAR(1000) NOT NULL DEFAULT 'CONFIRMED', -- confirmed, cancelled, HELD
+    hold_expires_at TIMESTAMP, -- Set while status is HELD; the hold is released after this time
     
-    -- Enforce that start time is before end time
-    CONSTRAINT valid_booking_times CHECK (start_time < end_time)
-);
+    -- The partition key has to be part of the primary key
+    PRIMARY KEY (booking_id, start_time),
+
+    -- Enforce that start time is before end time and that a booking stays within one day
+    CONSTRAINT valid_booking_times CHECK (start_time < end_time),
+    CONSTRAINT booking_within_day CHECK (end_time <= date_trunc('day', start_time) + INTERVAL '1 day')
+) PARTITION BY RANGE (start_time);
+
+-- Catches bookings for months that have no partition yet; ensure_bookings_partition moves them out
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Exclusion constraints cannot span a partitioned table, so every partition gets its own.
+-- No two active bookings of a facility may overlap; ranges are half-open so back-to-back slots are fine
+ALTER TABLE bookings_default ADD CONSTRAINT bookings_default_no_overlap EXCLUDE USING gist (
+    facility_id WITH =,
+    tsrange(start_time, end_time) WITH &&
+) WHERE (status <> 'cancelled');
+
+-- Create the partition for the month containing month_start, moving any of its rows out of the default partition
+CREATE OR REPLACE FUNCTION ensure_bookings_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    from_ts TIMESTAMP := date_trunc('month', month_start);
+    to_ts TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT := 'bookings_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    -- Keep new rows for this month out of the default partition while they are moved
+    LOCK TABLE bookings_default IN SHARE ROW EXCLUSIVE MODE;
+
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ('
+        || 'facility_id WITH =, tsrange(start_time, end_time) WITH &&) WHERE (status <> %L)',
+        partition_name, partition_name || '_no_overlap', 'cancelled');
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE start_time >= %L AND start_time < %L RETURNING *) '
+        || 'INSERT INTO %I SELECT * FROM moved', from_ts, to_ts, partition_name);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, from_ts, to_ts);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detach the monthly partitions that end before before_month and move them to the archive schema
+CREATE SCHEMA IF NOT EXISTS bookings_archive;
+
+CREATE OR REPLACE FUNCTION archive_bookings_partitions(before_month DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'bookings'
+          AND child.relname ~ '^bookings_[0-9]{4}_[0-9]{2}$'
+          AND to_date(substring(child.relname FROM 10), 'YYYY_MM') < date_trunc('month', before_month)
+        ORDER BY child.relname
+    LOOP
+        EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', partition_name);
+        EXECUTE format('ALTER TABLE %I SET SCHEMA bookings_archive', partition_name);
+        RETURN NEXT partition_name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for the past year and the year ahead; booking-service keeps creating them from there
+SELECT ensure_bookings_partition((date_trunc('month', CURRENT_DATE) + make_interval(months => m))::DATE)
+FROM generate_series(-12, 12) AS m;
+
+-- booking-service reserves booking IDs 50 at a time so slot inserts can be batched
+ALTER SEQUENCE bookings_booking_id_seq INCREMENT BY 50;
 
 -- Reviews table
 CREATE TABLE reviews (
@@ -61,10 +137,85 @@ CREATE TABLE reviews (
     CONSTRAINT unique_user_facility_review UNIQUE (user_id, facility_id)
 );
 
+-- AI summaries of each facility's reviews, regenerated by facility-discovery-service when reviews change.
+-- review_count and last_review_id identify the reviews a summary was generated from.
+CREATE TABLE review_summaries (
+    facility_id INT PRIMARY KEY REFERENCES facilities(facility_id) ON DELETE CASCADE,
+    summary TEXT NOT NULL,
+    review_count INT NOT NULL,
+    last_review_id BIGINT NOT NULL,
+    generated_at TIMESTAMP NOT NULL,
+    -- Extracted locally while the LLM was unavailable, replaced once it answers again
+    fallback BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+-- Rating totals of each reviewed facility, updated in the same transaction as its reviews
+CREATE TABLE review_aggregates (
+    facility_id INT PRIMARY KEY REFERENCES facilities(facility_id) ON DELETE CASCADE,
+    review_count INT NOT NULL,
+    rating_sum BIGINT NOT NULL,
+    stars_1 INT NOT NULL,
+    stars_2 INT NOT NULL,
+    stars_3 INT NOT NULL,
+    stars_4 INT NOT NULL,
+    stars_5 INT NOT NULL,
+    bayesian_score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Partial summaries of facilities with too many reviews for one prompt, keyed by a hash of their prompt
+CREATE TABLE review_summary_chunks (
+    facility_id INT NOT NULL REFERENCES facilities(facility_id) ON DELETE CASCADE,
+    prompt_hash VARCHAR(64) NOT NULL,
+    summary TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (facility_id, prompt_hash)
+);
+
+-- Snowflake node IDs leased by running booking-service replicas; an expired lease may be taken over
+CREATE TABLE booking_node_leases (
+    node_id INT PRIMARY KEY,
+    owner VARCHAR(100) NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+-- Responses to requests sent with an Idempotency-Key header, shared by booking-service and payment-service.
+-- A row without status_code is a request still in progress.
+CREATE TABLE idempotency_keys (
+    scope VARCHAR(50) NOT NULL, -- e.g. booking:create, payment:create
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INT,
+    content_type VARCHAR(100),
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+-- Booked minutes per facility, day and hour, maintained by booking-service for occupancy heatmaps
+CREATE TABLE facility_occupancy (
+    facility_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    hour_of_day INT NOT NULL CHECK (hour_of_day BETWEEN 0 AND 23),
+    booked_minutes INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (facility_id, date, hour_of_day)
+);
+
+-- Booked slots per facility and day, projected from booking-service events for availability search
+CREATE TABLE facility_availability (
+    facility_id INT NOT NULL REFERENCES facilities(facility_id) ON DELETE CASCADE,
+    date DATE NOT NULL,
+    slot_minutes INT NOT NULL,
+    booked_mask VARCHAR(32) NOT NULL, -- Hex bitmask, slot 0 from midnight in the lowest bit
+    snapshot_at BIGINT NOT NULL, -- When booking-service read the bookings (epoch ms); older events are ignored
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (facility_id, date)
+);
+
 -- Payments table
 CREATE TABLE payments (
     payment_id SERIAL PRIMARY KEY,
-    booking_group_id INT NOT NULL,
+    booking_group_id BIGINT NOT NULL,
     user_id INT NOT NULL REFERENCES users(user_id),
 
     user_name VARCHAR(50) NOT NULL,
@@ -81,8 +232,10 @@ CREATE TABLE payments (
 );
 
 -- Create basic indexes
-CREATE INDEX idx_bookings_facility_id ON bookings(facility_id);
+CREATE INDEX idx_bookings_facility_start ON bookings(facility_id, start_time);
 CREATE INDEX idx_bookings_user_id ON bookings(user_id);
+CREATE INDEX idx_bookings_user_start ON bookings(user_id, start_time, booking_id);
+CREATE INDEX idx_bookings_start ON bookings(start_time, booking_id);
 CREATE INDEX idx_bookings_booking_group_id ON bookings(booking_group_id);
 CREATE INDEX idx_reviews_facility_id ON reviews(facility_id);
 CREATE INDEX idx_reviews_user_id ON reviews(user_id);
@@ -0,0 +1,42 @@
+package com.pitchplease.facility.discovery.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The one HTTP client every LLM call goes through: a bounded connection pool with
+ * strict connect, acquire and response timeouts, so a slow provider can hold neither
+ * sockets nor threads indefinitely.
+ */
+@Configuration
+public class LLMClientConfig {
+
+    @Bean(name = "llmWebClient")
+    public WebClient llmWebClient(
+            @Value("${pitchplease.facility.llm.max-connections:20}") int maxConnections,
+            @Value("${pitchplease.facility.llm.connect-timeout-millis:2000}") int connectTimeoutMillis,
+            @Value("${pitchplease.facility.llm.response-timeout-seconds:20}") long responseTimeoutSeconds,
+            @Value("${pitchplease.facility.llm.max-idle-seconds:30}") long maxIdleSeconds) {
+        ConnectionProvider pool = ConnectionProvider.builder("llm")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 2)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
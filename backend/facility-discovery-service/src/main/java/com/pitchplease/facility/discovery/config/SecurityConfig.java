@@ -15,7 +15,7 @@ public class SecurityConfig {
         return http
             .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchanges -> exchanges
-            .pathMatchers("/all", "/search", "/create","/user_facilities","/delete","/update", "/details/**", "/reviews/**", "/reviews/create/**", "/reviews/delete/**").permitAll()
+            .pathMatchers("/all", "/search", "/create","/user_facilities","/delete","/update", "/details/**", "/reviews/**", "/reviews/create/**", "/reviews/delete/**", "/availability/events", "/llm/metrics").permitAll()
             .anyExchange().authenticated()
             )
             .build();
@@ -2,10 +2,16 @@ package com.pitchplease.facility.discovery.controller;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,13 +20,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriUtils;
 
+import com.pitchplease.facility.discovery.model.dto.AvailabilityEventDto;
 import com.pitchplease.facility.discovery.model.dto.FacilityDto;
+import com.pitchplease.facility.discovery.service.FacilityAvailabilityService;
 import com.pitchplease.facility.discovery.service.FacilityService;
+import com.pitchplease.facility.discovery.service.ResourceVersionService;
+import com.pitchplease.facility.discovery.service.ReviewAggregateService;
 
 @RestController
 // @RequestMapping("/facilities_discovery")
@@ -29,18 +40,39 @@ public class FacilityController {
     @Autowired
     private FacilityService facilityService;
 
+    @Autowired
+    private FacilityAvailabilityService facilityAvailabilityService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ReviewAggregateService reviewAggregateService;
+
     /**
      * Get all facilities
      * This is the endpoint that will be called from the API Gateway
      * 
-     * @return List of all facilities
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return List of all facilities, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/all")
-    public ResponseEntity<List<FacilityDto>> getAllFacilities() {
+    public ResponseEntity<List<FacilityDto>> getAllFacilities(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         System.out.println("l36 facility controller.java ");
+        String etag = resourceVersionService.currentTag(ResourceVersionService.ALL_FACILITIES);
+        if (ResourceVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
         List<FacilityDto> facilities = facilityService.getAllFacilities();
         System.out.println("l38 facilities = " + facilities);
-        return new ResponseEntity<>(facilities, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(facilities);
     }
 
     /**
@@ -50,6 +82,10 @@ public class FacilityController {
      * @param facilityType The type of facility to search for (optional)
      * @param minPrice     Minimum price for filtering (optional)
      * @param maxPrice     Maximum price for filtering (optional)
+     * @param date         Only return facilities free on this day (optional, needs startTime and endTime)
+     * @param startTime    Start of the free window (optional)
+     * @param endTime      End of the free window (optional)
+     * @param sort         "rating" to order by Bayesian rating, best first (optional)
      * @return List of facilities matching the search criteria
      */
     @GetMapping("/search")
@@ -57,7 +93,11 @@ public class FacilityController {
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String facilityType,
             @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice) {
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime,
+            @RequestParam(required = false) String sort) {
         // String decodedCity = UriDecoder.decode(city, StandardCharsets.UTF_8);
         // String decodedFacilityType = UriUtils.decode(facilityType,
         // StandardCharsets.UTF_8);
@@ -72,15 +112,49 @@ public class FacilityController {
         System.out.println("Searching facilities with criteria - city: " + decodedCity
                 + ", facilityType: " + decodedFacilityType + ", minPrice: " + minPrice + ", maxPrice: " + maxPrice);
 
+        boolean windowGiven = date != null || startTime != null || endTime != null;
+        if (windowGiven && (date == null || startTime == null || endTime == null)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (sort != null && !sort.equals(ReviewAggregateService.SORT_BY_RATING)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
         // Pass the decoded values to the service layer
-        List<FacilityDto> results = facilityService.searchFacilities(
-                decodedCity, decodedFacilityType, minPrice, maxPrice);
+        List<FacilityDto> results;
+        try {
+            results = windowGiven
+                    ? facilityService.searchAvailableFacilities(decodedCity, decodedFacilityType, minPrice, maxPrice,
+                            date, startTime, endTime)
+                    : facilityService.searchFacilities(decodedCity, decodedFacilityType, minPrice, maxPrice);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (sort != null) {
+            results = reviewAggregateService.sortByRating(results);
+        }
 
         System.out.println("Found " + results.size() + " matching facilities");
 
         return new ResponseEntity<>(results, HttpStatus.OK);
     }
 
+    /**
+     * Receive booked-slot masks from booking-service for the availability projection
+     *
+     * @param events Facility-day masks changed by recent bookings
+     * @return Number of facility-days updated
+     */
+    @PostMapping("/availability/events")
+    public ResponseEntity<Map<String, Object>> receiveAvailabilityEvents(@RequestBody List<AvailabilityEventDto> events) {
+        try {
+            int applied = facilityAvailabilityService.applyEvents(events);
+            return new ResponseEntity<>(Map.of("received", events.size(), "applied", applied), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Get facility by ID
      * 
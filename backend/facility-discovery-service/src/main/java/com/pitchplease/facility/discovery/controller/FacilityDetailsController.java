@@ -6,6 +6,8 @@ import java.util.Optional;
 import java.util.HashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import com.pitchplease.facility.discovery.model.dto.FacilityDetailsDto;
 import com.pitchplease.facility.discovery.model.dto.ReviewDto;
 import com.pitchplease.facility.discovery.service.FacilityDetailsService;
+import com.pitchplease.facility.discovery.service.ResourceVersionService;
 
 /**
  * Controller to handle detailed facility information and reviews.
@@ -23,19 +26,35 @@ public class FacilityDetailsController {
     @Autowired
     private FacilityDetailsService facilityDetailsService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     /**
      * Get details for a specific facility
      * 
      * @param id The ID of the facility to fetch details for
-     * @return Facility details
+     * @param ifNoneMatch ETag of a copy the client already has (optional)
+     * @return Facility details, or 304 Not Modified if the client's copy is current
      */
     @GetMapping("/details")
-    public ResponseEntity<?> getFacilityDetails(@RequestParam Long id) {
+    public ResponseEntity<?> getFacilityDetails(
+            @RequestParam Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         System.out.println("l34 in microservice api controller");
+        String etag = resourceVersionService.currentTag(ResourceVersionService.facility(id));
+        if (ResourceVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
         Optional<FacilityDetailsDto> facilityDetails = facilityDetailsService.getFacilityDetails(id);
         System.out.print("l36 in microservice api controller");
         if (facilityDetails.isPresent()) {
-            return new ResponseEntity<>(facilityDetails.get(), HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(facilityDetails.get());
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
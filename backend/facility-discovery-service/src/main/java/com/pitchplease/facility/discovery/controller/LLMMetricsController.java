@@ -0,0 +1,39 @@
+package com.pitchplease.facility.discovery.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.pitchplease.facility.discovery.service.ExtractiveSummariser;
+import com.pitchplease.facility.discovery.service.LLMClient;
+
+/**
+ * Operational view of the LLM client
+ */
+@RestController
+public class LLMMetricsController {
+
+    @Autowired
+    private LLMClient llmClient;
+
+    @Autowired
+    private ExtractiveSummariser extractiveSummariser;
+
+    /**
+     * Get call counts, circuit breaker state and latency percentiles of LLM calls, next to
+     * those of the local extractive summariser for comparison
+     *
+     * @return Metrics of this replica since startup
+     */
+    @GetMapping("/llm/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(llmClient.metrics());
+        metrics.put("extractive", extractiveSummariser.metrics());
+        return new ResponseEntity<>(metrics, HttpStatus.OK);
+    }
+}
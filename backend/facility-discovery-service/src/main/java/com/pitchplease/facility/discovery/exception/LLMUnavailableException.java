@@ -0,0 +1,16 @@
+package com.pitchplease.facility.discovery.exception;
+
+/**
+ * Thrown when the LLM cannot answer: the circuit breaker is open, too many calls are
+ * already waiting, or the call itself failed or timed out.
+ */
+public class LLMUnavailableException extends RuntimeException {
+
+    public LLMUnavailableException(String message) {
+        super(message);
+    }
+
+    public LLMUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
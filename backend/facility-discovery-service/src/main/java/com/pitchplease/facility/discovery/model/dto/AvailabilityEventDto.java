@@ -0,0 +1,21 @@
+package com.pitchplease.facility.discovery.model.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Booked slots of one facility on one day, as published by booking-service
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityEventDto {
+    private Long facilityId;
+    private LocalDate date;
+    private Integer slotMinutes;
+    private String bookedMask;
+    private Long snapshotAt;
+}
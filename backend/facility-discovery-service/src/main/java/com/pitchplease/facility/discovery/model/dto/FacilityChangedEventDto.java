@@ -0,0 +1,19 @@
+package com.pitchplease.facility.discovery.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A facility was updated or deleted; sent to booking-service so it drops the cached rate
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityChangedEventDto {
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+
+    private Long facilityId;
+    private String type;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -23,6 +24,9 @@ public class FacilityDetailsDto {
     // Additional details
     private Double averageRating;
     private Integer reviewCount;
+    private Double bayesianRating;
+    // Review counts by rating, from one star to five
+    private List<Integer> ratingHistogram;
     private String features;
     private String rules;
     private String availability;
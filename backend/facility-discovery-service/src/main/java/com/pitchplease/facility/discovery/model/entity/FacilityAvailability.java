@@ -0,0 +1,55 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of the booked slots of one facility on one day, kept up to date
+ * from the availability events booking-service sends after each commit.
+ *
+ * Days without a row have no active bookings.
+ */
+@Entity
+@Table(name = "facility_availability")
+@IdClass(FacilityAvailabilityId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityAvailability {
+
+    @Id
+    @Column(name = "facility_id")
+    private Long facilityId;
+
+    @Id
+    @Column(name = "date")
+    private LocalDate date;
+
+    @Column(name = "slot_minutes", nullable = false)
+    private Integer slotMinutes;
+
+    /**
+     * Booked slots as a hexadecimal bitmask, slot 0 (from midnight) in the least significant bit
+     */
+    @Column(name = "booked_mask", nullable = false, length = 32)
+    private String bookedMask;
+
+    /**
+     * When booking-service read the bookings behind this mask, in epoch milliseconds.
+     * Events carrying an older snapshot are ignored.
+     */
+    @Column(name = "snapshot_at", nullable = false)
+    private Long snapshotAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
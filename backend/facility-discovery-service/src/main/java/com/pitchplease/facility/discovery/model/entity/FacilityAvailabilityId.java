@@ -0,0 +1,19 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Primary key of {@link FacilityAvailability}: one row per facility per day
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityAvailabilityId implements Serializable {
+    private Long facilityId;
+    private LocalDate date;
+}
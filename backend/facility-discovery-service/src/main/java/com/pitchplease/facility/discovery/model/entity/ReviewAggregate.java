@@ -0,0 +1,73 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running rating totals of a facility's reviews, kept up to date in the same
+ * transaction as every review created or deleted, so reads never aggregate reviews.
+ *
+ * {@code bayesianScore} is the average rating shrunk towards a prior mean as if the
+ * facility also had {@code prior-weight} reviews of that rating, so a single five-star
+ * review does not outrank many good ones when facilities are sorted by rating.
+ */
+@Entity
+@Table(name = "review_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewAggregate {
+
+    @Id
+    @Column(name = "facility_id")
+    private Long facilityId;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "stars_1", nullable = false)
+    private Integer stars1;
+
+    @Column(name = "stars_2", nullable = false)
+    private Integer stars2;
+
+    @Column(name = "stars_3", nullable = false)
+    private Integer stars3;
+
+    @Column(name = "stars_4", nullable = false)
+    private Integer stars4;
+
+    @Column(name = "stars_5", nullable = false)
+    private Integer stars5;
+
+    @Column(name = "bayesian_score", nullable = false)
+    private Double bayesianScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * @return The average rating, or null if there are no reviews
+     */
+    public Double getAverageRating() {
+        return reviewCount == 0 ? null : (double) ratingSum / reviewCount;
+    }
+
+    /**
+     * @return Review counts by rating, from one star to five
+     */
+    public List<Integer> getHistogram() {
+        return List.of(stars1, stars2, stars3, stars4, stars5);
+    }
+}
@@ -0,0 +1,54 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AI-generated summary of a facility's reviews.
+ *
+ * The summary was generated from the reviews identified by {@code reviewCount} and
+ * {@code lastReviewId}: a new review raises the last ID and a deleted one lowers the
+ * count, so a summary whose stamp differs from the current reviews is stale. A fallback
+ * summary was extracted locally while the LLM was unavailable and is replaced once it
+ * answers again.
+ */
+@Entity
+@Table(name = "review_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummary {
+
+    @Id
+    @Column(name = "facility_id")
+    private Long facilityId;
+
+    @Column(name = "summary", nullable = false, columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount;
+
+    @Column(name = "last_review_id", nullable = false)
+    private Long lastReviewId;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @Column(name = "fallback", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean fallback;
+
+    /**
+     * Whether this summary was generated from exactly these reviews
+     */
+    public boolean isCurrent(int reviewCount, long lastReviewId) {
+        return this.reviewCount == reviewCount && this.lastReviewId == lastReviewId;
+    }
+}
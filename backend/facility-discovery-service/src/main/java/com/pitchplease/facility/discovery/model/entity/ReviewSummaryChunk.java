@@ -0,0 +1,40 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial summary produced while summarising a facility's reviews: the LLM's answer
+ * to one map (chunk of reviews) or reduce (group of partial summaries) prompt, keyed
+ * by the SHA-256 of that prompt so an unchanged chunk is never summarised twice.
+ */
+@Entity
+@Table(name = "review_summary_chunks")
+@IdClass(ReviewSummaryChunkId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummaryChunk {
+
+    @Id
+    @Column(name = "facility_id")
+    private Long facilityId;
+
+    @Id
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;
+
+    @Column(name = "summary", nullable = false, columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.pitchplease.facility.discovery.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Primary key of {@link ReviewSummaryChunk}: one row per facility per distinct prompt
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummaryChunkId implements Serializable {
+    private Long facilityId;
+    private String promptHash;
+}
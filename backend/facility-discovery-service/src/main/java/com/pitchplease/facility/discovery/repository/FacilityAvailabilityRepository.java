@@ -0,0 +1,51 @@
+package com.pitchplease.facility.discovery.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.pitchplease.facility.discovery.model.entity.FacilityAvailability;
+import com.pitchplease.facility.discovery.model.entity.FacilityAvailabilityId;
+
+@Repository
+public interface FacilityAvailabilityRepository extends JpaRepository<FacilityAvailability, FacilityAvailabilityId> {
+
+    /**
+     * Find the projected availability of several facilities on one day
+     *
+     * @param facilityIds Facility IDs
+     * @param date        The day
+     * @return Rows for the facilities that have bookings that day
+     */
+    List<FacilityAvailability> findByFacilityIdInAndDate(Collection<Long> facilityIds, LocalDate date);
+
+    /**
+     * Insert or replace the mask of a facility-day unless a newer snapshot is already stored
+     *
+     * @return 1 if the row was written, 0 if the stored snapshot is newer
+     */
+    @Modifying
+    @Query(value = "INSERT INTO facility_availability (facility_id, date, slot_minutes, booked_mask, snapshot_at, updated_at) "
+            + "VALUES (:facilityId, :date, :slotMinutes, :bookedMask, :snapshotAt, now()) "
+            + "ON CONFLICT (facility_id, date) DO UPDATE SET "
+            + "slot_minutes = EXCLUDED.slot_minutes, booked_mask = EXCLUDED.booked_mask, "
+            + "snapshot_at = EXCLUDED.snapshot_at, updated_at = EXCLUDED.updated_at "
+            + "WHERE facility_availability.snapshot_at < EXCLUDED.snapshot_at", nativeQuery = true)
+    int upsertIfNewer(Long facilityId, LocalDate date, Integer slotMinutes, String bookedMask, Long snapshotAt);
+
+    /**
+     * Drop projected days that are already over
+     */
+    @Modifying
+    @Query("DELETE FROM FacilityAvailability a WHERE a.date < :date")
+    int deleteByDateBefore(LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM FacilityAvailability a WHERE a.facilityId = :facilityId")
+    int deleteByFacilityId(Long facilityId);
+}
@@ -0,0 +1,79 @@
+package com.pitchplease.facility.discovery.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.pitchplease.facility.discovery.model.entity.ReviewAggregate;
+
+@Repository
+public interface ReviewAggregateRepository extends JpaRepository<ReviewAggregate, Long> {
+
+    /**
+     * Create the aggregate row of a facility from its reviews, unless it exists.
+     * Concurrent callers are safe: the row is inserted once and later inserts do nothing.
+     *
+     * @param facilityId  The facility ID
+     * @param priorMean   Prior mean rating of the Bayesian score
+     * @param priorWeight Number of prior-mean reviews the Bayesian score assumes
+     * @return 1 if the row was created, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO review_aggregates (facility_id, review_count, rating_sum, " +
+           "stars_1, stars_2, stars_3, stars_4, stars_5, bayesian_score, updated_at) " +
+           "SELECT :facilityId, COUNT(*), COALESCE(SUM(r.rating), 0), " +
+           "COUNT(*) FILTER (WHERE r.rating = 1), COUNT(*) FILTER (WHERE r.rating = 2), " +
+           "COUNT(*) FILTER (WHERE r.rating = 3), COUNT(*) FILTER (WHERE r.rating = 4), " +
+           "COUNT(*) FILTER (WHERE r.rating = 5), " +
+           "(:priorMean * :priorWeight + COALESCE(SUM(r.rating), 0)) / (:priorWeight + COUNT(*)), NOW() " +
+           "FROM reviews r WHERE r.facility_id = :facilityId " +
+           "ON CONFLICT (facility_id) DO NOTHING",
+           nativeQuery = true)
+    int insertFromReviews(Long facilityId, double priorMean, double priorWeight);
+
+    /**
+     * Create the missing aggregate rows of every reviewed facility from its reviews
+     *
+     * @return Number of rows created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO review_aggregates (facility_id, review_count, rating_sum, " +
+           "stars_1, stars_2, stars_3, stars_4, stars_5, bayesian_score, updated_at) " +
+           "SELECT r.facility_id, COUNT(*), SUM(r.rating), " +
+           "COUNT(*) FILTER (WHERE r.rating = 1), COUNT(*) FILTER (WHERE r.rating = 2), " +
+           "COUNT(*) FILTER (WHERE r.rating = 3), COUNT(*) FILTER (WHERE r.rating = 4), " +
+           "COUNT(*) FILTER (WHERE r.rating = 5), " +
+           "(:priorMean * :priorWeight + SUM(r.rating)) / (:priorWeight + COUNT(*)), NOW() " +
+           "FROM reviews r GROUP BY r.facility_id " +
+           "ON CONFLICT (facility_id) DO NOTHING",
+           nativeQuery = true)
+    int insertMissing(double priorMean, double priorWeight);
+
+    /**
+     * Add (delta 1) or remove (delta -1) one review in a facility's aggregate row.
+     * The update is relative and takes the row lock, so concurrent changes all count.
+     *
+     * @param facilityId  The facility ID
+     * @param rating      Rating of the review, from 1 to 5
+     * @param delta       1 for a new review, -1 for a deleted one
+     * @param priorMean   Prior mean rating of the Bayesian score
+     * @param priorWeight Number of prior-mean reviews the Bayesian score assumes
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE review_aggregates SET " +
+           "review_count = review_count + :delta, " +
+           "rating_sum = rating_sum + :delta * :rating, " +
+           "stars_1 = stars_1 + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+           "stars_2 = stars_2 + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+           "stars_3 = stars_3 + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+           "stars_4 = stars_4 + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+           "stars_5 = stars_5 + CASE WHEN :rating = 5 THEN :delta ELSE 0 END, " +
+           "bayesian_score = (:priorMean * :priorWeight + rating_sum + :delta * :rating) " +
+           "/ (:priorWeight + review_count + :delta), " +
+           "updated_at = NOW() " +
+           "WHERE facility_id = :facilityId",
+           nativeQuery = true)
+    int applyReview(Long facilityId, int rating, int delta, double priorMean, double priorWeight);
+}
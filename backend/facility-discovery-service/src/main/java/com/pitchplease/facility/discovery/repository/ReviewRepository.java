@@ -1,7 +1,6 @@
 package com.pitchplease.facility.discovery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.pitchplease.facility.discovery.model.entity.Review;
@@ -38,23 +37,6 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     boolean existsByFacilityIdAndUserId(Long facilityId, Integer userId);
     
-    /**
-     * Calculate the average rating for a facility
-     * 
-     * @param facilityId The facility ID
-     * @return The average rating, or null if no ratings
-     */
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.facilityId = :facilityId")
-    Double getAverageRatingForFacility(Long facilityId);
-    
-    /**
-     * Count the number of reviews for a facility
-     * 
-     * @param facilityId The facility ID
-     * @return The number of reviews
-     */
-    long countByFacilityId(Long facilityId);
-    
     /**
      * Delete a review by ID and user ID (for security)
      * 
@@ -0,0 +1,42 @@
+package com.pitchplease.facility.discovery.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pitchplease.facility.discovery.model.entity.ReviewSummaryChunk;
+import com.pitchplease.facility.discovery.model.entity.ReviewSummaryChunkId;
+
+@Repository
+public interface ReviewSummaryChunkRepository extends JpaRepository<ReviewSummaryChunk, ReviewSummaryChunkId> {
+
+    /**
+     * Find every cached partial summary of a facility
+     *
+     * @param facilityId The facility ID
+     * @return Partial summaries from earlier runs
+     */
+    List<ReviewSummaryChunk> findByFacilityId(Long facilityId);
+
+    /**
+     * Drop partial summaries the latest run no longer used
+     *
+     * @param facilityId The facility ID
+     * @param promptHashes Hashes of the prompts the latest run used
+     * @return Number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReviewSummaryChunk c WHERE c.facilityId = :facilityId AND c.promptHash NOT IN :promptHashes")
+    int deleteUnused(Long facilityId, Collection<String> promptHashes);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReviewSummaryChunk c WHERE c.facilityId = :facilityId")
+    int deleteByFacilityId(Long facilityId);
+}
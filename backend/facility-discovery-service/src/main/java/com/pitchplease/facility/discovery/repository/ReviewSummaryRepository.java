@@ -0,0 +1,10 @@
+package com.pitchplease.facility.discovery.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.pitchplease.facility.discovery.model.entity.ReviewSummary;
+
+@Repository
+public interface ReviewSummaryRepository extends JpaRepository<ReviewSummary, Long> {
+}
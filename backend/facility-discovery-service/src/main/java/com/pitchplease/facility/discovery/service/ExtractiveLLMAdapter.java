@@ -0,0 +1,39 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process {@link LLMService} backed by the {@link ExtractiveSummariser}, selected with
+ * {@code pitchplease.facility.llm.provider=extractive}.
+ *
+ * The first line of the prompt is taken as the instruction and ignored; every further
+ * line is summarised as one review. Answers take milliseconds and never fail for
+ * network reasons, at the cost of quoting reviewers rather than rephrasing them.
+ */
+@Service
+@ConditionalOnProperty(name = "pitchplease.facility.llm.provider", havingValue = "extractive")
+public class ExtractiveLLMAdapter implements LLMService {
+
+    @Autowired
+    private ExtractiveSummariser extractiveSummariser;
+
+    @Override
+    public String generateContent(String prompt) {
+        List<String> lines = Arrays.asList(prompt.split("\n"));
+        String summary = extractiveSummariser.summarise(lines.subList(Math.min(1, lines.size()), lines.size()));
+        if (summary.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to summarise");
+        }
+        return summary;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+}
@@ -0,0 +1,411 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Summarises reviews in-process, without a model, in a few milliseconds.
+ *
+ * Sentences are weighted by TF-IDF, with each review as a document, and ranked with
+ * TextRank over their cosine similarities; the best-ranked sentences that do not repeat
+ * one another are returned in review order. Mentions of common facility aspects
+ * (parking, lighting, ...) are counted per review and labelled with the average rating
+ * of the reviews mentioning them, and the most distinctive recurring words are added as
+ * keywords.
+ *
+ * Review lines may start with a "[rating/5]" prefix, as written by {@link ReviewSummariser};
+ * lines without one still count for sentences, aspects and keywords.
+ */
+@Service
+public class ExtractiveSummariser {
+
+    private static final Pattern RATING_PREFIX = Pattern.compile("^\\[(\\d)/5\\]\\s*");
+
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+|\\n+");
+
+    private static final Pattern WORD = Pattern.compile("[a-z][a-z']+");
+
+    private static final double DAMPING = 0.85;
+
+    private static final int MAX_ITERATIONS = 50;
+
+    private static final double CONVERGENCE = 1e-4;
+
+    /**
+     * Sentences at least this similar to one already chosen are skipped as repeats
+     */
+    private static final double REDUNDANCY = 0.5;
+
+    private static final int MIN_SENTENCE_WORDS = 3;
+
+    private static final int MAX_SENTENCE_CHARS = 300;
+
+    private static final int LATENCY_WINDOW = 1024;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "after", "all", "also", "am", "an", "and", "any", "are", "as", "at", "be", "been",
+            "but", "by", "can", "could", "did", "do", "does", "for", "from", "get", "got", "had", "has",
+            "have", "he", "her", "here", "his", "how", "i", "i'm", "if", "in", "into", "is", "it", "it's",
+            "its", "just", "me", "more", "most", "my", "no", "not", "of", "on", "one", "only", "or", "our",
+            "out", "really", "she", "so", "some", "than", "that", "the", "their", "them", "then", "there",
+            "they", "this", "to", "too", "us", "very", "was", "we", "were", "what", "when", "which", "while",
+            "who", "will", "with", "would", "you", "your", "place", "facility", "good", "great", "nice");
+
+    /**
+     * Aspects reviewers commonly comment on, with the words that mention them
+     */
+    private static final Map<String, Set<String>> ASPECTS = new LinkedHashMap<>();
+
+    static {
+        ASPECTS.put("parking", Set.of("parking", "park", "car", "cars"));
+        ASPECTS.put("lighting", Set.of("light", "lights", "lighting", "floodlight", "floodlights", "lit"));
+        ASPECTS.put("staff", Set.of("staff", "owner", "manager", "management", "service", "helpful", "rude"));
+        ASPECTS.put("cleanliness", Set.of("clean", "dirty", "washroom", "washrooms", "toilet", "toilets",
+                "hygiene", "hygienic"));
+        ASPECTS.put("price", Set.of("price", "prices", "pricing", "cost", "expensive", "cheap", "affordable",
+                "value", "overpriced"));
+        ASPECTS.put("playing surface", Set.of("turf", "pitch", "court", "courts", "grass", "surface", "ground",
+                "floor"));
+        ASPECTS.put("changing rooms", Set.of("changing", "locker", "lockers", "shower", "showers"));
+        ASPECTS.put("equipment", Set.of("equipment", "ball", "balls", "net", "nets", "racket", "rackets", "bats"));
+        ASPECTS.put("location", Set.of("location", "located", "reach", "distance", "far", "nearby"));
+        ASPECTS.put("booking", Set.of("booking", "book", "booked", "slot", "slots", "reservation"));
+    }
+
+    private final int summarySentences;
+
+    private final int maxSentences;
+
+    private final int maxAspects;
+
+    private final int maxKeywords;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long latencyCount;
+
+    public ExtractiveSummariser(
+            @Value("${pitchplease.facility.llm.extractive.summary-sentences:3}") int summarySentences,
+            @Value("${pitchplease.facility.llm.extractive.max-sentences:500}") int maxSentences,
+            @Value("${pitchplease.facility.llm.extractive.aspects:4}") int maxAspects,
+            @Value("${pitchplease.facility.llm.extractive.keywords:5}") int maxKeywords) {
+        this.summarySentences = summarySentences;
+        this.maxSentences = maxSentences;
+        this.maxAspects = maxAspects;
+        this.maxKeywords = maxKeywords;
+    }
+
+    /**
+     * Summarise review texts
+     *
+     * @param lines One review per line, oldest first, optionally prefixed with "[rating/5] "
+     * @return The summary, or an empty string if there is nothing to summarise
+     */
+    public String summarise(List<String> lines) {
+        long started = System.nanoTime();
+        List<Document> documents = new ArrayList<>();
+        for (String line : lines) {
+            if (line == null || line.isBlank()) {
+                continue;
+            }
+            Integer rating = null;
+            String text = line.strip();
+            Matcher prefix = RATING_PREFIX.matcher(text);
+            if (prefix.find()) {
+                rating = Integer.parseInt(prefix.group(1));
+                text = text.substring(prefix.end());
+            }
+            documents.add(new Document(text, rating, words(text)));
+        }
+        if (documents.isEmpty()) {
+            return "";
+        }
+
+        Map<String, Double> idf = inverseDocumentFrequencies(documents);
+        List<String> parts = new ArrayList<>();
+        String sentences = topSentences(documents, idf);
+        if (!sentences.isEmpty()) {
+            parts.add(sentences);
+        }
+        String aspects = aspects(documents);
+        if (!aspects.isEmpty()) {
+            parts.add("Mentioned most: " + aspects + ".");
+        }
+        String keywords = keywords(documents, idf);
+        if (!keywords.isEmpty()) {
+            parts.add("Keywords: " + keywords + ".");
+        }
+        recordLatency(started);
+        return String.join("\n", parts);
+    }
+
+    private Map<String, Double> inverseDocumentFrequencies(List<Document> documents) {
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (Document document : documents) {
+            for (String word : new HashSet<>(document.words)) {
+                documentFrequency.merge(word, 1, Integer::sum);
+            }
+        }
+        Map<String, Double> idf = new HashMap<>();
+        documentFrequency.forEach((word, count) ->
+                idf.put(word, Math.log(1.0 + (double) documents.size() / count)));
+        return idf;
+    }
+
+    /**
+     * The best TextRank sentences, without repeats, in review order
+     */
+    private String topSentences(List<Document> documents, Map<String, Double> idf) {
+        List<Sentence> sentences = new ArrayList<>();
+        for (Document document : documents) {
+            for (String text : SENTENCE_END.split(document.text)) {
+                String trimmed = text.strip();
+                List<String> words = words(trimmed);
+                if (words.size() >= MIN_SENTENCE_WORDS && trimmed.length() <= MAX_SENTENCE_CHARS) {
+                    sentences.add(new Sentence(sentences.size(), trimmed, vector(words, idf)));
+                }
+            }
+        }
+        // Keep the graph small: the most recent sentences are the most relevant
+        if (sentences.size() > maxSentences) {
+            sentences = new ArrayList<>(sentences.subList(sentences.size() - maxSentences, sentences.size()));
+        }
+        if (sentences.isEmpty()) {
+            return "";
+        }
+
+        double[] scores = textRank(sentences);
+        List<Integer> ranked = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            ranked.add(i);
+        }
+        ranked.sort(Comparator.comparingDouble((Integer i) -> scores[i]).reversed());
+
+        List<Sentence> chosen = new ArrayList<>();
+        for (int index : ranked) {
+            if (chosen.size() == summarySentences) {
+                break;
+            }
+            Sentence candidate = sentences.get(index);
+            boolean repeat = false;
+            for (Sentence sentence : chosen) {
+                if (cosine(candidate.vector, sentence.vector) >= REDUNDANCY) {
+                    repeat = true;
+                    break;
+                }
+            }
+            if (!repeat) {
+                chosen.add(candidate);
+            }
+        }
+        chosen.sort(Comparator.comparingInt(Sentence::position));
+
+        StringBuilder summary = new StringBuilder();
+        for (Sentence sentence : chosen) {
+            if (summary.length() > 0) {
+                summary.append(' ');
+            }
+            summary.append(sentence.text);
+            if (".!?".indexOf(sentence.text.charAt(sentence.text.length() - 1)) < 0) {
+                summary.append('.');
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * PageRank over the sentence similarity graph, with edges weighted by cosine similarity
+     */
+    private static double[] textRank(List<Sentence> sentences) {
+        int n = sentences.size();
+        double[][] similarity = new double[n][n];
+        double[] outWeight = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double weight = cosine(sentences.get(i).vector, sentences.get(j).vector);
+                similarity[i][j] = weight;
+                similarity[j][i] = weight;
+                outWeight[i] += weight;
+                outWeight[j] += weight;
+            }
+        }
+
+        double[] scores = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double[] next = new double[n];
+            double delta = 0;
+            for (int i = 0; i < n; i++) {
+                double rank = 0;
+                for (int j = 0; j < n; j++) {
+                    if (similarity[j][i] > 0) {
+                        rank += similarity[j][i] / outWeight[j] * scores[j];
+                    }
+                }
+                next[i] = (1 - DAMPING) / n + DAMPING * rank;
+                delta += Math.abs(next[i] - scores[i]);
+            }
+            scores = next;
+            if (delta < CONVERGENCE) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Aspects mentioned in at least two reviews (one if there are few), most mentioned first
+     */
+    private String aspects(List<Document> documents) {
+        int minMentions = documents.size() < 5 ? 1 : 2;
+        List<AspectCount> counts = new ArrayList<>();
+        ASPECTS.forEach((aspect, terms) -> {
+            int mentions = 0;
+            int rated = 0;
+            int ratingSum = 0;
+            for (Document document : documents) {
+                if (document.words.stream().anyMatch(terms::contains)) {
+                    mentions++;
+                    if (document.rating != null) {
+                        rated++;
+                        ratingSum += document.rating;
+                    }
+                }
+            }
+            if (mentions >= minMentions) {
+                counts.add(new AspectCount(aspect, mentions, rated == 0 ? null : (double) ratingSum / rated));
+            }
+        });
+        counts.sort(Comparator.comparingInt(AspectCount::mentions).reversed());
+
+        List<String> labels = new ArrayList<>();
+        for (AspectCount count : counts.subList(0, Math.min(maxAspects, counts.size()))) {
+            String label = count.aspect + " (" + count.mentions + (count.mentions == 1 ? " review" : " reviews");
+            if (count.averageRating != null) {
+                label += count.averageRating >= 4 ? ", mostly positive"
+                        : count.averageRating < 2.5 ? ", mostly negative" : ", mixed";
+            }
+            labels.add(label + ")");
+        }
+        return String.join(", ", labels);
+    }
+
+    /**
+     * Words that recur across reviews and are not aspect words, by total TF-IDF weight
+     */
+    private String keywords(List<Document> documents, Map<String, Double> idf) {
+        Set<String> aspectWords = new HashSet<>();
+        ASPECTS.values().forEach(aspectWords::addAll);
+        int minDocuments = documents.size() < 3 ? 1 : 2;
+
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        Map<String, Double> weight = new HashMap<>();
+        for (Document document : documents) {
+            for (String word : new HashSet<>(document.words)) {
+                documentFrequency.merge(word, 1, Integer::sum);
+            }
+            for (String word : document.words) {
+                weight.merge(word, idf.get(word), Double::sum);
+            }
+        }
+        return weight.entrySet().stream()
+                .filter(entry -> !aspectWords.contains(entry.getKey()))
+                .filter(entry -> documentFrequency.get(entry.getKey()) >= minDocuments)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxKeywords)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String word = matcher.group();
+            if (!STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Unit-length TF-IDF vector of a sentence
+     */
+    private static Map<String, Double> vector(List<String> words, Map<String, Double> idf) {
+        Map<String, Double> vector = new HashMap<>();
+        for (String word : words) {
+            vector.merge(word, idf.getOrDefault(word, 0.0), Double::sum);
+        }
+        double norm = Math.sqrt(vector.values().stream().mapToDouble(value -> value * value).sum());
+        if (norm > 0) {
+            vector.replaceAll((word, value) -> value / norm);
+        }
+        return vector;
+    }
+
+    private static double cosine(Map<String, Double> a, Map<String, Double> b) {
+        if (a.size() > b.size()) {
+            return cosine(b, a);
+        }
+        double dot = 0;
+        for (Map.Entry<String, Double> entry : a.entrySet()) {
+            Double other = b.get(entry.getKey());
+            if (other != null) {
+                dot += entry.getValue() * other;
+            }
+        }
+        return dot;
+    }
+
+    private void recordLatency(long startedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos);
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_WINDOW)] = micros;
+        }
+    }
+
+    /**
+     * Run count and latency percentiles over the most recent runs, in microseconds
+     */
+    public Map<String, Object> metrics() {
+        long[] window;
+        long runs;
+        synchronized (latencies) {
+            window = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_WINDOW));
+            runs = latencyCount;
+        }
+        Arrays.sort(window);
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("runs", runs);
+        metrics.put("p50Micros", LLMClient.percentile(window, 0.50));
+        metrics.put("p95Micros", LLMClient.percentile(window, 0.95));
+        metrics.put("p99Micros", LLMClient.percentile(window, 0.99));
+        metrics.put("maxMicros", window.length == 0 ? 0 : window[window.length - 1]);
+        return metrics;
+    }
+
+    private record Document(String text, Integer rating, List<String> words) {
+    }
+
+    private record Sentence(int position, String text, Map<String, Double> vector) {
+    }
+
+    private record AspectCount(String aspect, int mentions, Double averageRating) {
+    }
+}
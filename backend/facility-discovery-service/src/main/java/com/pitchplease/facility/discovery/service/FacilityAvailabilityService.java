@@ -0,0 +1,115 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pitchplease.facility.discovery.model.dto.AvailabilityEventDto;
+import com.pitchplease.facility.discovery.model.entity.Facility;
+import com.pitchplease.facility.discovery.model.entity.FacilityAvailability;
+import com.pitchplease.facility.discovery.repository.FacilityAvailabilityRepository;
+
+/**
+ * Maintains the availability projection and answers "is this facility free" for searches.
+ *
+ * booking-service sends the full booked-slot mask of every facility-day it changes, so
+ * applying an event is a plain replace. Masks carry the time their bookings were read;
+ * a late event never overwrites a newer mask, whatever order events arrive in.
+ */
+@Service
+public class FacilityAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacilityAvailabilityService.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private FacilityAvailabilityRepository availabilityRepository;
+
+    /**
+     * Store the masks from a batch of availability events
+     *
+     * @param events Events from booking-service
+     * @return Number of facility-days updated
+     */
+    @Transactional
+    public int applyEvents(List<AvailabilityEventDto> events) {
+        int applied = 0;
+        for (AvailabilityEventDto event : events) {
+            if (event.getFacilityId() == null || event.getDate() == null || event.getSlotMinutes() == null
+                    || event.getBookedMask() == null || event.getSnapshotAt() == null) {
+                throw new IllegalArgumentException("Availability event is missing fields: " + event);
+            }
+            // Rejects malformed masks before they reach the table
+            new BigInteger(event.getBookedMask(), 16);
+            applied += availabilityRepository.upsertIfNewer(event.getFacilityId(), event.getDate(),
+                    event.getSlotMinutes(), event.getBookedMask(), event.getSnapshotAt());
+        }
+        int pruned = availabilityRepository.deleteByDateBefore(LocalDate.now());
+        logger.debug("Applied {} of {} availability events, pruned {} past days", applied, events.size(), pruned);
+        return applied;
+    }
+
+    /**
+     * Keep only the facilities with no booked slot between {@code startTime} and {@code endTime} on {@code date}
+     *
+     * @param facilities Candidate facilities
+     * @param date       The day
+     * @param startTime  Start of the window
+     * @param endTime    End of the window; midnight means the end of the day
+     * @return The free facilities, in their original order
+     */
+    @Transactional(readOnly = true)
+    public List<Facility> filterFree(List<Facility> facilities, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute = endTime.equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : endTime.getHour() * 60 + endTime.getMinute();
+        if (startMinute >= endMinute) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        if (facilities.isEmpty()) {
+            return facilities;
+        }
+
+        List<Long> facilityIds = facilities.stream().map(Facility::getFacilityId).collect(Collectors.toList());
+        Map<Long, FacilityAvailability> booked = availabilityRepository.findByFacilityIdInAndDate(facilityIds, date)
+                .stream()
+                .collect(Collectors.toMap(FacilityAvailability::getFacilityId, Function.identity()));
+
+        return facilities.stream()
+                .filter(facility -> {
+                    FacilityAvailability day = booked.get(facility.getFacilityId());
+                    return day == null || isFree(day, startMinute, endMinute);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remove the projection of a deleted facility
+     */
+    @Transactional
+    public void deleteFacility(Long facilityId) {
+        availabilityRepository.deleteByFacilityId(facilityId);
+    }
+
+    /**
+     * @return true if no slot touched by [startMinute, endMinute) is booked
+     */
+    private static boolean isFree(FacilityAvailability day, int startMinute, int endMinute) {
+        int slotMinutes = day.getSlotMinutes();
+        int fromSlot = startMinute / slotMinutes;
+        int toSlot = (endMinute + slotMinutes - 1) / slotMinutes;
+
+        BigInteger window = BigInteger.ONE.shiftLeft(toSlot - fromSlot).subtract(BigInteger.ONE).shiftLeft(fromSlot);
+        return new BigInteger(day.getBookedMask(), 16).and(window).signum() == 0;
+    }
+}
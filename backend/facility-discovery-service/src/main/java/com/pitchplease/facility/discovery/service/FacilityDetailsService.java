@@ -21,11 +21,10 @@ import com.pitchplease.facility.discovery.model.dto.FacilityDetailsDto;
 import com.pitchplease.facility.discovery.model.dto.FacilityDto;
 import com.pitchplease.facility.discovery.model.dto.ReviewDto;
 import com.pitchplease.facility.discovery.model.entity.Review;
+import com.pitchplease.facility.discovery.model.entity.ReviewAggregate;
+import com.pitchplease.facility.discovery.model.entity.ReviewSummary;
 import com.pitchplease.facility.discovery.repository.ReviewRepository;
 
-import com.pitchplease.facility.discovery.service.LLMService;
-import com.pitchplease.facility.discovery.service.GeminiAdapter;
-
 
 @Service
 public class FacilityDetailsService {
@@ -39,6 +38,15 @@ public class FacilityDetailsService {
     @Autowired
     private FacilityService facilityService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ReviewSummaryService reviewSummaryService;
+
+    @Autowired
+    private ReviewAggregateService reviewAggregateService;
+
     /**
      * Get detailed information for a facility including ratings
      * 
@@ -69,12 +77,17 @@ public class FacilityDetailsService {
         detailsDto.setHourlyRate(facility.getHourlyRate());
         detailsDto.setOwnerId(facility.getOwnerId());
 
-        // Get rating information
-        Double avgRating = reviewRepository.getAverageRatingForFacility(facilityId);
-        long reviewCount = reviewRepository.countByFacilityId(facilityId);
-
-        detailsDto.setAverageRating(avgRating);
-        detailsDto.setReviewCount((int) reviewCount);
+        // Get rating information from the precomputed aggregate
+        Optional<ReviewAggregate> aggregate = reviewAggregateService.getAggregate(facilityId);
+        if (aggregate.isPresent()) {
+            detailsDto.setAverageRating(aggregate.get().getAverageRating());
+            detailsDto.setReviewCount(aggregate.get().getReviewCount());
+            detailsDto.setBayesianRating(aggregate.get().getBayesianScore());
+            detailsDto.setRatingHistogram(aggregate.get().getHistogram());
+        } else {
+            detailsDto.setReviewCount(0);
+            detailsDto.setRatingHistogram(List.of(0, 0, 0, 0, 0));
+        }
 
         // Set additional details (in a real implementation these might come from
         // another table)
@@ -98,7 +111,8 @@ public class FacilityDetailsService {
     }
 
     /**
-     * Get all reviews for a facility
+     * Get all reviews for a facility, followed by the AI summary of them ("Summary unavailable"
+     * until one exists). The summary comes from a cache and is never generated while the caller waits.
      * 
      * @param facilityId The facility ID
      * @return List of reviews
@@ -106,42 +120,26 @@ public class FacilityDetailsService {
     @Transactional(readOnly = true)
     public List<ReviewDto> getFacilityReviews(Long facilityId) {
         List<Review> reviews = reviewRepository.findByFacilityIdOrderByCreatedAtDesc(facilityId);
-        // I want to create a summary of all the reviews and the average rating for the
-        // facility
         List<ReviewDto> reviewDtos = reviews.stream()
                 .map(reviewMapper::toDto)
                 .collect(Collectors.toList());
 
-        Integer totalRating = 0;
-        for (ReviewDto review : reviewDtos) {
-            totalRating += review.getRating();
-        }
-        // Create a string having all the reviews
-        String reviewsString = "Summarise the following reviews given for a sports facility, output the review only:";
-        for (ReviewDto review : reviewDtos) {
-            reviewsString += review.getComment() + " \n";
-        }
-        // Call the AI summarizer to get a summary of the reviews
-        GeminiAdapter aiSummarizerAdapter = new GeminiAdapter();
-        String summary;
-
-        reviewsString += " \n\n" + "Summarise the following reviews given for a sports facility, output the review only:";
-        summary = aiSummarizerAdapter.generateContent(reviewsString);
-        
-        ReviewDto summaryReview = new ReviewDto();
-        summaryReview.setComment(summary);
-        summaryReview.setRating(totalRating / reviewDtos.size());
-        reviewDtos.add(summaryReview);
-        double averageRating = 0.0;
-        summaryReview.setUserName("PitchPlease AI Summary");
-        
-        summaryReview.setCreatedAt(LocalDateTime.now());
+        // A missing or outdated summary is regenerated in the background
+        Optional<ReviewSummary> summary = reviewSummaryService.getSummary(facilityId, reviews);
         if (!reviews.isEmpty()) {
-            averageRating = totalRating / reviews.size();
+            // Rounded average from the aggregate; the list only covers rows missing theirs
+            double averageRating = reviewAggregateService.getAggregate(facilityId)
+                    .map(ReviewAggregate::getAverageRating)
+                    .orElseGet(() -> reviews.stream().mapToInt(Review::getRating).average().orElse(0));
+
+            ReviewDto summaryReview = new ReviewDto();
+            summaryReview.setFacilityId(facilityId);
+            summaryReview.setComment(summary.map(ReviewSummary::getSummary).orElse(ReviewSummaryService.UNAVAILABLE));
+            summaryReview.setRating((int) Math.round(averageRating));
+            summaryReview.setUserName(ReviewSummaryService.SUMMARY_AUTHOR);
+            summaryReview.setCreatedAt(summary.map(ReviewSummary::getGeneratedAt).orElse(LocalDateTime.now()));
+            reviewDtos.add(summaryReview);
         }
-        System.out.println("Average rating: " + averageRating);
-        // Add the average rating to the summary review
-        System.out.println("Summary review: " + summaryReview);
         return reviewDtos;
     }
 
@@ -163,8 +161,13 @@ public class FacilityDetailsService {
         // Convert to entity
         Review review = reviewMapper.toEntity(reviewDto);
 
-        // Save the review
+        // Save the review, counting it in the facility's rating aggregate
+        reviewAggregateService.prepare(review.getFacilityId());
         Review savedReview = reviewRepository.save(review);
+        reviewAggregateService.reviewCreated(savedReview.getFacilityId(), savedReview.getRating());
+        // Details carry the average rating and review count
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.facility(savedReview.getFacilityId()));
+        reviewSummaryService.requestRefreshAfterCommit(savedReview.getFacilityId());
 
         // Map back to DTO, preserving the username
         ReviewDto resultDto = reviewMapper.toDto(savedReview);
@@ -183,7 +186,15 @@ public class FacilityDetailsService {
      */
     @Transactional
     public boolean deleteReview(Long reviewId, Integer userId) {
+        Optional<Review> review = reviewRepository.findById(reviewId);
+        review.ifPresent(existing -> reviewAggregateService.prepare(existing.getFacilityId()));
         long deletedCount = reviewRepository.deleteByReviewIdAndUserId(reviewId, userId);
+        if (deletedCount > 0 && review.isPresent()) {
+            Long facilityId = review.get().getFacilityId();
+            reviewAggregateService.reviewDeleted(facilityId, review.get().getRating());
+            resourceVersionService.bumpAfterCommit(ResourceVersionService.facility(facilityId));
+            reviewSummaryService.requestRefreshAfterCommit(facilityId);
+        }
         return deletedCount > 0;
     }
 }
\ No newline at end of file
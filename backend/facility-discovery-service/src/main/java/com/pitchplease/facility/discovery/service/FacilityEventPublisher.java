@@ -0,0 +1,77 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.pitchplease.facility.discovery.model.dto.FacilityChangedEventDto;
+
+import reactor.util.retry.Retry;
+
+/**
+ * Tells booking-service that a facility changed, so its cached hourly rate is dropped.
+ *
+ * Events are sent after the change commits and never fail the update itself. A lost
+ * event only delays the new rate until booking-service's cache entry expires.
+ */
+@Component
+public class FacilityEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacilityEventPublisher.class);
+
+    private final boolean enabled;
+
+    private final WebClient webClient;
+
+    public FacilityEventPublisher(
+            @Value("${pitchplease.facility.events.enabled:true}") boolean enabled,
+            @Value("${pitchplease.facility.events.booking-service-url:http://booking-service:8092}") String bookingServiceUrl) {
+        this.enabled = enabled;
+        this.webClient = WebClient.builder().baseUrl(bookingServiceUrl).build();
+    }
+
+    /**
+     * Publish a change once the current transaction commits (immediately if there is none)
+     *
+     * @param facilityId Changed facility
+     * @param type       {@link FacilityChangedEventDto#UPDATED} or {@link FacilityChangedEventDto#DELETED}
+     */
+    public void publishAfterCommit(Long facilityId, String type) {
+        if (!enabled) {
+            return;
+        }
+        FacilityChangedEventDto event = new FacilityChangedEventDto(facilityId, type);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(FacilityChangedEventDto event) {
+        webClient.post()
+                .uri("/pricing/facility-events")
+                .bodyValue(List.of(event))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(5))
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(500)))
+                .subscribe(
+                        response -> logger.debug("Published {} event for facility ID: {}",
+                                event.getType(), event.getFacilityId()),
+                        e -> logger.warn("Failed to publish {} event for facility ID: {}: {}",
+                                event.getType(), event.getFacilityId(), e.getMessage()));
+    }
+}
@@ -1,5 +1,7 @@
 package com.pitchplease.facility.discovery.service;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -7,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.pitchplease.facility.discovery.mapper.FacilityMapper;
+import com.pitchplease.facility.discovery.model.dto.FacilityChangedEventDto;
 import com.pitchplease.facility.discovery.model.dto.FacilityDto;
 import com.pitchplease.facility.discovery.model.entity.Facility;
 import com.pitchplease.facility.discovery.repository.FacilityRepository;
@@ -25,6 +28,15 @@ public class FacilityService {
     
     @Autowired
     private FacilityMapper facilityMapper;
+
+    @Autowired
+    private FacilityAvailabilityService facilityAvailabilityService;
+
+    @Autowired
+    private FacilityEventPublisher facilityEventPublisher;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -64,6 +76,7 @@ public class FacilityService {
         Facility entity = facilityMapper.toEntity(facilityDto);
         entity.setFacilityId(null); // Ensure we're creating a new entity
         Facility savedEntity = facilityRepository.save(entity);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.ALL_FACILITIES);
         return facilityMapper.toDto(savedEntity);
     }
     /**
@@ -116,6 +129,10 @@ public class FacilityService {
                 .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
                 
         facilityRepository.delete(facility);
+        facilityAvailabilityService.deleteFacility(id);
+        facilityEventPublisher.publishAfterCommit(id, FacilityChangedEventDto.DELETED);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.ALL_FACILITIES,
+                ResourceVersionService.facility(id));
     }
     @Transactional
     public List<FacilityDto> searchFacilities(String city, String facilityType, Double minPrice, Double maxPrice) {
@@ -130,6 +147,29 @@ public class FacilityService {
                 .map(facilityMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Search facilities by criteria, keeping only those free for a whole time window
+     *
+     * @param city         The city to search in (optional)
+     * @param facilityType The facility type (optional)
+     * @param minPrice     Minimum hourly rate (optional)
+     * @param maxPrice     Maximum hourly rate (optional)
+     * @param date         Day of the window
+     * @param startTime    Start of the window
+     * @param endTime      End of the window
+     * @return Matching facilities with no booking in the window
+     * @throws IllegalArgumentException if the window is empty
+     */
+    @Transactional(readOnly = true)
+    public List<FacilityDto> searchAvailableFacilities(String city, String facilityType, Double minPrice,
+            Double maxPrice, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        List<Facility> facilities = facilityRepository.findByCriteria(city, facilityType, minPrice, maxPrice);
+
+        return facilityAvailabilityService.filterFree(facilities, date, startTime, endTime).stream()
+                .map(facilityMapper::toDto)
+                .collect(Collectors.toList());
+    }
     @Transactional
     public void updateFacility( FacilityDto facilityDto) {
 
@@ -147,6 +187,9 @@ public class FacilityService {
         if (updated == 0) {
             throw new RuntimeException("Facility not found with id: " + facilityDto.getFacilityId());
         }
+        facilityEventPublisher.publishAfterCommit(facilityDto.getFacilityId(), FacilityChangedEventDto.UPDATED);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.ALL_FACILITIES,
+                ResourceVersionService.facility(facilityDto.getFacilityId()));
         System.out.println("Updated " + updated + " facility(s).");
         return;
     }
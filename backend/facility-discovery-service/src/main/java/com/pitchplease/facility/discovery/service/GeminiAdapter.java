@@ -1,51 +1,47 @@
 package com.pitchplease.facility.discovery.service;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+/**
+ * {@link LLMService} backed by the Gemini API, called through the shared pooled
+ * {@code llmWebClient}. Used unless {@code pitchplease.facility.llm.provider} selects
+ * another provider; callers go through {@link LLMClient}, which adds the concurrency
+ * limit and circuit breaker.
+ */
 @Service
+@ConditionalOnProperty(name = "pitchplease.facility.llm.provider", havingValue = "gemini", matchIfMissing = true)
 public class GeminiAdapter implements LLMService {
     
-    private RestTemplate restTemplate;
-    private ObjectMapper objectMapper;
-    private String apiKey;
-    private String apiEndpoint;
-    
-    /**
-     * Default constructor with default values
-     * Note: This is not recommended for production use as it hardcodes API keys
-     */
-    public GeminiAdapter() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
-        // You should ideally read these from configuration, but for quick fix:
-        this.apiKey = ""; // Replace with actual key
-        this.apiEndpoint = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
-    }
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final String apiEndpoint;
+    private final Duration timeout;
     
-    /**
-     * Preferred constructor with dependency injection
-     */
     public GeminiAdapter(
-            RestTemplate restTemplate,
+            @Qualifier("llmWebClient") WebClient webClient,
             ObjectMapper objectMapper,
-            @Value("${gemini.api.key}") String apiKey,
-            @Value("${gemini.api.endpoint:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent}") String apiEndpoint
+            @Value("${gemini.api.key:}") String apiKey,
+            @Value("${gemini.api.endpoint:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent}") String apiEndpoint,
+            @Value("${pitchplease.facility.llm.response-timeout-seconds:20}") long timeoutSeconds
     ) {
-        this.restTemplate = restTemplate;
+        this.webClient = webClient;
         this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.apiEndpoint = apiEndpoint;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
     }
     
     /**
@@ -57,9 +53,6 @@ public class GeminiAdapter implements LLMService {
     @Override
     public String generateContent(String prompt) {
         try {
-            // Prepare URL with API key
-            String url = apiEndpoint + "?key=" + apiKey;
-            
             // Prepare request body according to Gemini API format
             ObjectNode rootNode = objectMapper.createObjectNode();
             ArrayNode contentsArray = rootNode.putArray("contents");
@@ -68,22 +61,22 @@ public class GeminiAdapter implements LLMService {
             ObjectNode textPart = partsArray.addObject();
             textPart.put("text", prompt);
             
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            // Create HTTP entity
-            HttpEntity<String> request = new HttpEntity<>(rootNode.toString(), headers);
-            
-            // Make API call
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            // The key goes in a header so it never shows up in logged URLs
+            String response = webClient.post()
+                    .uri(apiEndpoint)
+                    .header("x-goog-api-key", apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(rootNode.toString())
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(timeout);
             
             // Parse response
-            JsonNode responseJson = objectMapper.readTree(response.getBody());
+            JsonNode responseJson = objectMapper.readTree(response);
             return extractTextFromResponse(responseJson);
             
         } catch (Exception e) {
-            throw new RuntimeException("Failed to generate content from Gemini API", e);
+            throw new RuntimeException("Failed to generate content from Gemini API: " + e.getMessage(), e);
         }
     }
     
@@ -106,7 +99,8 @@ public class GeminiAdapter implements LLMService {
                     }
                 }
             }
-            return "No text content found in response";
+            // Not an answer worth storing as a summary
+            throw new IllegalStateException("No text content found in response");
         } catch (Exception e) {
             throw new RuntimeException("Failed to extract text from Gemini API response", e);
         }
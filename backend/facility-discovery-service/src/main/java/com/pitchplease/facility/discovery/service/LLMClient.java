@@ -0,0 +1,261 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.facility.discovery.exception.LLMUnavailableException;
+
+/**
+ * The way into the configured {@link LLMService}.
+ *
+ * At most {@code max-concurrency} calls run at once and at most {@code max-queue} more
+ * wait for a slot, each for no longer than the queue timeout; anything beyond that is
+ * rejected at once. A circuit breaker opens after {@code failure-threshold} failures in
+ * a row and fails calls fast for {@code open-seconds}, then lets one trial call through
+ * to decide whether to close again. Every rejection or failure surfaces as an
+ * {@link LLMUnavailableException}, so callers fall back instead of waiting on a slow
+ * provider. Counts and recent latencies are reported by {@link #metrics()}.
+ */
+@Service
+public class LLMClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMClient.class);
+
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final LLMService provider;
+
+    private final Semaphore slots;
+
+    private final int maxConcurrency;
+
+    private final int maxQueue;
+
+    private final long queueTimeoutMillis;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final CircuitBreaker breaker;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+
+    /**
+     * Latencies of the most recent calls in milliseconds, as a ring buffer
+     */
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long latencyCount;
+
+    public LLMClient(
+            LLMService provider,
+            @Value("${pitchplease.facility.llm.max-concurrency:4}") int maxConcurrency,
+            @Value("${pitchplease.facility.llm.max-queue:50}") int maxQueue,
+            @Value("${pitchplease.facility.llm.queue-timeout-seconds:10}") long queueTimeoutSeconds,
+            @Value("${pitchplease.facility.llm.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${pitchplease.facility.llm.breaker.open-seconds:30}") long openSeconds) {
+        this.provider = provider;
+        this.maxConcurrency = maxConcurrency;
+        this.slots = new Semaphore(maxConcurrency, true);
+        this.maxQueue = maxQueue;
+        this.queueTimeoutMillis = queueTimeoutSeconds * 1000L;
+        this.breaker = new CircuitBreaker(failureThreshold, openSeconds * 1000L);
+    }
+
+    /**
+     * Generate content, within the concurrency limit and behind the circuit breaker
+     *
+     * @param prompt The prompt
+     * @return The provider's answer
+     * @throws LLMUnavailableException if the call was rejected, short-circuited, failed or timed out
+     */
+    public String generateContent(String prompt) {
+        requests.increment();
+        if (breaker.isOpen()) {
+            shortCircuited.increment();
+            throw new LLMUnavailableException("LLM circuit breaker is open");
+        }
+
+        acquireSlot();
+        try {
+            if (!breaker.allowRequest()) {
+                shortCircuited.increment();
+                throw new LLMUnavailableException("LLM circuit breaker is open");
+            }
+            long started = System.nanoTime();
+            try {
+                String content = provider.generateContent(prompt);
+                recordLatency(started);
+                successes.increment();
+                breaker.onSuccess();
+                return content;
+            } catch (RuntimeException e) {
+                recordLatency(started);
+                failures.increment();
+                if (breaker.onFailure()) {
+                    logger.warn("LLM circuit breaker opened after repeated failures; last: {}", e.getMessage());
+                }
+                throw new LLMUnavailableException("LLM call failed: " + e.getMessage(), e);
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Whether the configured provider runs in-process
+     */
+    public boolean isLocal() {
+        return provider.isLocal();
+    }
+
+    private void acquireSlot() {
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new LLMUnavailableException("Too many LLM calls waiting");
+        }
+        try {
+            if (!slots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new LLMUnavailableException("Timed out waiting for an LLM slot");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new LLMUnavailableException("Interrupted while waiting for an LLM slot", e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void recordLatency(long startedNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_WINDOW)] = millis;
+        }
+    }
+
+    /**
+     * Call counts, breaker state and latency percentiles over the most recent calls
+     */
+    public Map<String, Object> metrics() {
+        long[] window;
+        synchronized (latencies) {
+            window = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_WINDOW));
+        }
+        Arrays.sort(window);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("samples", window.length);
+        latency.put("p50Millis", percentile(window, 0.50));
+        latency.put("p95Millis", percentile(window, 0.95));
+        latency.put("p99Millis", percentile(window, 0.99));
+        latency.put("maxMillis", window.length == 0 ? 0 : window[window.length - 1]);
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("provider", provider.getClass().getSimpleName());
+        metrics.put("circuit", breaker.state().name());
+        metrics.put("requests", requests.sum());
+        metrics.put("successes", successes.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("shortCircuited", shortCircuited.sum());
+        metrics.put("inFlight", maxConcurrency - slots.availablePermits());
+        metrics.put("queued", queued.get());
+        metrics.put("latency", latency);
+        return metrics;
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Consecutive-failure circuit breaker with a single trial call when half open
+     */
+    static final class CircuitBreaker {
+
+        private final int failureThreshold;
+
+        private final long openMillis;
+
+        private State state = State.CLOSED;
+
+        private int consecutiveFailures;
+
+        private long openUntil;
+
+        CircuitBreaker(int failureThreshold, long openMillis) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openMillis;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        /**
+         * Whether calls should fail fast without waiting for a slot
+         */
+        synchronized boolean isOpen() {
+            return state == State.OPEN && System.currentTimeMillis() < openUntil;
+        }
+
+        /**
+         * Admit a call; once the open period is over, admits exactly one trial call
+         */
+        synchronized boolean allowRequest() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() < openUntil) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    return true;
+                default:
+                    // A trial call is already running
+                    return false;
+            }
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            state = State.CLOSED;
+        }
+
+        /**
+         * @return true if this failure opened the circuit
+         */
+        synchronized boolean onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openUntil = System.currentTimeMillis() + openMillis;
+                return true;
+            }
+            return false;
+        }
+    }
+}
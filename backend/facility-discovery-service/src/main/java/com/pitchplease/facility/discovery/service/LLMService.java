@@ -12,4 +12,13 @@ public interface LLMService {
      * @return The generated content from the LLM
      */
     String generateContent(String prompt);
+
+    /**
+     * Whether this provider runs in-process, so prompts need not be kept small
+     *
+     * @return true if calls do not leave the process
+     */
+    default boolean isLocal() {
+        return false;
+    }
 }
\ No newline at end of file
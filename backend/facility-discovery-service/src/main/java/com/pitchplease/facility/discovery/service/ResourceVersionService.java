@@ -0,0 +1,131 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version counters behind the strong ETags of the catalog reads.
+ *
+ * Versions come from one increasing counter, so an evicted and re-created entry never
+ * repeats an old tag, and tags start with a per-process epoch so tags from another
+ * replica or from before a restart never match. Facility and review changes bump the
+ * affected resources after they commit. Versions also expire after a while, which
+ * bounds how long a change made through another replica can go unnoticed.
+ */
+@Service
+public class ResourceVersionService {
+
+    /**
+     * Resource key of the full facility list
+     */
+    public static final String ALL_FACILITIES = "facilities";
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final long maxAgeMillis;
+
+    private final Map<String, Version> versions;
+
+    public ResourceVersionService(
+            @Value("${pitchplease.facility.etag.max-entries:100000}") int maxEntries,
+            @Value("${pitchplease.facility.etag.max-age-seconds:60}") long maxAgeSeconds) {
+        this.maxAgeMillis = maxAgeSeconds * 1000L;
+        this.versions = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Version> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Current ETag of a resource. Read it before loading the data, so a change that
+     * lands in between leaves the client with an older tag rather than a newer one.
+     *
+     * @param resource Resource key, e.g. {@link #ALL_FACILITIES} or {@link #facility(Long)}
+     * @return A quoted strong entity tag
+     */
+    public String currentTag(String resource) {
+        long now = System.currentTimeMillis();
+        long version;
+        synchronized (versions) {
+            Version current = versions.get(resource);
+            if (current == null || now - current.issuedAt >= maxAgeMillis) {
+                current = new Version(counter.incrementAndGet(), now);
+                versions.put(resource, current);
+            }
+            version = current.value;
+        }
+        return '"' + epoch + '-' + Long.toString(version, 36) + '"';
+    }
+
+    /**
+     * Invalidate the tags of resources once the current transaction commits
+     * (immediately if there is none)
+     */
+    public void bumpAfterCommit(String... resources) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(resources);
+                }
+            });
+        } else {
+            bump(resources);
+        }
+    }
+
+    private void bump(String... resources) {
+        synchronized (versions) {
+            for (String resource : resources) {
+                versions.put(resource, new Version(counter.incrementAndGet(), System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * @return Resource key of one facility's details
+     */
+    public static String facility(Long facilityId) {
+        return "facility:" + facilityId;
+    }
+
+    /**
+     * Whether an If-None-Match header matches a tag, using the weak comparison
+     * RFC 9110 prescribes for If-None-Match
+     *
+     * @param ifNoneMatch Header value (may be null, "*" or a comma-separated list)
+     * @param etag        Current tag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Version(long value, long issuedAt) {
+    }
+}
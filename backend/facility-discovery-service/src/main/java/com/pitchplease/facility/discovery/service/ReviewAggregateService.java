@@ -0,0 +1,131 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pitchplease.facility.discovery.model.dto.FacilityDto;
+import com.pitchplease.facility.discovery.model.entity.ReviewAggregate;
+import com.pitchplease.facility.discovery.repository.ReviewAggregateRepository;
+
+/**
+ * Keeps the per-facility {@link ReviewAggregate} rows in step with the reviews.
+ *
+ * Review changes update the row with a relative UPDATE in the caller's transaction, so
+ * the row commits or rolls back together with the review. A facility's row is created
+ * from its existing reviews the first time it is needed, and rows missing for facilities
+ * reviewed before aggregates existed are filled in once at startup.
+ */
+@Service
+public class ReviewAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewAggregateService.class);
+
+    /**
+     * Value of the sort parameter that orders facilities by Bayesian rating
+     */
+    public static final String SORT_BY_RATING = "rating";
+
+    @Autowired
+    private ReviewAggregateRepository reviewAggregateRepository;
+
+    private final double priorMean;
+
+    private final double priorWeight;
+
+    public ReviewAggregateService(
+            @Value("${pitchplease.facility.ratings.prior-mean:3.5}") double priorMean,
+            @Value("${pitchplease.facility.ratings.prior-weight:5}") double priorWeight) {
+        this.priorMean = priorMean;
+        this.priorWeight = priorWeight;
+    }
+
+    /**
+     * Create the missing aggregate rows of facilities that already have reviews
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        try {
+            int created = reviewAggregateRepository.insertMissing(priorMean, priorWeight);
+            if (created > 0) {
+                logger.info("Created review aggregates of {} facilities", created);
+            }
+        } catch (RuntimeException e) {
+            // Rows are still created on the first review change of each facility
+            logger.warn("Failed to backfill review aggregates: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Make sure a facility's aggregate row exists. Call before creating or deleting one
+     * of its reviews, so the row is built from the reviews as they were before the change.
+     *
+     * @param facilityId The facility ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void prepare(Long facilityId) {
+        if (!reviewAggregateRepository.existsById(facilityId)) {
+            reviewAggregateRepository.insertFromReviews(facilityId, priorMean, priorWeight);
+        }
+    }
+
+    /**
+     * Count a new review in its facility's aggregate, after {@link #prepare(Long)}
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewCreated(Long facilityId, int rating) {
+        reviewAggregateRepository.applyReview(facilityId, rating, 1, priorMean, priorWeight);
+    }
+
+    /**
+     * Remove a deleted review from its facility's aggregate, after {@link #prepare(Long)}
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewDeleted(Long facilityId, int rating) {
+        reviewAggregateRepository.applyReview(facilityId, rating, -1, priorMean, priorWeight);
+    }
+
+    /**
+     * Get the rating totals of a facility
+     *
+     * @param facilityId The facility ID
+     * @return The aggregate, or empty if the facility has never been reviewed
+     */
+    public Optional<ReviewAggregate> getAggregate(Long facilityId) {
+        return reviewAggregateRepository.findById(facilityId);
+    }
+
+    /**
+     * Sort facilities by Bayesian rating, best first; facilities without reviews score
+     * the prior mean. Reads one aggregate row per facility in a single query.
+     *
+     * @param facilities The facilities to sort
+     * @return The facilities in rating order
+     */
+    public List<FacilityDto> sortByRating(List<FacilityDto> facilities) {
+        List<Long> ids = facilities.stream().map(FacilityDto::getFacilityId).collect(Collectors.toList());
+        Map<Long, Double> scores = new HashMap<>();
+        for (ReviewAggregate aggregate : reviewAggregateRepository.findAllById(ids)) {
+            scores.put(aggregate.getFacilityId(), aggregate.getBayesianScore());
+        }
+        return facilities.stream()
+                .sorted(Comparator.comparingDouble(
+                        (FacilityDto facility) -> scores.getOrDefault(facility.getFacilityId(), priorMean))
+                        .reversed())
+                .collect(Collectors.toList());
+    }
+}
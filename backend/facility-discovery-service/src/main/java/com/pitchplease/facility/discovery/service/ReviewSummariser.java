@@ -0,0 +1,247 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pitchplease.facility.discovery.model.entity.Review;
+import com.pitchplease.facility.discovery.model.entity.ReviewSummaryChunk;
+import com.pitchplease.facility.discovery.repository.ReviewSummaryChunkRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Summarises any number of reviews within a fixed prompt size.
+ *
+ * Reviews, oldest first, are packed into chunks of at most {@code chunk-tokens}
+ * (estimated at four characters per token). If they fit in one chunk they are
+ * summarised with a single call. Otherwise each chunk is summarised in parallel (map),
+ * and the partial summaries are packed and summarised again, level by level, until one
+ * group is left for the final call (reduce).
+ *
+ * Every map and reduce answer is stored under the hash of its prompt. Since new reviews
+ * are appended to the last chunk, a new review only costs the last chunk, the reduce
+ * groups above it and the final call; everything else comes from the store. An
+ * in-process provider gets every review in one prompt, as it has no prompt size limit.
+ */
+@Service
+public class ReviewSummariser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSummariser.class);
+
+    static final String FINAL_INSTRUCTION =
+            "Summarise the following reviews given for a sports facility, output the review only:";
+
+    private static final String MAP_INSTRUCTION =
+            "Summarise the following reviews of a sports facility in a few sentences, "
+                    + "keeping the points several reviewers agree on:";
+
+    private static final String REDUCE_INSTRUCTION =
+            "Combine the following partial summaries of reviews of a sports facility into one summary, "
+                    + "keeping the points they agree on:";
+
+    private static final String FINAL_REDUCE_INSTRUCTION =
+            "The following are partial summaries of all reviews given for a sports facility. "
+                    + "Write one summary of the reviews from them, output the review only:";
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    @Autowired
+    private LLMClient llmClient;
+
+    @Autowired
+    private ReviewSummaryChunkRepository chunkRepository;
+
+    private final int chunkChars;
+
+    private final ExecutorService pool;
+
+    public ReviewSummariser(
+            @Value("${pitchplease.facility.review-summary.chunk-tokens:3000}") int chunkTokens,
+            @Value("${pitchplease.facility.review-summary.map-parallelism:4}") int parallelism) {
+        this.chunkChars = chunkTokens * CHARS_PER_TOKEN;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "review-summariser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Summarise a facility's reviews
+     *
+     * @param facilityId The facility ID
+     * @param reviews    All reviews of the facility, in any order
+     * @return The summary
+     * @throws com.pitchplease.facility.discovery.exception.LLMUnavailableException if a call
+     *         failed; answers received before the failure are kept for the next attempt
+     */
+    public String summarise(Long facilityId, List<Review> reviews) {
+        List<String> lines = lines(reviews);
+        if (llmClient.isLocal()) {
+            return llmClient.generateContent(FINAL_INSTRUCTION + "\n" + String.join("\n", lines));
+        }
+        lines.replaceAll(this::truncate);
+
+        List<String> chunks = pack(lines);
+        if (chunks.size() <= 1) {
+            String chunk = chunks.isEmpty() ? "" : chunks.get(0);
+            return llmClient.generateContent(FINAL_INSTRUCTION + "\n" + chunk);
+        }
+
+        Map<String, String> cached = new HashMap<>();
+        for (ReviewSummaryChunk stored : chunkRepository.findByFacilityId(facilityId)) {
+            cached.put(stored.getPromptHash(), stored.getSummary());
+        }
+        Set<String> used = new HashSet<>();
+
+        List<String> partials = summariseAll(facilityId, MAP_INSTRUCTION, chunks, cached, used);
+        int level = 1;
+        while (true) {
+            List<String> groups = pack(partials);
+            if (groups.size() == partials.size()) {
+                // Partial summaries too long to pack: pair them up so every level shrinks
+                groups = pairs(partials);
+            }
+            if (groups.size() == 1) {
+                String summary = llmClient.generateContent(FINAL_REDUCE_INSTRUCTION + "\n" + groups.get(0));
+                int pruned = chunkRepository.deleteUnused(facilityId, used);
+                logger.debug("Summarised {} chunks of facility ID: {} over {} levels, pruned {} partials",
+                        chunks.size(), facilityId, level, pruned);
+                return summary;
+            }
+            partials = summariseAll(facilityId, REDUCE_INSTRUCTION, groups, cached, used);
+            level++;
+        }
+    }
+
+    /**
+     * One line per review with a comment, oldest first, as "[rating/5] comment"
+     */
+    static List<String> lines(List<Review> reviews) {
+        List<String> lines = new ArrayList<>();
+        reviews.stream()
+                .sorted(Comparator.comparing(Review::getReviewId))
+                .forEach(review -> {
+                    if (review.getComment() != null && !review.getComment().isBlank()) {
+                        lines.add("[" + review.getRating() + "/5] " + review.getComment().strip().replace('\n', ' '));
+                    }
+                });
+        return lines;
+    }
+
+    /**
+     * Drop the stored partial summaries of a facility
+     */
+    public void forget(Long facilityId) {
+        chunkRepository.deleteByFacilityId(facilityId);
+    }
+
+    /**
+     * Summarise each input with the instruction, in parallel, reusing stored answers
+     */
+    private List<String> summariseAll(Long facilityId, String instruction, List<String> inputs,
+            Map<String, String> cached, Set<String> used) {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (String input : inputs) {
+            String prompt = instruction + "\n" + input;
+            String hash = sha256(prompt);
+            used.add(hash);
+            String hit = cached.get(hash);
+            if (hit != null) {
+                futures.add(CompletableFuture.completedFuture(hit));
+                continue;
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                String summary = llmClient.generateContent(prompt);
+                chunkRepository.save(new ReviewSummaryChunk(facilityId, hash, summary, LocalDateTime.now()));
+                return summary;
+            }, pool));
+        }
+
+        List<String> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<String> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Greedily pack items, in order, into newline-joined groups of at most {@code chunkChars}
+     */
+    private List<String> pack(List<String> items) {
+        List<String> groups = new ArrayList<>();
+        StringBuilder group = new StringBuilder();
+        for (String item : items) {
+            if (group.length() > 0 && group.length() + 1 + item.length() > chunkChars) {
+                groups.add(group.toString());
+                group.setLength(0);
+            }
+            if (group.length() > 0) {
+                group.append('\n');
+            }
+            group.append(item);
+        }
+        if (group.length() > 0) {
+            groups.add(group.toString());
+        }
+        return groups;
+    }
+
+    private static List<String> pairs(List<String> items) {
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += 2) {
+            groups.add(i + 1 < items.size() ? items.get(i) + "\n" + items.get(i + 1) : items.get(i));
+        }
+        return groups;
+    }
+
+    /**
+     * Cut a single review that would not fit in a chunk on its own
+     */
+    private String truncate(String line) {
+        return line.length() <= chunkChars ? line : line.substring(0, chunkChars);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,252 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pitchplease.facility.discovery.exception.LLMUnavailableException;
+import com.pitchplease.facility.discovery.model.entity.Review;
+import com.pitchplease.facility.discovery.model.entity.ReviewSummary;
+import com.pitchplease.facility.discovery.repository.ReviewRepository;
+import com.pitchplease.facility.discovery.repository.ReviewSummaryRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Serves AI review summaries from a cache and regenerates them in the background.
+ *
+ * Summaries are stored in {@code review_summaries} with a stamp of the reviews they
+ * were generated from, and the most recent ones are kept in memory, so reading a
+ * summary never waits for the LLM. New or deleted reviews, and reads that find a
+ * missing or outdated summary, request a refresh. Refreshes are debounced per facility:
+ * each request postpones the refresh by the debounce delay, up to a maximum wait, so a
+ * burst of reviews costs one LLM call. Until the refresh finishes the previous summary
+ * is served; if the LLM is unavailable the previous summary is kept. A facility without
+ * any summary then gets a local extractive one, which is replaced by the next summary
+ * the LLM produces.
+ */
+@Service
+public class ReviewSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSummaryService.class);
+
+    /**
+     * Author name of the summary entry appended to review lists
+     */
+    public static final String SUMMARY_AUTHOR = "PitchPlease AI Summary";
+
+    /**
+     * Shown in place of a summary that has not been generated yet
+     */
+    public static final String UNAVAILABLE = "Summary unavailable";
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReviewSummaryRepository summaryRepository;
+
+    @Autowired
+    private ReviewSummariser reviewSummariser;
+
+    @Autowired
+    private ExtractiveSummariser extractiveSummariser;
+
+    private final boolean enabled;
+
+    private final boolean extractiveFallback;
+
+    private final long debounceMillis;
+
+    private final long maxWaitMillis;
+
+    private final Map<Long, ReviewSummary> cache;
+
+    private final Map<Long, PendingRefresh> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    public ReviewSummaryService(
+            @Value("${pitchplease.facility.review-summary.enabled:true}") boolean enabled,
+            @Value("${pitchplease.facility.review-summary.extractive-fallback:true}") boolean extractiveFallback,
+            @Value("${pitchplease.facility.review-summary.debounce-seconds:30}") long debounceSeconds,
+            @Value("${pitchplease.facility.review-summary.max-wait-seconds:300}") long maxWaitSeconds,
+            @Value("${pitchplease.facility.review-summary.cache-size:10000}") int cacheSize,
+            @Value("${pitchplease.facility.review-summary.threads:2}") int threads) {
+        this.enabled = enabled;
+        this.extractiveFallback = extractiveFallback;
+        this.debounceMillis = debounceSeconds * 1000L;
+        this.maxWaitMillis = maxWaitSeconds * 1000L;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ReviewSummary> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "review-summary-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Latest summary of a facility's reviews, requesting a refresh if it is missing or outdated
+     *
+     * @param facilityId The facility ID
+     * @param reviews    The facility's current reviews
+     * @return The stored summary, possibly from slightly older reviews, or empty if none exists yet
+     */
+    public Optional<ReviewSummary> getSummary(Long facilityId, List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return Optional.empty();
+        }
+        ReviewSummary summary = cache.get(facilityId);
+        if (summary == null) {
+            summary = summaryRepository.findById(facilityId).orElse(null);
+            if (summary != null) {
+                cache.put(facilityId, summary);
+            }
+        }
+        if (summary == null || summary.isFallback() || !summary.isCurrent(reviews.size(), lastReviewId(reviews))) {
+            requestRefresh(facilityId);
+        }
+        return Optional.ofNullable(summary);
+    }
+
+    /**
+     * Request a refresh once the current transaction commits (immediately if there is none)
+     */
+    public void requestRefreshAfterCommit(Long facilityId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestRefresh(facilityId);
+                }
+            });
+        } else {
+            requestRefresh(facilityId);
+        }
+    }
+
+    /**
+     * Schedule a debounced refresh of a facility's summary
+     */
+    public void requestRefresh(Long facilityId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pending.compute(facilityId, (id, existing) -> {
+            long firstRequestedAt = now;
+            if (existing != null) {
+                firstRequestedAt = existing.firstRequestedAt;
+                if (now - firstRequestedAt >= maxWaitMillis || !existing.future.cancel(false)) {
+                    // Already due, or already running and will read the latest reviews
+                    return existing;
+                }
+            }
+            long delay = Math.max(0, Math.min(debounceMillis, firstRequestedAt + maxWaitMillis - now));
+            PendingRefresh refresh = new PendingRefresh(firstRequestedAt);
+            refresh.future = scheduler.schedule(() -> run(id, refresh), delay, TimeUnit.MILLISECONDS);
+            return refresh;
+        });
+    }
+
+    private void run(Long facilityId, PendingRefresh refresh) {
+        pending.remove(facilityId, refresh);
+        try {
+            regenerate(facilityId);
+        } catch (LLMUnavailableException e) {
+            // The next read of the reviews asks again
+            logger.info("Keeping the previous review summary of facility ID: {}: {}", facilityId, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to summarise reviews of facility ID: {}: {}", facilityId, e.getMessage());
+        }
+    }
+
+    private void regenerate(Long facilityId) {
+        List<Review> reviews = reviewRepository.findByFacilityIdOrderByCreatedAtDesc(facilityId);
+        if (reviews.isEmpty()) {
+            summaryRepository.deleteById(facilityId);
+            reviewSummariser.forget(facilityId);
+            cache.remove(facilityId);
+            return;
+        }
+
+        int reviewCount = reviews.size();
+        long lastReviewId = lastReviewId(reviews);
+        ReviewSummary stored = summaryRepository.findById(facilityId).orElse(null);
+        if (stored != null && !stored.isFallback() && stored.isCurrent(reviewCount, lastReviewId)) {
+            // Another replica already summarised these reviews
+            cache.put(facilityId, stored);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        String summary;
+        try {
+            summary = reviewSummariser.summarise(facilityId, reviews);
+        } catch (LLMUnavailableException e) {
+            if (!extractiveFallback || (stored != null && !stored.isFallback())) {
+                throw e;
+            }
+            summary = extractiveSummariser.summarise(ReviewSummariser.lines(reviews));
+            if (summary.isEmpty()) {
+                throw e;
+            }
+            ReviewSummary saved = summaryRepository.save(
+                    new ReviewSummary(facilityId, summary, reviewCount, lastReviewId, LocalDateTime.now(), true));
+            cache.put(facilityId, saved);
+            logger.info("LLM unavailable, stored an extractive summary of {} reviews of facility ID: {} in {} ms",
+                    reviewCount, facilityId, System.currentTimeMillis() - started);
+            return;
+        }
+        ReviewSummary saved = summaryRepository.save(
+                new ReviewSummary(facilityId, summary, reviewCount, lastReviewId, LocalDateTime.now(), false));
+        cache.put(facilityId, saved);
+        logger.info("Summarised {} reviews of facility ID: {} in {} ms",
+                reviewCount, facilityId, System.currentTimeMillis() - started);
+    }
+
+    private static long lastReviewId(List<Review> reviews) {
+        long lastReviewId = 0;
+        for (Review review : reviews) {
+            lastReviewId = Math.max(lastReviewId, review.getReviewId());
+        }
+        return lastReviewId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class PendingRefresh {
+        private final long firstRequestedAt;
+        private ScheduledFuture<?> future;
+
+        private PendingRefresh(long firstRequestedAt) {
+            this.firstRequestedAt = firstRequestedAt;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pitchplease.facility.discovery.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Offline {@link LLMService} for development and load tests, selected with
+ * {@code pitchplease.facility.llm.provider=stub}.
+ *
+ * It answers with the first lines of the prompt after a configurable delay and fails a
+ * configurable share of calls, so timeouts, queueing and the circuit breaker can be
+ * exercised without calling (or paying for) a real model.
+ */
+@Service
+@ConditionalOnProperty(name = "pitchplease.facility.llm.provider", havingValue = "stub")
+public class StubLLMAdapter implements LLMService {
+
+    private static final int SUMMARY_LINES = 3;
+
+    private final long latencyMillis;
+
+    private final long jitterMillis;
+
+    private final double failureRate;
+
+    public StubLLMAdapter(
+            @Value("${pitchplease.facility.llm.stub.latency-millis:200}") long latencyMillis,
+            @Value("${pitchplease.facility.llm.stub.jitter-millis:100}") long jitterMillis,
+            @Value("${pitchplease.facility.llm.stub.failure-rate:0.0}") double failureRate) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String generateContent(String prompt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated LLM failure");
+        }
+
+        // Skip the instruction line and echo the first few reviews
+        String[] lines = prompt.split("\n");
+        StringBuilder summary = new StringBuilder("[stub summary]");
+        for (int i = 1; i < lines.length && i <= SUMMARY_LINES; i++) {
+            if (!lines[i].isBlank()) {
+                summary.append(' ').append(lines[i].trim());
+            }
+        }
+        return summary.toString();
+    }
+}
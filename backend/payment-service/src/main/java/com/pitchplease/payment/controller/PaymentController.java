@@ -3,6 +3,7 @@ package com.pitchplease.payment.controller;
 import com.pitchplease.payment.model.dto.PaymentDto;
 // import com.pitchplease.payment.model.dto.PaymentDto;
 // import com.pitchplease.payment.model.dto.PaymentDto;
+import com.pitchplease.payment.service.IdempotencyService;
 import com.pitchplease.payment.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +30,18 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/create")
-    public ResponseEntity<PaymentDto> processPayment(@RequestBody Map<String, Object> paymentData) {
+    public ResponseEntity<?> processPayment(@RequestBody Map<String, Object> paymentData,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // A retry with the same key gets the first payment back instead of charging again
+        return idempotencyService.execute("payment:create", idempotencyKey, paymentData,
+                () -> processPaymentOnce(paymentData));
+    }
+
+    private ResponseEntity<PaymentDto> processPaymentOnce(Map<String, Object> paymentData) {
         logger.info("Received request to process payment: {}", paymentData);
         
         try {
@@ -0,0 +1,18 @@
+package com.pitchplease.payment.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Primary key of {@link IdempotencyRecord}: one row per operation and key
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecordId implements Serializable {
+    private String scope;
+    private String idempotencyKey;
+}
@@ -0,0 +1,58 @@
+package com.pitchplease.payment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pitchplease.payment.model.entity.IdempotencyRecord;
+import com.pitchplease.payment.model.entity.IdempotencyRecordId;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecordId> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Claim a key for a new request. A claim left unfinished since before
+     * {@code staleBefore} (its replica died mid-request) is taken over.
+     *
+     * @return 1 if this request now owns the key, 0 if another request does or did
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, created_at) " +
+           "VALUES (:scope, :key, :requestHash, :now) " +
+           "ON CONFLICT (scope, idempotency_key) DO UPDATE " +
+           "SET request_hash = EXCLUDED.request_hash, created_at = EXCLUDED.created_at " +
+           "WHERE idempotency_keys.status_code IS NULL AND idempotency_keys.created_at < :staleBefore",
+           nativeQuery = true)
+    int claim(@Param("scope") String scope, @Param("key") String key, @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, " +
+           "r.responseBody = :responseBody WHERE r.scope = :scope AND r.idempotencyKey = :key")
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("statusCode") Integer statusCode,
+            @Param("contentType") String contentType, @Param("responseBody") String responseBody);
+
+    /**
+     * Give up a claim so the request can be retried
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key " +
+           "AND r.statusCode IS NULL")
+    int release(@Param("scope") String scope, @Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,274 @@
+package com.pitchplease.payment.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitchplease.payment.model.entity.IdempotencyRecord;
+import com.pitchplease.payment.repository.IdempotencyRecordRepository;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}.
+ *
+ * The first request with a key claims it in the {@code idempotency_keys} table, runs,
+ * and stores its response there and in a bounded in-memory LRU. Retries get the stored
+ * response back without running again. A duplicate that arrives while the first request
+ * is still running waits on its future (same replica) or polls the table (other
+ * replicas). Server errors are not stored, so a failed request can be retried with the
+ * same key; reusing a key for a different request body is rejected. A claim is only
+ * taken over once it is older than {@code claim-timeout-seconds}, which must exceed the
+ * slowest request, so a replica that died mid-request does not block its key forever.
+ *
+ * booking-service has a copy of this class and of its record and repository; change
+ * both until the services share a module.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_MILLIS = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pitchplease.payment.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${pitchplease.payment.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Value("${pitchplease.payment.idempotency.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    private final Map<String, StoredResponse> cache;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(@Value("${pitchplease.payment.idempotency.cache-size:10000}") int cacheSize) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run {@code action} unless a request with the same key already did
+     *
+     * @param scope   Operation name, e.g. "payment:create"
+     * @param key     Value of the Idempotency-Key header; null runs the action as usual
+     * @param request Request body, compared against the one first sent with the key
+     * @param action  The work to do
+     * @return The action's response, or the stored response of the first request
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        String cacheKey = scope + '\n' + key;
+        StoredResponse cached = cache.get(cacheKey);
+        if (cached != null && !cached.isExpired(ttlHours)) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return awaitInFlight(running, scope, key, request, requestHash, action);
+        }
+
+        StoredResponse stored = null;
+        try {
+            OwnedResult result = runClaimed(scope, key, requestHash, action);
+            stored = result.stored;
+            if (stored != null) {
+                cache.put(cacheKey, stored);
+            }
+            return result.response;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+            mine.complete(stored);
+        }
+    }
+
+    private ResponseEntity<?> awaitInFlight(CompletableFuture<StoredResponse> running, String scope, String key,
+            Object request, String requestHash, Supplier<ResponseEntity<?>> action) {
+        try {
+            StoredResponse stored = running.get(waitSeconds, TimeUnit.SECONDS);
+            if (stored != null) {
+                return replay(stored, requestHash);
+            }
+            // The first request failed without a stored response; this one may try again
+            return execute(scope, key, request, action);
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        } catch (ExecutionException e) {
+            return execute(scope, key, request, action);
+        }
+    }
+
+    /**
+     * Claim the key in the table and run the action, or pick up another replica's result
+     */
+    private OwnedResult runClaimed(String scope, String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = recordRepository.claim(scope, key, requestHash, now, now.minusSeconds(claimTimeoutSeconds));
+        if (claimed == 0) {
+            return awaitStored(scope, key, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            recordRepository.release(scope, key);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            recordRepository.release(scope, key);
+            return new OwnedResult(response, null);
+        }
+
+        StoredResponse stored = toStored(response, requestHash);
+        recordRepository.complete(scope, key, stored.statusCode, stored.contentType, stored.body);
+        logger.debug("Stored response to {} for idempotency key: {}", scope, key);
+        return new OwnedResult(response, stored);
+    }
+
+    /**
+     * Wait for the replica that claimed the key to store its response
+     */
+    private OwnedResult awaitStored(String scope, String key, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitSeconds * 1000;
+        while (true) {
+            IdempotencyRecord record = recordRepository.findByScopeAndIdempotencyKey(scope, key).orElse(null);
+            if (record != null && record.getStatusCode() != null) {
+                StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                        record.getContentType(), record.getResponseBody(), record.getCreatedAt());
+                return new OwnedResult(replay(stored, requestHash), stored);
+            }
+            if (record == null || System.currentTimeMillis() >= deadline) {
+                // Released after a failure, or still running: the client should retry later
+                return new OwnedResult(inProgress(), null);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new OwnedResult(inProgress(), null);
+            }
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(HEADER + " was already used with a different request");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode)
+                .header(REPLAYED_HEADER, "true");
+        if (stored.contentType != null) {
+            builder.contentType(MediaType.parseMediaType(stored.contentType));
+        }
+        return builder.body(stored.body);
+    }
+
+    private static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this " + HEADER + " is still in progress; retry later");
+    }
+
+    private StoredResponse toStored(ResponseEntity<?> response, String requestHash) {
+        Object body = response.getBody();
+        String contentType = null;
+        String text = null;
+        if (body instanceof CharSequence chars) {
+            contentType = MediaType.TEXT_PLAIN_VALUE;
+            text = chars.toString();
+        } else if (body != null) {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            try {
+                text = objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot store response: " + e.getMessage(), e);
+            }
+        }
+        return new StoredResponse(requestHash, response.getStatusCode().value(), contentType, text,
+                LocalDateTime.now());
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] bytes = request instanceof CharSequence chars
+                    ? chars.toString().getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash request: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Forget keys older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${pitchplease.payment.idempotency.purge-millis:3600000}")
+    public void purgeExpired() {
+        int removed = recordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+        if (removed > 0) {
+            logger.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String contentType, String body,
+            LocalDateTime createdAt) {
+
+        boolean isExpired(long ttlHours) {
+            return createdAt.isBefore(LocalDateTime.now().minusHours(ttlHours));
+        }
+    }
+
+    private record OwnedResult(ResponseEntity<?> response, StoredResponse stored) {
+    }
+}
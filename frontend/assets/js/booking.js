@@ -138,6 +138,7 @@ function fetchAvailableTimeSlots(date) {
         })
         .then(data => {
             renderTimeSlots(date, data.availableSlots);
+            subscribeToAvailability(facilityId, date);
         })
         .catch(error => {
             console.error('Error fetching available time slots:', error);
@@ -193,6 +194,68 @@ function fetchAvailableTimeSlots(date) {
         });
 }
 
+// Live availability: the open stream for the date on screen, if any
+let availabilityStream = null;
+
+// Keep the grid in sync with bookings made by others while the page is open
+function subscribeToAvailability(facilityId, date) {
+    if (availabilityStream) {
+        availabilityStream.close();
+        availabilityStream = null;
+    }
+    if (!window.EventSource) {
+        return;
+    }
+
+    let lastSequence = -1;
+    const onEvent = event => {
+        const delta = JSON.parse(event.data);
+        // Each event carries the full mask, so older ones can be skipped
+        if (delta.sequence < lastSequence) {
+            return;
+        }
+        lastSequence = delta.sequence;
+        applyAvailabilityMask(date, delta.bookedMask, delta.slotMinutes);
+    };
+
+    availabilityStream = new EventSource(`/api/bookings/availability_stream?facilityId=${facilityId}&date=${date}`);
+    availabilityStream.addEventListener('snapshot', onEvent);
+    availabilityStream.addEventListener('change', onEvent);
+}
+
+// Re-render the hourly grid from a booked-slot mask, keeping selections that are still free
+function applyAvailabilityMask(date, bookedMask, slotMinutes) {
+    const mask = BigInt('0x' + bookedMask);
+    const selected = new Set(Array.from(document.querySelectorAll('.booking-time-slot.selected'))
+        .map(slot => slot.getAttribute('data-start-hour')));
+
+    const availableSlots = [];
+    for (let hour = 0; hour < 24; hour++) {
+        const firstSlot = Math.floor(hour * 60 / slotMinutes);
+        const endSlot = Math.ceil((hour + 1) * 60 / slotMinutes);
+        let available = true;
+        for (let slot = firstSlot; slot < endSlot && available; slot++) {
+            available = ((mask >> BigInt(slot)) & 1n) === 0n;
+        }
+        availableSlots.push({ startHour: hour, endHour: hour + 1, available: available });
+    }
+    renderTimeSlots(date, availableSlots);
+
+    let lostSelection = false;
+    selected.forEach(startHour => {
+        const slot = document.querySelector(`.booking-time-slot[data-start-hour="${startHour}"]`);
+        if (slot && !slot.classList.contains('disabled')) {
+            slot.classList.add('selected');
+        } else {
+            lostSelection = true;
+        }
+    });
+    if (lostSelection) {
+        showAlert('Some of your selected time slots were just booked by someone else.', 'warning');
+    }
+    updateBookingSummary();
+}
+
 // Render time slots grid
 function renderTimeSlots(selectedDate, availableSlots) {
     const timeSlotGrid = document.getElementById('time-slots-grid');
@@ -279,12 +342,11 @@ function updateBookingSummary() {
         const hourlyRate = parseFloat(document.getElementById('facility-info').getAttribute('data-hourly-rate'));
         document.getElementById('summary-hourly-rate').textContent = hourlyRate.toFixed(2);
 
-        // Calculate hours and total cost
+        // The total comes from booking-service, which applies peak rules and add-ons
         const hours = selectedSlots.length;
-        const totalCost = hours * hourlyRate;
-
         document.getElementById('summary-hours').textContent = hours;
-        document.getElementById('summary-total').textContent = totalCost.toFixed(2);
+        document.getElementById('summary-total').textContent = '...';
+        quoteSelectedSlots(selectedSlots, selectedDate);
 
         // Create list of selected time slots
         const timeSlotsList = document.getElementById('summary-time-slots');
@@ -309,6 +371,85 @@ function updateBookingSummary() {
     }
 }
 
+// Number of the latest quote request, so a slow answer never overwrites a newer one
+let quoteSequence = 0;
+
+// Names of the add-ons ticked in the booking summary
+function selectedAddons() {
+    return Array.from(document.querySelectorAll('#summary-addons input:checked')).map(input => input.value);
+}
+
+// Offer the add-ons booking-service prices, once
+function renderAddons(availableAddons) {
+    const container = document.getElementById('summary-addons');
+    if (container.childElementCount > 0 || !availableAddons) {
+        return;
+    }
+
+    Object.entries(availableAddons).forEach(([name, hourlyPrice]) => {
+        const wrapper = document.createElement('div');
+        wrapper.className = 'form-check';
+
+        const input = document.createElement('input');
+        input.type = 'checkbox';
+        input.className = 'form-check-input';
+        input.id = `addon-${name}`;
+        input.value = name;
+        input.addEventListener('change', updateBookingSummary);
+
+        const label = document.createElement('label');
+        label.className = 'form-check-label';
+        label.htmlFor = input.id;
+        label.textContent = `${name} (+$${parseFloat(hourlyPrice).toFixed(2)}/hour)`;
+
+        wrapper.appendChild(input);
+        wrapper.appendChild(label);
+        container.appendChild(wrapper);
+    });
+}
+
+// Show the price booking-service quotes for the selected slots
+async function quoteSelectedSlots(selectedSlots, selectedDate) {
+    const sequence = ++quoteSequence;
+    const facilityId = new URLSearchParams(window.location.search).get('id') || '1';
+
+    // The whole selection is quoted in one request, with the same body /hold gets
+    const timeSlots = Array.from(selectedSlots).map(slot => ({
+        startHour: parseInt(slot.getAttribute('data-start-hour')),
+        endHour: parseInt(slot.getAttribute('data-end-hour')),
+        date: selectedDate
+    }));
+
+    try {
+        const response = await fetch('/api/bookings/pricing/quote', {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+            },
+            body: JSON.stringify({
+                facilityId: facilityId,
+                date: selectedDate,
+                timeSlots: timeSlots,
+                addons: selectedAddons()
+            })
+        });
+        if (!response.ok) {
+            throw new Error('Network response was not ok');
+        }
+        const quote = await response.json();
+
+        renderAddons(quote.availableAddons);
+        if (sequence === quoteSequence) {
+            document.getElementById('summary-total').textContent = parseFloat(quote.totalPrice).toFixed(2);
+        }
+    } catch (error) {
+        console.error('Error quoting price:', error);
+        if (sequence === quoteSequence) {
+            document.getElementById('summary-total').textContent = 'unavailable';
+        }
+    }
+}
+
 // SHAILENDER STEKKD - LOTS OF HARDCODED STUFF - USERID, FACILITYID
 // Process checkout
 async function proceedToCheckout() {
@@ -334,27 +475,65 @@ async function proceedToCheckout() {
 
     const hourlyRate = parseFloat(document.getElementById('facility-info').getAttribute('data-hourly-rate'));
     const hours = selectedSlots.length;
-    const totalAmount = hours * hourlyRate;
+
+    const addons = selectedAddons();
 
     const bookingData = {
         facilityId: facilityId,
         userId: getUserId(), // Hardcoded for demo
         date: selectedDate,
         timeSlots: timeSlots,
-        totalAmount: totalAmount
+        addons: addons
     };
 
-    // In a real app, you would send this data to your API
     console.log('Booking data to be sent:', bookingData);
 
-    // Simulate API call
-    // For demo purposes, show a success message
-    showAlert('Your booking has been successfully submitted! Redirecting to payment...', 'success');
-
     // Disable the checkout button to prevent multiple submissions
     document.getElementById('proceedToCheckout').disabled = true;
     document.getElementById('proceedToCheckout').innerHTML = '<span class="spinner-border spinner-border-sm" role="status" aria-hidden="true"></span> Processing...';
 
+    // Hold the slots so nobody else can take them while the user pays
+    let hold;
+    try {
+        const response = await fetch('/api/bookings/hold', {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+            },
+            body: JSON.stringify({
+                facilityId: facilityId,
+                userId: await getUserId(),
+                date: selectedDate,
+                timeSlots: timeSlots,
+                addons: addons
+            })
+        });
+
+        if (response.status === 409) {
+            showAlert('Some of the selected slots were just booked by someone else. Please choose different slots.', 'danger');
+            document.getElementById('proceedToCheckout').disabled = false;
+            document.getElementById('proceedToCheckout').innerHTML = 'Proceed to Checkout';
+            return;
+        }
+
+        if (!response.ok) {
+            throw new Error('Network response was not ok');
+        }
+
+        hold = await response.json();
+    } catch (error) {
+        console.error('Error holding slots:', error);
+        showAlert('Could not reserve the selected slots. Please try again.', 'danger');
+        document.getElementById('proceedToCheckout').disabled = false;
+        document.getElementById('proceedToCheckout').innerHTML = 'Proceed to Checkout';
+        return;
+    }
+
+    showAlert('Your slots are reserved! Redirecting to payment...', 'success');
+
+    // The held slots carry the prices that will be charged
+    const totalAmount = hold.bookings.reduce((sum, booking) => sum + parseFloat(booking.totalPrice), 0);
+
     // Store booking data in localStorage for access on the payment page
     localStorage.setItem('bookingData', JSON.stringify({
         facilityId: facilityId,
@@ -364,7 +543,10 @@ async function proceedToCheckout() {
         timeSlots: timeSlots,
         hourlyRate: hourlyRate,
         hours: hours,
-        totalAmount: totalAmount.toFixed(2)
+        addons: addons,
+        totalAmount: totalAmount.toFixed(2),
+        holdGroupId: hold.bookingGroupId,
+        holdExpiresAt: hold.holdExpiresAt
     }));
 
     // Redirect to payment page after a short delay
@@ -254,21 +254,27 @@ async function processPayment(paymentMethod) {
         return;
     }
 
+    // One key per checkout, kept across retries and double-clicks so the order is only placed once
+    if (!bookingData.idempotencyKey) {
+        bookingData.idempotencyKey = crypto.randomUUID();
+        localStorage.setItem('bookingData', JSON.stringify(bookingData));
+    }
+
     // Add user ID and payment method to the booking data
     const bookingPayload = {
         userId: await getUserId(), // Hardcoded user ID
         userName: bookingData.facilityName,
         facilityId: bookingData.facilityId,
         facilityName: "abc",
-        addonsString: "abc",
+        addons: bookingData.addons || [],
 
         date: bookingData.date,
         timeSlots: bookingData.timeSlots,
-        totalAmount: parseFloat(bookingData.totalAmount),
         hourlyRate: bookingData.hourlyRate,
         hours: bookingData.hours,
         paymentMethod: paymentMethod,
-        paymentStatus: 'COMPLETED'
+        paymentStatus: 'COMPLETED',
+        holdGroupId: bookingData.holdGroupId
     };
 
     console.log(bookingPayload.userId);
@@ -279,10 +285,27 @@ async function processPayment(paymentMethod) {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
+                'Idempotency-Key': bookingData.idempotencyKey,
             },
             body: JSON.stringify(bookingPayload)
         });
 
+        if (response.status === 410) {
+            // The checkout hold ran out before payment
+            showAlert('Your reservation has expired. Please choose your slots again.', 'danger');
+            submitBtn.disabled = false;
+            submitBtn.innerHTML = 'Try Again';
+            return;
+        }
+
+        if (response.status === 409) {
+            // Another booking took one of these slots first
+            showAlert('Some of the selected slots were just booked by someone else. Please choose different slots.', 'danger');
+            submitBtn.disabled = false;
+            submitBtn.innerHTML = 'Try Again';
+            return;
+        }
+
         if (!response.ok) {
             throw new Error('Network response was not ok');
         }
@@ -341,6 +364,10 @@ function failPayment(paymentMethod) {
             if (bookingData && bookingData.facilityId) {
                 facilityId = bookingData.facilityId;
             }
+            // Give the held slots back instead of waiting for the hold to expire
+            if (bookingData && bookingData.holdGroupId) {
+                fetch(`/api/bookings/hold?bookingGroupId=${bookingData.holdGroupId}`, { method: 'DELETE' });
+            }
         } catch (error) {
             console.error('Error retrieving booking data:', error);
         }